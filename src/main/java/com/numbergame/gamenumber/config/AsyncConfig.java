@@ -6,6 +6,7 @@ import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.scheduling.annotation.AsyncConfigurer;
 import org.springframework.scheduling.annotation.EnableAsync;
+import org.springframework.core.task.SimpleAsyncTaskExecutor;
 import org.springframework.scheduling.annotation.EnableScheduling;
 import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
 
@@ -78,6 +79,20 @@ public class AsyncConfig implements AsyncConfigurer {
         return executor;
     }
 
+    /**
+     * Fan-out executor for leaderboard stream (SSE) sends
+     * One virtual thread per send: a slow client blocks only its own send, not the broadcast
+     */
+    @Bean(name = "leaderboardStreamExecutor")
+    public Executor leaderboardStreamExecutor() {
+        SimpleAsyncTaskExecutor executor = new SimpleAsyncTaskExecutor("LeaderboardStream-");
+        executor.setVirtualThreads(true);
+
+        log.info("✅ Leaderboard Stream Executor initialized: virtual threads");
+
+        return executor;
+    }
+
     @Override
     public Executor getAsyncExecutor() {
         return taskExecutor();
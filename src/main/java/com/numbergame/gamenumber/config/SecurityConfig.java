@@ -42,6 +42,10 @@ public class SecurityConfig {
                 .authorizeHttpRequests(auth -> auth
                         .requestMatchers("/api/v1/auth/**").permitAll()
                         .requestMatchers("/api/v1/leaderboard").permitAll()
+                        .requestMatchers("/api/v1/leaderboard/page").permitAll()
+                        .requestMatchers("/api/v1/leaderboard/stream").permitAll()
+                        .requestMatchers("/api/v1/leaderboard/seasons/current").permitAll()
+                        .requestMatchers("/api/v1/leaderboard/metrics/*").permitAll()
                         .requestMatchers("/api/v1/payment/**").permitAll()  // Allow Stripe payment callbacks
                         .anyRequest().authenticated()
                 )
@@ -1,16 +1,28 @@
 package com.numbergame.gamenumber.controller;
 
 import com.numbergame.gamenumber.dto.request.BuyTurnsRequest;
+import com.numbergame.gamenumber.dto.request.GroupMembersRequest;
 import com.numbergame.gamenumber.dto.response.*;
+import com.numbergame.gamenumber.enums.LeaderboardMetric;
+import com.numbergame.gamenumber.enums.LeaderboardWindow;
+import com.numbergame.gamenumber.service.ILeaderboardSnapshotService;
+import com.numbergame.gamenumber.service.ILeaderboardStreamService;
 import com.numbergame.gamenumber.service.IUserService;
 import jakarta.validation.Valid;
+import com.numbergame.gamenumber.dto.LeaderboardSnapshot;
 import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.Authentication;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.TimeUnit;
 
 @RestController
 @RequestMapping("/api/v1")
@@ -18,6 +30,11 @@ import java.util.Map;
 public class UserController {
 
     private final IUserService userService;
+    private final ILeaderboardSnapshotService leaderboardSnapshotService;
+    private final ILeaderboardStreamService leaderboardStreamService;
+
+    @Value("${leaderboard.http.max-age-seconds:5}")
+    private long leaderboardMaxAgeSeconds;
 
     @GetMapping("/me")
     public ResponseEntity<ApiResponse<UserInfoResponse>> getCurrentUser(Authentication authentication) {
@@ -26,10 +43,135 @@ public class UserController {
         return ResponseEntity.ok(ApiResponse.success(response));
     }
 
+    /**
+     * GLOBAL is served from the in-memory snapshot: pre-serialized ApiResponse bytes, no Redis call
+     * The snapshot ETag lets pollers revalidate: a matching If-None-Match gets 304 with no body
+     * (checked by Spring when the ResponseEntity carries an ETag), a short public max-age lets
+     * browsers and CDNs absorb the rest
+     * Other windows read the top 10 of their sorted set
+     */
     @GetMapping("/leaderboard")
-    public ResponseEntity<ApiResponse<List<LeaderboardResponse>>> getLeaderboard() {
-        List<LeaderboardResponse> leaderboard = userService.getLeaderboard();
-        return ResponseEntity.ok(ApiResponse.success(leaderboard));
+    public ResponseEntity<?> getLeaderboard(
+            @RequestParam(defaultValue = "GLOBAL") LeaderboardWindow window) {
+        if (window != LeaderboardWindow.GLOBAL) {
+            LeaderboardPageResponse page = userService.getLeaderboardPage(window, 1, 10);
+            return ResponseEntity.ok(ApiResponse.success(page.getEntries()));
+        }
+        LeaderboardSnapshot snapshot = leaderboardSnapshotService.getSnapshot();
+        return ResponseEntity.ok()
+                .eTag(snapshot.getEtag())
+                .cacheControl(CacheControl.maxAge(leaderboardMaxAgeSeconds, TimeUnit.SECONDS).cachePublic())
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(snapshot.getJson());
+    }
+
+    /**
+     * Live GLOBAL top 10 over Server-Sent Events: "snapshot" event on connect, then coalesced "diff" events
+     * 503 when this node is at its stream connection limit (the client retries, possibly on another node)
+     */
+    @GetMapping(value = "/leaderboard/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public ResponseEntity<SseEmitter> streamLeaderboard() {
+        SseEmitter emitter = leaderboardStreamService.subscribe();
+        if (emitter == null) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).build();
+        }
+        return ResponseEntity.ok()
+                .header("X-Accel-Buffering", "no") // nginx: do not buffer the stream
+                .body(emitter);
+    }
+
+    /**
+     * Rank-window pagination: pass nextCursor of the previous page as cursor
+     * window=SEASON&season=N reads season N (archived seasons included)
+     */
+    @GetMapping("/leaderboard/page")
+    public ResponseEntity<ApiResponse<LeaderboardPageResponse>> getLeaderboardPage(
+            @RequestParam(defaultValue = "GLOBAL") LeaderboardWindow window,
+            @RequestParam(required = false) Long season,
+            @RequestParam(defaultValue = "1") long cursor,
+            @RequestParam(defaultValue = "20") int size) {
+        LeaderboardPageResponse page = window == LeaderboardWindow.SEASON && season != null
+                ? userService.getSeasonLeaderboardPage(season, cursor, size)
+                : userService.getLeaderboardPage(window, cursor, size);
+        return ResponseEntity.ok(ApiResponse.success(page));
+    }
+
+    @GetMapping("/leaderboard/seasons/current")
+    public ResponseEntity<ApiResponse<Map<String, Long>>> getCurrentSeason() {
+        return ResponseEntity.ok(ApiResponse.success(Map.of("season", userService.getCurrentSeason())));
+    }
+
+    @GetMapping("/leaderboard/around-me")
+    public ResponseEntity<ApiResponse<LeaderboardPageResponse>> getLeaderboardAroundMe(
+            @RequestParam(defaultValue = "GLOBAL") LeaderboardWindow window,
+            @RequestParam(defaultValue = "5") int radius,
+            Authentication authentication) {
+        String username = authentication.getName();
+        LeaderboardPageResponse page = userService.getLeaderboardAroundUser(window, username, radius);
+        return ResponseEntity.ok(ApiResponse.success(page));
+    }
+
+    /**
+     * Metric boards (GAMES, WIN_RATE, BEST_STREAK), maintained by the guess itself
+     * WIN_RATE scores are basis points (5234 = 52.34%)
+     */
+    @GetMapping("/leaderboard/metrics/{metric}")
+    public ResponseEntity<ApiResponse<LeaderboardPageResponse>> getMetricLeaderboard(
+            @PathVariable LeaderboardMetric metric,
+            @RequestParam(defaultValue = "1") long cursor,
+            @RequestParam(defaultValue = "20") int size) {
+        LeaderboardPageResponse page = userService.getMetricLeaderboardPage(metric, cursor, size);
+        return ResponseEntity.ok(ApiResponse.success(page));
+    }
+
+    @GetMapping("/leaderboard/metrics/{metric}/me")
+    public ResponseEntity<ApiResponse<LeaderboardResponse>> getMyMetricRank(
+            @PathVariable LeaderboardMetric metric,
+            Authentication authentication) {
+        String username = authentication.getName();
+        return ResponseEntity.ok(ApiResponse.success(userService.getMetricRank(metric, username)));
+    }
+
+    /**
+     * Private group boards (friends, clans): members ranked by their global score
+     */
+    @GetMapping("/leaderboard/groups/{groupId}")
+    public ResponseEntity<ApiResponse<LeaderboardPageResponse>> getGroupLeaderboard(
+            @PathVariable String groupId,
+            @RequestParam(defaultValue = "1") long cursor,
+            @RequestParam(defaultValue = "20") int size,
+            Authentication authentication) {
+        String username = authentication.getName();
+        LeaderboardPageResponse page = userService.getGroupLeaderboardPage(groupId, username, cursor, size);
+        return ResponseEntity.ok(ApiResponse.success(page));
+    }
+
+    @PostMapping("/leaderboard/groups/{groupId}/members")
+    public ResponseEntity<ApiResponse<Map<String, Integer>>> inviteGroupMembers(
+            @PathVariable String groupId,
+            @Valid @RequestBody GroupMembersRequest request,
+            Authentication authentication) {
+        String username = authentication.getName();
+        int invited = userService.inviteLeaderboardGroupMembers(groupId, username, request.getUsernames());
+        return ResponseEntity.ok(ApiResponse.success("Players invited", Map.of("invited", invited)));
+    }
+
+    @PostMapping("/leaderboard/groups/{groupId}/members/me")
+    public ResponseEntity<ApiResponse<Void>> joinGroup(
+            @PathVariable String groupId,
+            Authentication authentication) {
+        String username = authentication.getName();
+        userService.acceptLeaderboardGroupInvite(groupId, username);
+        return ResponseEntity.ok(ApiResponse.success("Joined group", null));
+    }
+
+    @DeleteMapping("/leaderboard/groups/{groupId}/members/me")
+    public ResponseEntity<ApiResponse<Void>> leaveGroup(
+            @PathVariable String groupId,
+            Authentication authentication) {
+        String username = authentication.getName();
+        userService.leaveLeaderboardGroup(groupId, username);
+        return ResponseEntity.ok(ApiResponse.success("Left group", null));
     }
 
     @PostMapping("/buy-turns")
@@ -0,0 +1,24 @@
+package com.numbergame.gamenumber.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Result of a guess applied atomically in Redis
+ * Carries everything GameServiceImpl needs to build the response without extra reads
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class GuessOutcome {
+    private boolean insufficientTurns;
+    private boolean correct;
+    private int remainingTurns;
+    private int totalScore;
+    private int previousLossStreak;
+    private int lossStreak;
+    private long achievedAt; // epoch second the total score was reached
+}
@@ -0,0 +1,23 @@
+package com.numbergame.gamenumber.dto;
+
+import com.numbergame.gamenumber.dto.response.LeaderboardResponse;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.util.List;
+
+/**
+ * Immutable, pre-built top-N leaderboard held in memory on each node
+ * Swapped atomically as a whole, readers never see a partially built board
+ */
+@Getter
+@AllArgsConstructor
+public class LeaderboardSnapshot {
+    private final long version;
+    // Weak ETag: board version + fingerprint of the entries (see LeaderboardSnapshotServiceImpl)
+    private final String etag;
+    private final List<LeaderboardResponse> entries;
+    // Pre-serialized ApiResponse body, written to the socket as-is
+    private final byte[] json;
+    private final long builtAtMillis;
+}
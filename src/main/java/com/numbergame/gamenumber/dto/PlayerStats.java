@@ -0,0 +1,21 @@
+package com.numbergame.gamenumber.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Per-player counters behind the metric boards, held in one Redis hash (player:stats:{id})
+ * and copied to the users table by the batch sync
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class PlayerStats {
+    private int games;
+    private int wins;
+    private int winStreak;
+    private int bestStreak;
+}
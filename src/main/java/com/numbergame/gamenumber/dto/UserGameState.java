@@ -0,0 +1,23 @@
+package com.numbergame.gamenumber.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Per-user game state held in one Redis hash (user:state:{id}), read with a single HMGET
+ * Version is bumped by every write to the hash
+ * achievedAt: epoch second the current score was reached (leaderboard tie-break, 0 = unknown)
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class UserGameState {
+    private int score;
+    private int turns;
+    private int lossStreak;
+    private long version;
+    private long achievedAt;
+}
@@ -0,0 +1,24 @@
+package com.numbergame.gamenumber.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * Static part of /me (changes on sign-in at most), cached in-process and in Redis
+ * Score, turns and rank are not part of it: they are read from their own hot stores
+ */
+@Data
+@Builder(toBuilder = true)
+@NoArgsConstructor
+@AllArgsConstructor
+public class UserProfile {
+    private Long id;
+    private String username;
+    private String email;
+    private LocalDateTime createdAt;
+    private LocalDateTime lastLogin;
+}
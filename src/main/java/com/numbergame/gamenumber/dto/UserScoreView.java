@@ -0,0 +1,21 @@
+package com.numbergame.gamenumber.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * Leaderboard projection of a user (id, username, score + its tie-break time only)
+ * Read with a JPQL constructor expression: no entity, no persistence context
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class UserScoreView {
+    private Long id;
+    private String username;
+    private Integer score;
+    private LocalDateTime scoreAchievedAt; // when the score was reached (falls back to registration)
+}
@@ -0,0 +1,21 @@
+package com.numbergame.gamenumber.dto.request;
+
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.Size;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class GroupMembersRequest {
+
+    @NotEmpty(message = "At least one username is required")
+    @Size(max = 100, message = "At most 100 usernames per request")
+    private List<String> usernames;
+}
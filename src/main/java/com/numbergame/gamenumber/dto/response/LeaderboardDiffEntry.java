@@ -0,0 +1,19 @@
+package com.numbergame.gamenumber.dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class LeaderboardDiffEntry {
+    private Long userId;
+    private String username;
+    private Integer rank;
+    private Integer previousRank;  // null when the user just entered the top N
+    private Integer score;
+    private Integer previousScore; // null when the user just entered the top N
+}
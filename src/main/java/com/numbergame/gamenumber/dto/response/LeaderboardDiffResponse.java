@@ -0,0 +1,22 @@
+package com.numbergame.gamenumber.dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * Top-N change pushed on the leaderboard stream
+ * Entries carry absolute rank/score, so applying the same diff twice is harmless
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class LeaderboardDiffResponse {
+    private long version;
+    private List<LeaderboardDiffEntry> changed; // new entries, rank moves and score changes
+    private List<Long> removed;                 // user ids that left the top N
+}
@@ -0,0 +1,19 @@
+package com.numbergame.gamenumber.dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class LeaderboardPageResponse {
+    private List<LeaderboardResponse> entries;
+    private Long fromRank;   // 1-based rank of the first entry (null if empty)
+    private Long toRank;     // 1-based rank of the last entry (null if empty)
+    private Long nextCursor; // rank to request next, null when there is no further entry
+}
@@ -14,5 +14,6 @@ public class LeaderboardResponse {
     private Long userId;
     private String username;
     private Integer score;
+    private Double percentile; // % of players ranked at or below this entry (100 = top)
 }
 
@@ -18,6 +18,7 @@ public class UserInfoResponse {
     private Integer score;
     private Integer turns;
     private Long rank;
+    private Double percentile;
     private LocalDateTime lastLogin;
     private LocalDateTime createdAt;
 }
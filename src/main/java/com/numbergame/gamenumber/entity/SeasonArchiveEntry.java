@@ -0,0 +1,46 @@
+package com.numbergame.gamenumber.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.LocalDateTime;
+
+/**
+ * Final standing of a player in an archived season (written once, at season rollover)
+ */
+@Entity
+@Table(name = "season_archive", uniqueConstraints = {
+    @UniqueConstraint(name = "uk_season_rank", columnNames = {"season", "season_rank"})
+}, indexes = {
+    @Index(name = "idx_season_user", columnList = "season, user_id")
+})
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class SeasonArchiveEntry {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(nullable = false)
+    private Long season;
+
+    // "rank" is a reserved word in MySQL 8
+    @Column(name = "season_rank", nullable = false)
+    private Long seasonRank;
+
+    @Column(name = "user_id", nullable = false)
+    private Long userId;
+
+    @Column(length = 50)
+    private String username;
+
+    @Column(nullable = false)
+    private Integer score;
+
+    @Column(name = "archived_at", nullable = false)
+    private LocalDateTime archivedAt;
+}
@@ -51,6 +51,27 @@ public class User {
     
     @Column(name = "last_login")
     private LocalDateTime lastLogin;
+
+    // When the current score was reached (leaderboard tie-break: earlier achiever ranks higher)
+    @Column(name = "score_achieved_at")
+    private LocalDateTime scoreAchievedAt;
+
+    // Durable copy of player:stats:{id} (metric boards), written by the batch sync
+    @Builder.Default
+    @Column(name = "games_played", nullable = false, columnDefinition = "INT DEFAULT 0")
+    private Integer gamesPlayed = 0;
+
+    @Builder.Default
+    @Column(name = "games_won", nullable = false, columnDefinition = "INT DEFAULT 0")
+    private Integer gamesWon = 0;
+
+    @Builder.Default
+    @Column(name = "win_streak", nullable = false, columnDefinition = "INT DEFAULT 0")
+    private Integer winStreak = 0;
+
+    @Builder.Default
+    @Column(name = "best_win_streak", nullable = false, columnDefinition = "INT DEFAULT 0")
+    private Integer bestWinStreak = 0;
     
     @Version
     private Long version;
@@ -0,0 +1,21 @@
+package com.numbergame.gamenumber.enums;
+
+/**
+ * Strategy used by GameServiceImpl to keep a guess consistent under concurrency
+ */
+public enum GuessMode {
+    /**
+     * Legacy flow: per-user SETNX lock, then one Redis call per step
+     */
+    LOCK,
+
+    /**
+     * Lock-free flow: decrement-if-positive on turns + compare-and-set on the loss streak
+     */
+    CONDITIONAL,
+
+    /**
+     * Single atomic Redis script: turns, pity/streak and score in one round-trip, no lock
+     */
+    SCRIPT
+}
@@ -0,0 +1,17 @@
+package com.numbergame.gamenumber.enums;
+
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+
+/**
+ * Ranked player metrics besides the score, updated by the guess script (scripts/guess.lua)
+ */
+@Getter
+@RequiredArgsConstructor
+public enum LeaderboardMetric {
+    GAMES("leaderboard:metric:games"),              // total guesses played
+    WIN_RATE("leaderboard:metric:win_rate"),        // wins / games in basis points (5234 = 52.34%), min games applies
+    BEST_STREAK("leaderboard:metric:best_streak");  // longest run of consecutive wins
+
+    private final String boardKey;
+}
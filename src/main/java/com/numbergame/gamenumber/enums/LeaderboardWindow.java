@@ -0,0 +1,26 @@
+package com.numbergame.gamenumber.enums;
+
+/**
+ * Time window of a leaderboard
+ */
+public enum LeaderboardWindow {
+    /**
+     * All-time total score (leaderboard:global)
+     */
+    GLOBAL,
+
+    /**
+     * Points won today, incremented on each win (one sorted set per day, expires after a week)
+     */
+    DAILY,
+
+    /**
+     * Rolling last 7 days, rebuilt on a schedule with ZUNIONSTORE of the daily boards
+     */
+    WEEKLY,
+
+    /**
+     * Points won in the current season, incremented on each win
+     */
+    SEASON
+}
@@ -57,6 +57,18 @@ public class GlobalExceptionHandler {
         return problemDetail;
     }
 
+    @ExceptionHandler(ForbiddenOperationException.class)
+    public ProblemDetail handleForbiddenOperationException(ForbiddenOperationException ex) {
+        ProblemDetail problemDetail = ProblemDetail.forStatusAndDetail(
+                HttpStatus.FORBIDDEN,
+                ex.getMessage()
+        );
+        problemDetail.setTitle("Forbidden");
+        problemDetail.setType(URI.create("https://api.gamenumber.com/errors/forbidden"));
+        problemDetail.setProperty("timestamp", Instant.now());
+        return problemDetail;
+    }
+
     @ExceptionHandler(GameLockException.class)
     public ProblemDetail handleGameLockException(GameLockException ex) {
         ProblemDetail problemDetail = ProblemDetail.forStatusAndDetail(
@@ -70,6 +82,18 @@ public class GlobalExceptionHandler {
         return problemDetail;
     }
 
+    @ExceptionHandler(HistoryBufferFullException.class)
+    public ProblemDetail handleHistoryBufferFullException(HistoryBufferFullException ex) {
+        ProblemDetail problemDetail = ProblemDetail.forStatusAndDetail(
+                HttpStatus.SERVICE_UNAVAILABLE,
+                ex.getMessage()
+        );
+        problemDetail.setTitle("Service Busy");
+        problemDetail.setType(URI.create("https://api.gamenumber.com/errors/history-buffer-full"));
+        problemDetail.setProperty("timestamp", Instant.now());
+        return problemDetail;
+    }
+
     @ExceptionHandler(InvalidCredentialsException.class)
     public ProblemDetail handleInvalidCredentialsException(InvalidCredentialsException ex) {
         ProblemDetail problemDetail = ProblemDetail.forStatusAndDetail(
@@ -0,0 +1,7 @@
+package com.numbergame.gamenumber.exception.custom;
+
+public class ForbiddenOperationException extends RuntimeException {
+    public ForbiddenOperationException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,11 @@
+package com.numbergame.gamenumber.exception.custom;
+
+public class HistoryBufferFullException extends RuntimeException {
+    public HistoryBufferFullException(String message) {
+        super(message);
+    }
+
+    public HistoryBufferFullException() {
+        super("The game is busy saving recent results. Please try again in a moment.");
+    }
+}
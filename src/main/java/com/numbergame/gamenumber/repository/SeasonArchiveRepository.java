@@ -0,0 +1,25 @@
+package com.numbergame.gamenumber.repository;
+
+import com.numbergame.gamenumber.entity.SeasonArchiveEntry;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+@Repository
+public interface SeasonArchiveRepository extends JpaRepository<SeasonArchiveEntry, Long> {
+
+    // Rank window of an archived season - range scan on uk_season_rank
+    List<SeasonArchiveEntry> findBySeasonAndSeasonRankBetweenOrderBySeasonRankAsc(Long season, Long fromRank, Long toRank);
+
+    boolean existsBySeason(Long season);
+
+    long countBySeason(Long season);
+
+    @Modifying
+    @Query("DELETE FROM SeasonArchiveEntry e WHERE e.season = :season")
+    int deleteBySeason(@Param("season") Long season);
+}
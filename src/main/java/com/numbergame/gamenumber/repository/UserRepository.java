@@ -1,7 +1,9 @@
 package com.numbergame.gamenumber.repository;
 
+import com.numbergame.gamenumber.dto.UserScoreView;
 import com.numbergame.gamenumber.entity.User;
 import jakarta.persistence.LockModeType;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Lock;
 import org.springframework.data.jpa.repository.Query;
@@ -27,15 +29,20 @@ public interface UserRepository extends JpaRepository<User, Long> {
     @Query("SELECT u FROM User u WHERE u.id = :id")
     Optional<User> findByIdWithLock(@Param("id") Long id);
 
-    // Optimized query for leaderboard with index hint
-    @Query(value = "SELECT * FROM users ORDER BY score DESC, username ASC LIMIT 10", nativeQuery = true)
+    // Optimized query for leaderboard - ties broken like the Redis composite score (earlier achiever first)
+    @Query(value = "SELECT * FROM users ORDER BY score DESC, COALESCE(score_achieved_at, created_at) ASC, id ASC LIMIT 10",
+           nativeQuery = true)
     List<User> findTop10ByOrderByScoreDesc();
 
-    // Get top users by score for leaderboard with custom limit - using Spring Data naming
-    @Query(value = "SELECT u FROM User u ORDER BY u.score DESC")
-    List<User> findAllByOrderByScoreDesc();
-
-    // Count users with score greater than
-    @Query("SELECT COUNT(u) FROM User u WHERE u.score > :score")
-    Long countUsersWithScoreGreaterThan(@Param("score") Integer score);
+    // Top users by score (projection, LIMIT pushed to the DB via Pageable)
+    @Query("SELECT new com.numbergame.gamenumber.dto.UserScoreView(u.id, u.username, u.score, " +
+           "COALESCE(u.scoreAchievedAt, u.createdAt)) " +
+           "FROM User u ORDER BY u.score DESC, COALESCE(u.scoreAchievedAt, u.createdAt) ASC, u.id ASC")
+    List<UserScoreView> findTopScores(Pageable pageable);
+
+    // Keyset page of (id, username, score) for leaderboard rebuilds - no OFFSET, uses the primary key
+    @Query("SELECT new com.numbergame.gamenumber.dto.UserScoreView(u.id, u.username, u.score, " +
+           "COALESCE(u.scoreAchievedAt, u.createdAt)) " +
+           "FROM User u WHERE u.id > :afterId ORDER BY u.id ASC")
+    List<UserScoreView> findScoresAfterId(@Param("afterId") Long afterId, Pageable pageable);
 }
@@ -1,5 +1,7 @@
 package com.numbergame.gamenumber.service;
 
+import com.numbergame.gamenumber.dto.GuessOutcome;
+
 /**
  * Game Engine Interface - Core game logic with Biased RNG + Pity System
  * Industry-standard algorithm for optimal user experience
@@ -25,6 +27,17 @@ public interface IGameEngine {
      */
     boolean processGuess(Long userId, Integer guessedNumber, Double customWinRate);
 
+    /**
+     * Process a guess atomically in Redis: turn deduction, pity/streak update
+     * and score increment happen in one server-side script (no lock needed)
+     *
+     * @param userId User ID
+     * @param customWinRate Custom win probability (0.01 to 1.0), null to use default
+     * @param scoreOnWin Score added when the guess wins
+     * @return Outcome of the guess (insufficientTurns set when no turn was left)
+     */
+    GuessOutcome processGuessAtomically(Long userId, Double customWinRate, int scoreOnWin);
+
     /**
      * Get current loss streak for a user
      *
@@ -47,4 +60,12 @@ public interface IGameEngine {
      * @return Adjusted win rate (0.0 to 1.0)
      */
     double getAdjustedWinRate(Long userId);
+
+    /**
+     * Calculate adjusted win rate for a known loss streak (no Redis read)
+     *
+     * @param lossStreak Current loss streak
+     * @return Adjusted win rate (0.0 to 1.0)
+     */
+    double calculateAdjustedWinRate(int lossStreak);
 }
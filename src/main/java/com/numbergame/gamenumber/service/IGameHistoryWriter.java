@@ -0,0 +1,57 @@
+package com.numbergame.gamenumber.service;
+
+import com.numbergame.gamenumber.entity.GameHistory;
+
+/**
+ * Game History Writer - Write-behind buffer for game_history inserts
+ *
+ * Benefits:
+ * - Takes the MySQL insert off the guess hot path
+ * - Multi-row JDBC batches, each in one transaction, instead of one IDENTITY insert per guess
+ * - Bounded buffer flushed on size, time and shutdown; a guess reserves its row's room before
+ *   spending a turn, so a full buffer rejects the guess instead of losing its history row
+ */
+public interface IGameHistoryWriter {
+
+    /**
+     * Reserve room for one history row, before the guess changes any state
+     * Waits up to reserve-timeout-ms for the flusher to make room
+     *
+     * @return Slot to record the row into; closing it unused gives the room back
+     * @throws com.numbergame.gamenumber.exception.custom.HistoryBufferFullException if the buffer stays full
+     */
+    Slot reserve();
+
+    /**
+     * Flush all buffered rows to the database synchronously
+     * Used on shutdown and by tests
+     *
+     * @return Number of rows written
+     */
+    int flush();
+
+    /**
+     * Get number of rows waiting in the buffer (failed batch included)
+     */
+    int getPendingCount();
+
+    /**
+     * Room for one row, taken by reserve()
+     */
+    interface Slot extends AutoCloseable {
+
+        /**
+         * Record a played game into the reserved room
+         * Buffered when write-behind is enabled (id stays null), saved immediately otherwise
+         *
+         * @param gameHistory Game history row
+         */
+        void record(GameHistory gameHistory);
+
+        /**
+         * Give the room back if nothing was recorded (guess rejected or failed before its row)
+         */
+        @Override
+        void close();
+    }
+}
@@ -1,7 +1,13 @@
 package com.numbergame.gamenumber.service;
 
+import com.numbergame.gamenumber.dto.response.LeaderboardPageResponse;
 import com.numbergame.gamenumber.dto.response.LeaderboardResponse;
+import com.numbergame.gamenumber.enums.LeaderboardMetric;
+import com.numbergame.gamenumber.enums.LeaderboardWindow;
+import com.numbergame.gamenumber.exception.custom.ForbiddenOperationException;
 
+import java.time.Instant;
+import java.util.Collection;
 import java.util.List;
 
 /**
@@ -13,12 +19,31 @@ public interface ILeaderboardService {
     /**
      * Update user score in leaderboard
      * Complexity: O(log N)
+     * With coalescing enabled the score is buffered and becomes visible after the next flush
      *
      * @param userId User ID
      * @param username Username
      * @param score New score
+     * @param achievedAt When the score was reached, as stored in the user state hash (tie-break), null if unknown
      */
-    void updateScore(Long userId, String username, Integer score);
+    void updateScore(Long userId, String username, Integer score, Instant achievedAt);
+
+    /**
+     * Add points won to the time-windowed boards (daily, season; weekly is aggregated from daily)
+     * Complexity: O(log N) per board
+     *
+     * @param userId User ID
+     * @param points Points won by the guess
+     */
+    void addWindowPoints(Long userId, int points);
+
+    /**
+     * Flush buffered (coalesced) score updates to Redis right away
+     * Called on every tick by the scheduler; exposed for tests and shutdown
+     *
+     * @return Number of entries written (scores + window increments)
+     */
+    int flushPendingUpdates();
 
     /**
      * Get top N users from leaderboard
@@ -29,6 +54,124 @@ public interface ILeaderboardService {
      */
     List<LeaderboardResponse> getTopUsers(int limit);
 
+    /**
+     * Get a window of the leaderboard starting at a rank (rank cursor pagination)
+     * Complexity: O(log N + M), page size capped at 100
+     *
+     * @param window Time window of the board
+     * @param cursor 1-based rank of the first entry (nextCursor of the previous page)
+     * @param size Number of entries to return
+     * @return Page of entries with the cursor of the next page
+     */
+    LeaderboardPageResponse getRankWindow(LeaderboardWindow window, long cursor, int size);
+
+    /**
+     * Get the entries ranked around a user (rank ± radius)
+     * Complexity: O(log N + M), radius capped at 50
+     *
+     * @param window Time window of the board
+     * @param userId User ID
+     * @param radius Number of neighbours above and below the user
+     * @return Window containing the user, or null if the user is not ranked
+     */
+    LeaderboardPageResponse getAroundUser(LeaderboardWindow window, Long userId, int radius);
+
+    /**
+     * Close the current season now: the live season board is renamed to an archive key
+     * (atomic, traffic keeps flowing into a fresh board) and exported to MySQL in the background
+     * Also triggered automatically once leaderboard.season.length-days have elapsed
+     *
+     * @return Closed season number, or -1 if another node closed it concurrently
+     */
+    long rolloverSeason();
+
+    /**
+     * Get the number of the running season
+     */
+    long getCurrentSeason();
+
+    /**
+     * Get a window of a season board: the live one for the current season,
+     * the archive (Redis while retained, then MySQL) for past seasons
+     * Complexity: O(log N + M)
+     *
+     * @param season Season number
+     * @param cursor 1-based rank of the first entry
+     * @param size Number of entries to return (capped at 100)
+     * @return Page of entries with the cursor of the next page (empty for unknown seasons)
+     */
+    LeaderboardPageResponse getSeasonRankWindow(long season, long cursor, int size);
+
+    /**
+     * Invite users to a group board (friends, clan); only the owner invites, invitees join with acceptGroupInvite
+     * A group that does not exist yet is created with the caller as owner and first member
+     *
+     * @param groupId Group id (letters, digits, '_' or '-', up to 64)
+     * @param ownerId Caller, must own the group
+     * @param userIds Users to invite (members and already invited users are skipped)
+     * @return Number of users newly invited
+     * @throws ForbiddenOperationException if the caller does not own the group
+     * @throws IllegalArgumentException if members + pending invites would exceed leaderboard.group.max-members
+     */
+    int inviteGroupMembers(String groupId, Long ownerId, Collection<Long> userIds);
+
+    /**
+     * Turn a pending invite into membership
+     * The cached group board is dropped so the next read sees the new member
+     *
+     * @return false if the user has no pending invite to the group
+     */
+    boolean acceptGroupInvite(String groupId, Long userId);
+
+    /**
+     * Remove a user from a group board's membership set, or decline their pending invite
+     * An owner who leaves gives up ownership; the group is deleted with its last member
+     */
+    void removeGroupMember(String groupId, Long userId);
+
+    /**
+     * Whether a user belongs to a group
+     */
+    boolean isGroupMember(String groupId, Long userId);
+
+    /**
+     * Number of members of a group (0 if the group does not exist)
+     */
+    long getGroupSize(String groupId);
+
+    /**
+     * Get a window of a group board: members ranked by their global score (same tie-break)
+     * The intersection with the global board is cached per group for leaderboard.group.board-ttl-ms
+     * Complexity: O(G) to rebuild (G members), then O(log G + M)
+     *
+     * @param groupId Group id
+     * @param cursor 1-based rank within the group of the first entry
+     * @param size Number of entries to return (capped at 100)
+     * @return Page of entries with the cursor of the next page
+     */
+    LeaderboardPageResponse getGroupRankWindow(String groupId, long cursor, int size);
+
+    /**
+     * Get a window of a metric board (games, win rate, best streak)
+     * The boards are written by the guess script, score is the metric value
+     * (win rate in basis points, only players with leaderboard.metric.win-rate-min-games)
+     * Complexity: O(log N + M)
+     *
+     * @param metric Metric to rank by
+     * @param cursor 1-based rank of the first entry
+     * @param size Number of entries to return (capped at 100)
+     * @return Page of entries with the cursor of the next page
+     */
+    LeaderboardPageResponse getMetricRankWindow(LeaderboardMetric metric, long cursor, int size);
+
+    /**
+     * Get user's rank and value on a metric board
+     * Complexity: O(log N)
+     *
+     * @return User's entry or null if the user is not ranked on that metric
+     */
+    LeaderboardResponse getMetricUserRank(LeaderboardMetric metric, Long userId);
+
     /**
      * Get user's rank and position in leaderboard
      * Complexity: O(log N)
@@ -47,6 +190,24 @@ public interface ILeaderboardService {
      */
     Long getUserPosition(Long userId);
 
+    /**
+     * Estimate the rank of a score without the sorted set or the database
+     * Used for players missing from the ZSET (TTL expiry, cold Redis)
+     * Complexity: O(buckets) on the in-JVM score histogram
+     *
+     * @param score Score to rank
+     * @return Approximate rank position (1-based) or null if the histogram is not loaded yet
+     */
+    Long estimateRank(int score);
+
+    /**
+     * Get the percentile of a rank: share of players ranked at or below it (100 = top)
+     *
+     * @param rank Rank position (1-based)
+     * @return Percentile rounded to 2 decimals, or null if the player count is unknown
+     */
+    Double getPercentile(long rank);
+
     /**
      * Remove user from leaderboard
      *
@@ -54,6 +215,15 @@ public interface ILeaderboardService {
      */
     void removeUser(Long userId);
 
+    /**
+     * Get current version of the cached top-L page
+     * Changes only when the composition or scores of that page change
+     *
+     * @param limit Page size
+     * @return Version number (0 if never changed)
+     */
+    long getBoardVersion(int limit);
+
     /**
      * Get total number of users in leaderboard
      *
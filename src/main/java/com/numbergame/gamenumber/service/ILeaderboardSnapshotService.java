@@ -0,0 +1,23 @@
+package com.numbergame.gamenumber.service;
+
+import com.numbergame.gamenumber.dto.LeaderboardSnapshot;
+
+/**
+ * Leaderboard Snapshot Service - In-memory materialized top-N board
+ *
+ * Benefits:
+ * - Public leaderboard reads never hit Redis (volatile read + byte copy)
+ * - Refreshed on change notification (Redis pub/sub) or after a bounded staleness
+ */
+public interface ILeaderboardSnapshotService {
+
+    /**
+     * Get current snapshot, building it on first use
+     */
+    LeaderboardSnapshot getSnapshot();
+
+    /**
+     * Rebuild the snapshot from the leaderboard and swap it in
+     */
+    void refresh();
+}
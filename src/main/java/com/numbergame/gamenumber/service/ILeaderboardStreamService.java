@@ -0,0 +1,34 @@
+package com.numbergame.gamenumber.service;
+
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+/**
+ * Leaderboard Stream Service - Server-Sent Events push of top-N diffs
+ *
+ * Benefits:
+ * - Replaces GET /leaderboard polling: clients get the board once, then only changes
+ * - One diff computed and serialized per node per tick, shared by every subscriber
+ * - Idle subscribers hold no thread (async servlet), fan-out runs on virtual threads
+ */
+public interface ILeaderboardStreamService {
+
+    /**
+     * Register a subscriber and send it the current top N ("snapshot" event)
+     *
+     * @return Emitter for the response, or null if the node is at its connection limit
+     */
+    SseEmitter subscribe();
+
+    /**
+     * Compare the current snapshot with the last broadcast one and push the diff ("diff" event)
+     * Called on every tick by the scheduler
+     *
+     * @return Number of subscribers the diff was sent to (0 if nothing changed)
+     */
+    int broadcastChanges();
+
+    /**
+     * Number of open subscriptions on this node
+     */
+    int getSubscriberCount();
+}
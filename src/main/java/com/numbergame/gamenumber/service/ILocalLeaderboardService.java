@@ -0,0 +1,68 @@
+package com.numbergame.gamenumber.service;
+
+import com.numbergame.gamenumber.dto.response.LeaderboardResponse;
+
+import java.util.List;
+
+/**
+ * Local Leaderboard - In-JVM copy of the global board, used when Redis is unavailable
+ *
+ * Benefits:
+ * - Leaderboard keeps answering (no empty list, no DB rebuild storm) during a Redis outage
+ * - O(log N) rank and O(log N + M) top-N on an indexable skip list
+ * - Kept warm from score updates, snapshotted to a local file for fast restarts
+ */
+public interface ILocalLeaderboardService {
+
+    /**
+     * Upsert a user's score
+     * The tie-break only changes when the score changes (same rule as the Redis board)
+     *
+     * @param tiebreak Achieved-at part of the composite score (see LeaderboardScoreCodec)
+     */
+    void update(Long userId, String username, int score, long tiebreak);
+
+    /**
+     * Remove a user from the local board
+     */
+    void remove(Long userId);
+
+    /**
+     * Whether the local board has been loaded (snapshot file or DB warm-up)
+     */
+    boolean isReady();
+
+    /**
+     * Get up to count entries starting at a 0-based rank
+     * Complexity: O(log N + M)
+     */
+    List<LeaderboardResponse> getRange(long start, int count);
+
+    /**
+     * Get a user's entry with its 1-based rank
+     * Complexity: O(log N)
+     *
+     * @return Entry or null if the user is not on the local board
+     */
+    LeaderboardResponse getUserRank(Long userId);
+
+    /**
+     * Number of players on the local board
+     */
+    long size();
+
+    /**
+     * Estimate the 1-based rank of a score from the score histogram (no ZSET, no DB)
+     * Complexity: O(buckets), off by at most the number of players in the score's bucket
+     *
+     * @return Estimated rank, or null while the local board is not loaded
+     */
+    Long estimateRank(int score);
+
+    /**
+     * Write the board to the snapshot file
+     *
+     * @return Number of entries written
+     */
+    int saveSnapshot();
+}
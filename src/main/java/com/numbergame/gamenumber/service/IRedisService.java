@@ -1,6 +1,10 @@
 package com.numbergame.gamenumber.service;
 
-import com.numbergame.gamenumber.dto.response.UserInfoResponse;
+import com.numbergame.gamenumber.dto.GuessOutcome;
+import com.numbergame.gamenumber.dto.PlayerStats;
+import com.numbergame.gamenumber.dto.UserGameState;
+
+import java.time.Instant;
 
 /**
  * Redis Cache Service - High-performance caching layer
@@ -13,23 +17,27 @@ public interface IRedisService {
     // ==================== USER CACHE ====================
 
     /**
-     * Cache user info in Redis Hash
-     * TTL: 1 hour
+     * Resolve user id by username from Redis
+     * Fallback to DB (short, non-transactional read) on cache miss
+     *
+     * @throws com.numbergame.gamenumber.exception.custom.ResourceNotFoundException if the user does not exist
      */
-    void cacheUserInfo(Long userId, UserInfoResponse userInfo);
+    Long getUserIdByUsername(String username);
+
+    // ==================== SCORE & TURNS CACHE ====================
 
     /**
-     * Get cached user info
-     * @return User info or null if not cached
+     * Get score, turns and loss streak, served from the node's near-cache when present
+     * Otherwise one read (single HMGET on the user state hash), fallback to DB for score/turns
+     * For display; decisions and DB sync use loadGameState
      */
-    UserInfoResponse getCachedUserInfo(Long userId);
+    UserGameState getGameState(Long userId);
 
     /**
-     * Invalidate user cache
+     * Get score, turns and loss streak straight from Redis (single HMGET, never the near-cache)
+     * Fallback to DB for score/turns if not found
      */
-    void invalidateUserCache(Long userId);
-
-    // ==================== SCORE & TURNS CACHE ====================
+    UserGameState loadGameState(Long userId);
 
     /**
      * Get user's current score from Redis (hot data)
@@ -42,6 +50,17 @@ public interface IRedisService {
      */
     Integer getUserTurns(Long userId);
 
+    /**
+     * Get the user's consecutive loss streak (0 if none)
+     */
+    int getLossStreak(Long userId);
+
+    /**
+     * Reset the user's loss streak
+     * No-op when the game state is not cached (the next load starts from 0)
+     */
+    void resetLossStreak(Long userId);
+
     /**
      * Update score in Redis (atomic operation)
      * Sync to DB later via batch job
@@ -53,16 +72,64 @@ public interface IRedisService {
      */
     void decrementTurns(Long userId);
 
+    /**
+     * Decrement turns only if positive (atomic conditional decrement, no lock)
+     * @return Remaining turns after deduction, or -1 if the user has no turns left
+     */
+    int tryDecrementTurns(Long userId);
+
     /**
      * Add turns in Redis
      */
     void addTurns(Long userId, int turnsToAdd);
 
     /**
-     * Initialize user game data in Redis
+     * Initialize user game data in Redis if absent
+     * Fields already present (e.g. a concurrent decrement) are never overwritten
      */
     void initializeUserGameData(Long userId, Integer initialScore, Integer initialTurns);
 
+    // ==================== ATOMIC GUESS ====================
+
+    /**
+     * Apply a whole guess in one Redis script (single round-trip, no lock):
+     * check + deduct turn, pity/streak update, score increment, dirty flag
+     *
+     * @param roll Uniform random number in [0, 1) compared against the adjusted win rate
+     * @param baseWinRate Base win rate before the streak bonus
+     * @param streakBonusRate Bonus added per consecutive loss
+     * @param maxLossStreak Loss streak that guarantees a win (pity)
+     * @param scoreOnWin Score added when the guess wins
+     * @return Outcome of the guess, flagged insufficientTurns if no turn was left
+     */
+    GuessOutcome applyGuess(Long userId, double roll, double baseWinRate,
+                            double streakBonusRate, int maxLossStreak, int scoreOnWin);
+
+    /**
+     * Set the loss streak only if it still holds the expected value (version check)
+     * Seeds the game state from the DB first when it is not cached
+     * @return true if written, false if a concurrent guess changed it first
+     */
+    boolean compareAndSetLossStreak(Long userId, int expectedStreak, int newStreak);
+
+    /**
+     * Apply a guess result to the loss streak without a version check (win: set 0, loss: +1)
+     * @return the new loss streak
+     */
+    int recordLossStreak(Long userId, boolean win);
+
+    /**
+     * Record a finished guess on the metric boards (games, win rate, best streak) in one script call
+     * Already done inside applyGuess; used by the guess modes that do not run the guess script
+     */
+    void recordGameMetrics(Long userId, boolean isCorrect);
+
+    /**
+     * Get the player counters (games, wins, streaks) straight from Redis, for the batch sync
+     * @return Counters, or null if they are not cached
+     */
+    PlayerStats loadPlayerStats(Long userId);
+
     // ==================== BATCH SYNC ====================
 
     /**
@@ -81,12 +148,19 @@ public interface IRedisService {
      */
     void clearDirtyFlag(Long userId);
 
+    /**
+     * Give the synced users' state buckets their TTL back, once the DB holds their state
+     * Buckets where some user is dirty again stay pinned; no-op in the per-user layout
+     * @return Number of buckets released
+     */
+    int releaseSyncedState(java.util.Collection<Long> userIds);
+
     // ==================== LEADERBOARD CACHE ====================
 
     /**
      * Update leaderboard cache (already implemented)
      */
-    void updateLeaderboardCache(Long userId, String username, Integer score);
+    void updateLeaderboardCache(Long userId, String username, Integer score, Instant achievedAt);
 
     /**
      * Get top N from leaderboard cache
@@ -0,0 +1,42 @@
+package com.numbergame.gamenumber.service;
+
+import com.numbergame.gamenumber.dto.response.LeaderboardResponse;
+
+import java.util.List;
+import java.util.function.BiFunction;
+
+/**
+ * Season Archive Service - Final standings of past seasons in MySQL
+ *
+ * Benefits:
+ * - Past seasons stay queryable after their Redis archive key expires
+ * - Export streams the archived board in chunks (bounded memory, JDBC batches)
+ */
+public interface ISeasonArchiveService {
+
+    /**
+     * Copy an archived season board to MySQL, in the background (batch executor)
+     * Re-running it for the same season replaces the previous copy
+     *
+     * @param season Season number
+     * @param chunkReader (0-based start rank, count) -> entries with their rank, empty when done
+     */
+    void archiveSeason(long season, BiFunction<Long, Integer, List<LeaderboardResponse>> chunkReader);
+
+    /**
+     * Get up to count entries of an archived season starting at a 0-based rank
+     * Complexity: index range scan on (season, season_rank)
+     */
+    List<LeaderboardResponse> getRange(long season, long start, int count);
+
+    /**
+     * Whether a season has been written to MySQL
+     */
+    boolean isArchived(long season);
+
+    /**
+     * Rows written to MySQL for a season; below the archived board's size means the export
+     * failed or is still running
+     */
+    long getArchivedCount(long season);
+}
@@ -0,0 +1,28 @@
+package com.numbergame.gamenumber.service;
+
+import com.numbergame.gamenumber.dto.UserProfile;
+
+import java.time.LocalDateTime;
+
+/**
+ * User Profile Cache - Two-tier (in-process + Redis hash) cache of the static profile data
+ *
+ * Benefits:
+ * - /me resolves the profile without MySQL (no findByUsername per request)
+ * - Long TTL: guesses and purchases never touch the profile, so it stays a hit during play
+ * - Changes patch single fields (HSET) and drop the in-process copy on every node (pub/sub)
+ */
+public interface IUserProfileCacheService {
+
+    /**
+     * Get a user's profile: in-process tier, then the Redis hash, then the database
+     *
+     * @throws com.numbergame.gamenumber.exception.custom.ResourceNotFoundException if the user does not exist
+     */
+    UserProfile getProfile(String username);
+
+    /**
+     * Patch the last sign-in time (only that field is rewritten)
+     */
+    void patchLastLogin(String username, LocalDateTime lastLogin);
+}
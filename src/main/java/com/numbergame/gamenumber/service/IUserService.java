@@ -1,8 +1,11 @@
 package com.numbergame.gamenumber.service;
 
+import com.numbergame.gamenumber.dto.response.LeaderboardPageResponse;
 import com.numbergame.gamenumber.dto.response.LeaderboardResponse;
 import com.numbergame.gamenumber.dto.response.TransactionResponse;
 import com.numbergame.gamenumber.dto.response.UserInfoResponse;
+import com.numbergame.gamenumber.enums.LeaderboardMetric;
+import com.numbergame.gamenumber.enums.LeaderboardWindow;
 
 import java.util.List;
 
@@ -36,6 +39,89 @@ public interface IUserService {
      * @return Top 10 players
      */
     List<LeaderboardResponse> getLeaderboard();
+
+    /**
+     * Get a page of the leaderboard by rank cursor
+     * @param window Time window (GLOBAL, DAILY, WEEKLY, SEASON)
+     * @param cursor 1-based rank of the first entry
+     * @param size Page size (capped)
+     * @return Page with the cursor of the next page
+     */
+    LeaderboardPageResponse getLeaderboardPage(LeaderboardWindow window, long cursor, int size);
+
+    /**
+     * Get a page of a season board (current or archived)
+     * @param season Season number
+     * @param cursor 1-based rank of the first entry
+     * @param size Page size (capped)
+     * @return Page with the cursor of the next page
+     */
+    LeaderboardPageResponse getSeasonLeaderboardPage(long season, long cursor, int size);
+
+    /**
+     * Get the number of the running season
+     */
+    long getCurrentSeason();
+
+    /**
+     * Get the leaderboard entries around the user (rank ± radius)
+     * @param window Time window (GLOBAL, DAILY, WEEKLY, SEASON)
+     * @param username Username
+     * @param radius Neighbours above and below (capped)
+     * @return Window containing the user
+     */
+    LeaderboardPageResponse getLeaderboardAroundUser(LeaderboardWindow window, String username, int radius);
+
+    /**
+     * Invite players to a group leaderboard (friends, clan)
+     * Only the owner invites; inviting to an empty group creates it with the caller as owner and member
+     * @param groupId Group id (letters, digits, '_' or '-')
+     * @param username Caller
+     * @param usernames Players to invite
+     * @return Number of players newly invited
+     */
+    int inviteLeaderboardGroupMembers(String groupId, String username, List<String> usernames);
+
+    /**
+     * Join a group leaderboard the caller was invited to
+     * @param groupId Group id
+     * @param username Caller
+     */
+    void acceptLeaderboardGroupInvite(String groupId, String username);
+
+    /**
+     * Leave a group leaderboard, or decline a pending invite
+     * @param groupId Group id
+     * @param username Caller
+     */
+    void leaveLeaderboardGroup(String groupId, String username);
+
+    /**
+     * Get a page of a group leaderboard (members only)
+     * @param groupId Group id
+     * @param username Caller
+     * @param cursor 1-based rank of the first entry within the group
+     * @param size Page size (capped)
+     * @return Page with the cursor of the next page
+     */
+    LeaderboardPageResponse getGroupLeaderboardPage(String groupId, String username, long cursor, int size);
+
+    /**
+     * Get a page of a metric leaderboard (games, win rate, best streak)
+     * @param metric Metric to rank by
+     * @param cursor 1-based rank of the first entry
+     * @param size Page size (capped)
+     * @return Page with the cursor of the next page
+     */
+    LeaderboardPageResponse getMetricLeaderboardPage(LeaderboardMetric metric, long cursor, int size);
+
+    /**
+     * Get the user's rank on a metric leaderboard
+     * @param metric Metric to rank by
+     * @param username Username
+     * @return Entry with rank and metric value
+     */
+    LeaderboardResponse getMetricRank(LeaderboardMetric metric, String username);
     
     /**
      * Get transaction history for user
@@ -18,6 +18,7 @@ import com.numbergame.gamenumber.service.IAuthService;
 import com.numbergame.gamenumber.service.IEventPublisher;
 import com.numbergame.gamenumber.service.IRefreshTokenService;
 import com.numbergame.gamenumber.service.ITokenBlacklistService;
+import com.numbergame.gamenumber.service.IUserProfileCacheService;
 import com.numbergame.gamenumber.utils.CookieUtils;
 import jakarta.servlet.http.HttpServletResponse;
 import lombok.RequiredArgsConstructor;
@@ -50,6 +51,7 @@ public class AuthServiceImpl implements IAuthService {
     private final IRefreshTokenService refreshTokenService;
     private final ITokenBlacklistService tokenBlacklistService;
     private final CookieUtils cookieUtils;
+    private final IUserProfileCacheService profileCache;
 
     @Value("${game.default-turns}")
     private Integer defaultTurns;
@@ -142,6 +144,7 @@ public class AuthServiceImpl implements IAuthService {
 
         user.setLastLogin(LocalDateTime.now());
         userRepository.save(user);
+        profileCache.patchLastLogin(user.getUsername(), user.getLastLogin());
 
         // Generate tokens
         UserDetails userDetails = userDetailsService.loadUserByUsername(request.getUsername());
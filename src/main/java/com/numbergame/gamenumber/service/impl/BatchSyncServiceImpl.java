@@ -1,5 +1,7 @@
 package com.numbergame.gamenumber.service.impl;
 
+import com.numbergame.gamenumber.dto.PlayerStats;
+import com.numbergame.gamenumber.dto.UserGameState;
 import com.numbergame.gamenumber.entity.User;
 import com.numbergame.gamenumber.repository.UserRepository;
 import com.numbergame.gamenumber.service.IBatchSyncService;
@@ -10,7 +12,12 @@ import org.springframework.scheduling.annotation.Async;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Set;
@@ -61,13 +68,15 @@ public class BatchSyncServiceImpl implements IBatchSyncService {
         log.info("Syncing {} dirty users to database", dirtyUsers.size());
 
         List<User> usersToUpdate = new ArrayList<>();
+        List<Long> syncedUserIds = new ArrayList<>();
         int successCount = 0;
 
         for (Long userId : dirtyUsers) {
             try {
-                // Get latest data from Redis
-                Integer score = redisService.getUserScore(userId);
-                Integer turns = redisService.getUserTurns(userId);
+                // Get latest data from Redis (one read of the user state hash, never the near-cache)
+                UserGameState state = redisService.loadGameState(userId);
+                Integer score = state.getScore();
+                Integer turns = state.getTurns();
 
                 // Load user from DB
                 User user = userRepository.findById(userId).orElse(null);
@@ -77,10 +86,15 @@ public class BatchSyncServiceImpl implements IBatchSyncService {
                     continue;
                 }
 
-                // Update user data
+                // Update user data (tie-break time moves only when the score changes)
+                if (!score.equals(user.getScore())) {
+                    user.setScoreAchievedAt(achievedAt(state));
+                }
                 user.setScore(score);
                 user.setTurns(turns);
+                applyPlayerStats(user, redisService.loadPlayerStats(userId));
                 usersToUpdate.add(user);
+                syncedUserIds.add(userId);
 
                 successCount++;
 
@@ -96,6 +110,7 @@ public class BatchSyncServiceImpl implements IBatchSyncService {
         if (!usersToUpdate.isEmpty()) {
             userRepository.saveAll(usersToUpdate);
             log.info("Batch saved {} users to database", usersToUpdate.size());
+            afterCommit(() -> redisService.releaseSyncedState(syncedUserIds));
         }
 
         return successCount;
@@ -107,16 +122,22 @@ public class BatchSyncServiceImpl implements IBatchSyncService {
         log.info("Force syncing user {}", userId);
 
         try {
-            Integer score = redisService.getUserScore(userId);
-            Integer turns = redisService.getUserTurns(userId);
+            UserGameState state = redisService.loadGameState(userId);
+            Integer score = state.getScore();
+            Integer turns = state.getTurns();
 
             User user = userRepository.findById(userId).orElse(null);
             if (user != null) {
+                if (!score.equals(user.getScore())) {
+                    user.setScoreAchievedAt(achievedAt(state));
+                }
                 user.setScore(score);
                 user.setTurns(turns);
+                applyPlayerStats(user, redisService.loadPlayerStats(userId));
                 userRepository.save(user);
 
                 redisService.clearDirtyFlag(userId);
+                afterCommit(() -> redisService.releaseSyncedState(List.of(userId)));
                 log.info("Force sync completed for user {}", userId);
             }
         } catch (Exception e) {
@@ -128,4 +149,45 @@ public class BatchSyncServiceImpl implements IBatchSyncService {
     public long getPendingSyncCount() {
         return redisService.getDirtyUsers().size();
     }
+
+    /**
+     * Bucketed layout: a state bucket gets its TTL back only once the DB really holds its users
+     * (runs right away when called outside a transaction)
+     */
+    private static void afterCommit(Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            action.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                action.run();
+            }
+        });
+    }
+
+    /**
+     * Durable copy of the metric counters: Redis evicts and expires them, a later
+     * miss seeds them back from these columns
+     */
+    private static void applyPlayerStats(User user, PlayerStats stats) {
+        if (stats == null) {
+            return;
+        }
+        user.setGamesPlayed(stats.getGames());
+        user.setGamesWon(stats.getWins());
+        user.setWinStreak(stats.getWinStreak());
+        user.setBestWinStreak(stats.getBestStreak());
+    }
+
+    /**
+     * Moment the score was reached, as written to the state hash by the score change itself
+     * (the leaderboard tie-break uses the same value), not the time of this sync
+     */
+    private static LocalDateTime achievedAt(UserGameState state) {
+        return state.getAchievedAt() > 0
+            ? LocalDateTime.ofInstant(Instant.ofEpochSecond(state.getAchievedAt()), ZoneId.systemDefault())
+            : LocalDateTime.now();
+    }
 }
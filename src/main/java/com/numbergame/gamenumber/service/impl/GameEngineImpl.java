@@ -1,14 +1,14 @@
 package com.numbergame.gamenumber.service.impl;
 
+import com.numbergame.gamenumber.dto.GuessOutcome;
 import com.numbergame.gamenumber.service.IGameEngine;
-import com.numbergame.gamenumber.utils.RedisUtils;
+import com.numbergame.gamenumber.service.IRedisService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
 import java.security.SecureRandom;
-import java.util.concurrent.TimeUnit;
 
 /**
  * Game Engine Implementation - Biased RNG + Pity System
@@ -19,13 +19,14 @@ import java.util.concurrent.TimeUnit;
  * - Pity system: guaranteed win after MAX_LOSS_STREAK
  * - Dynamic rate adjustment: win rate increases with loss streak
  * - Thread-safe: uses Redis for distributed state management
+ * - Lock-free: loss streak updated with compare-and-set, not a mutex
  */
 @Service
 @RequiredArgsConstructor
 @Slf4j
 public class GameEngineImpl implements IGameEngine {
 
-    private final RedisUtils redisUtils;
+    private final IRedisService redisService;
     private final SecureRandom secureRandom = new SecureRandom();
 
     @Value("${game.win-rate}")
@@ -37,8 +38,7 @@ public class GameEngineImpl implements IGameEngine {
     @Value("${game.streak-bonus-rate:0.01}")
     private Double streakBonusRate;
 
-    private static final String LOSS_STREAK_KEY = "game:loss_streak:";
-    private static final long LOSS_STREAK_TTL = 86400; // 24 hours
+    private static final int MAX_STREAK_UPDATE_ATTEMPTS = 5;
 
     @Override
     public boolean processGuess(Long userId, Integer guessedNumber) {
@@ -47,54 +47,81 @@ public class GameEngineImpl implements IGameEngine {
 
     @Override
     public boolean processGuess(Long userId, Integer guessedNumber, Double customWinRate) {
-        // Get current loss streak from Redis
-        int lossStreak = getLossStreak(userId);
-
         // Use custom win rate if provided, otherwise use base rate
         double effectiveBaseRate = (customWinRate != null) ? customWinRate : baseWinRate;
 
-        // Calculate adjusted win rate with pity system
-        double adjustedRate = calculateAdjustedRate(lossStreak, effectiveBaseRate);
+        for (int attempt = 1; ; attempt++) {
+            // Get current loss streak from Redis
+            int lossStreak = getLossStreak(userId);
+
+            // Calculate adjusted win rate with pity system
+            double adjustedRate = calculateAdjustedRate(lossStreak, effectiveBaseRate);
+
+            log.debug("User {}: Loss streak = {}, Base rate = {}, Adjusted rate = {}",
+                    userId, lossStreak, effectiveBaseRate, adjustedRate);
 
-        log.debug("User {}: Loss streak = {}, Base rate = {}, Adjusted rate = {}",
-                userId, lossStreak, effectiveBaseRate, adjustedRate);
+            // Pity system: guaranteed win after max loss streak
+            boolean pity = lossStreak >= maxLossStreak;
 
-        // Pity system: guaranteed win after max loss streak
-        boolean isWin;
-        if (lossStreak >= maxLossStreak) {
-            isWin = true;
-            log.info("🎁 Pity system activated for user {}! Guaranteed win after {} losses", userId, lossStreak);
-        } else {
             // Biased RNG with adjusted rate
-            isWin = secureRandom.nextDouble() < adjustedRate;
+            boolean isWin = pity || secureRandom.nextDouble() < adjustedRate;
+
+            // Update loss streak only if no concurrent guess changed it (version check, no lock)
+            int newStreak = isWin ? 0 : lossStreak + 1;
+            if (redisService.compareAndSetLossStreak(userId, lossStreak, newStreak)) {
+                if (pity) {
+                    log.info("🎁 Pity system activated for user {}! Guaranteed win after {} losses", userId, lossStreak);
+                }
+                if (isWin) {
+                    log.info("✅ User {} WON! Resetting loss streak", userId);
+                } else {
+                    log.info("❌ User {} LOST! Loss streak: {} -> {}", userId, lossStreak, newStreak);
+                }
+                return isWin;
+            }
+
+            if (attempt >= MAX_STREAK_UPDATE_ATTEMPTS) {
+                // Still record this guess: atomic reset/increment on top of whatever the concurrent guesses wrote
+                int recorded = redisService.recordLossStreak(userId, isWin);
+                log.warn("Loss streak for user {} kept changing, applied {} unconditionally after {} attempts (streak now {})",
+                        userId, isWin ? "WIN" : "LOSS", attempt, recorded);
+                return isWin;
+            }
+
+            // Streak changed under us: re-read and roll again, ordered after the other guess
+            log.debug("Loss streak for user {} changed concurrently, retrying", userId);
         }
+    }
 
-        // Update loss streak
-        if (isWin) {
-            resetLossStreak(userId);
-            log.info("✅ User {} WON! Resetting loss streak", userId);
-        } else {
-            incrementLossStreak(userId, lossStreak);
-            log.info("❌ User {} LOST! Loss streak: {} -> {}", userId, lossStreak, lossStreak + 1);
+    @Override
+    public GuessOutcome processGuessAtomically(Long userId, Double customWinRate, int scoreOnWin) {
+        double effectiveBaseRate = (customWinRate != null) ? customWinRate : baseWinRate;
+
+        // Roll is drawn here (SecureRandom), the pity/streak decision runs inside the Redis script
+        GuessOutcome outcome = redisService.applyGuess(userId, secureRandom.nextDouble(),
+                effectiveBaseRate, streakBonusRate, maxLossStreak, scoreOnWin);
+
+        if (!outcome.isInsufficientTurns()) {
+            if (outcome.isCorrect() && outcome.getPreviousLossStreak() >= maxLossStreak) {
+                log.info("🎁 Pity system activated for user {}! Guaranteed win after {} losses",
+                        userId, outcome.getPreviousLossStreak());
+            }
+            log.debug("User {}: {} (loss streak {} -> {})", userId, outcome.isCorrect() ? "WON" : "LOST",
+                    outcome.getPreviousLossStreak(), outcome.getLossStreak());
         }
 
-        return isWin;
+        return outcome;
     }
 
     @Override
     public int getLossStreak(Long userId) {
-        String key = LOSS_STREAK_KEY + userId;
-        Object value = redisUtils.get(key);
-        if (value == null) {
-            return 0;
-        }
-        return Integer.parseInt(value.toString());
+        // Streak lives in the user state hash next to score/turns
+        return redisService.getLossStreak(userId);
     }
 
     @Override
     public void resetLossStreak(Long userId) {
-        String key = LOSS_STREAK_KEY + userId;
-        redisUtils.delete(key);
+        redisService.resetLossStreak(userId);
     }
 
     @Override
@@ -103,12 +130,9 @@ public class GameEngineImpl implements IGameEngine {
         return calculateAdjustedRate(lossStreak);
     }
 
-    /**
-     * Increment loss streak in Redis
-     */
-    private void incrementLossStreak(Long userId, int currentStreak) {
-        String key = LOSS_STREAK_KEY + userId;
-        redisUtils.setWithExpiration(key, String.valueOf(currentStreak + 1), LOSS_STREAK_TTL, TimeUnit.SECONDS);
+    @Override
+    public double calculateAdjustedWinRate(int lossStreak) {
+        return calculateAdjustedRate(lossStreak);
     }
 
     /**
@@ -0,0 +1,322 @@
+package com.numbergame.gamenumber.service.impl;
+
+import com.numbergame.gamenumber.entity.GameHistory;
+import com.numbergame.gamenumber.exception.custom.HistoryBufferFullException;
+import com.numbergame.gamenumber.repository.GameHistoryRepository;
+import com.numbergame.gamenumber.service.IGameHistoryWriter;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Write-behind buffer for GameHistory - Production-grade implementation
+ *
+ * Strategy:
+ * - Guesses enqueue rows into a bounded ring buffer (no DB connection taken)
+ * - A flusher thread writes them as multi-row JDBC batches
+ *   (GenerationType.IDENTITY prevents Hibernate batching, JDBC does not care)
+ * - Flush triggers: batch size reached, flush interval elapsed, shutdown
+ * - Backpressure: a guess reserves room for its row before spending a turn (one permit per row,
+ *   given back once the row is written). A guess that gets no room within reserve-timeout-ms is
+ *   rejected (503, game.history.rejected.guesses) before any state changes, so no row is ever dropped
+ * - Each batch is one transaction: a failure rolls the whole batch back, and the retry
+ *   cannot insert rows twice
+ * - Failed batch kept aside and retried first, so rows are written in the order they were played
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class GameHistoryWriterImpl implements IGameHistoryWriter {
+
+    private final GameHistoryRepository gameHistoryRepository;
+    private final JdbcTemplate jdbcTemplate;
+    private final MeterRegistry meterRegistry;
+    private final TransactionTemplate transactionTemplate;
+
+    @Value("${game.history.write-behind.enabled:true}")
+    private boolean writeBehindEnabled;
+
+    @Value("${game.history.write-behind.capacity:10000}")
+    private int capacity;
+
+    @Value("${game.history.write-behind.batch-size:500}")
+    private int batchSize;
+
+    @Value("${game.history.write-behind.flush-interval-ms:500}")
+    private long flushIntervalMs;
+
+    @Value("${game.history.write-behind.reserve-timeout-ms:50}")
+    private long reserveTimeoutMs;
+
+    private static final String INSERT_SQL =
+        "INSERT INTO game_history (user_id, guessed_number, actual_number, is_correct, score_earned, played_at) " +
+        "VALUES (?, ?, ?, ?, ?, ?)";
+
+    private final ReentrantLock flushLock = new ReentrantLock();
+    private final AtomicBoolean flushRequested = new AtomicBoolean();
+
+    private BlockingQueue<GameHistory> buffer;
+    // One permit per buffer slot, held from reserve() until the row is written (failed batch included)
+    private Semaphore room;
+    // Batch whose write failed, retried before anything newer (guarded by flushLock)
+    private volatile List<GameHistory> failedBatch;
+    private ScheduledExecutorService flusher;
+    private Timer flushTimer;
+    private Counter flushedRows;
+    private Counter droppedRows;
+    private Counter rejectedGuesses;
+
+    @PostConstruct
+    public void init() {
+        if (!writeBehindEnabled) {
+            log.info("GameHistory write-behind disabled, inserts are synchronous");
+            return;
+        }
+
+        buffer = new ArrayBlockingQueue<>(capacity);
+        room = new Semaphore(capacity);
+
+        Gauge.builder("game.history.buffer.depth", this, GameHistoryWriterImpl::getPendingCount)
+            .description("GameHistory rows waiting to be flushed")
+            .register(meterRegistry);
+        flushTimer = Timer.builder("game.history.flush.latency")
+            .description("Time to write one GameHistory batch")
+            .register(meterRegistry);
+        flushedRows = Counter.builder("game.history.flushed.rows").register(meterRegistry);
+        droppedRows = Counter.builder("game.history.dropped.rows").register(meterRegistry);
+        rejectedGuesses = Counter.builder("game.history.rejected.guesses")
+            .description("Guesses rejected before spending a turn because the history buffer was full")
+            .register(meterRegistry);
+
+        flusher = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "GameHistory-Flusher");
+            thread.setDaemon(true);
+            return thread;
+        });
+        flusher.scheduleWithFixedDelay(this::flushQuietly, flushIntervalMs, flushIntervalMs, TimeUnit.MILLISECONDS);
+
+        log.info("✅ GameHistory write-behind initialized: capacity={}, batch={}, interval={}ms",
+            capacity, batchSize, flushIntervalMs);
+    }
+
+    @Override
+    public Slot reserve() {
+        if (!writeBehindEnabled) {
+            return new BufferSlot(false);
+        }
+
+        if (!acquireRoom()) {
+            // DB slow or down: refuse the guess while nothing is spent yet, instead of losing its row later
+            rejectedGuesses.increment();
+            log.warn("GameHistory buffer full ({} rows pending), rejecting guess", getPendingCount());
+            throw new HistoryBufferFullException();
+        }
+        return new BufferSlot(true);
+    }
+
+    @Override
+    public int flush() {
+        if (!writeBehindEnabled) {
+            return 0;
+        }
+        return flushBatches(Integer.MAX_VALUE);
+    }
+
+    @Override
+    public int getPendingCount() {
+        if (!writeBehindEnabled) {
+            return 0;
+        }
+        List<GameHistory> failed = failedBatch;
+        return buffer.size() + (failed != null ? failed.size() : 0);
+    }
+
+    /**
+     * Flush-on-shutdown: stop the flusher, then drain everything left
+     */
+    @PreDestroy
+    public void shutdown() {
+        if (!writeBehindEnabled) {
+            return;
+        }
+
+        flusher.shutdown();
+        try {
+            flusher.awaitTermination(10, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+
+        int flushed = flush();
+        int left = getPendingCount();
+        if (left > 0) {
+            droppedRows.increment(left);
+            log.error("GameHistory write-behind stopped with {} unwritten rows", left);
+        }
+        log.info("GameHistory write-behind stopped, flushed {} rows on shutdown", flushed);
+    }
+
+    private boolean acquireRoom() {
+        try {
+            return room.tryAcquire(reserveTimeoutMs, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return room.tryAcquire();
+        }
+    }
+
+    private void enqueue(GameHistory gameHistory) {
+        // @CreationTimestamp is not applied to JDBC inserts
+        if (gameHistory.getPlayedAt() == null) {
+            gameHistory.setPlayedAt(LocalDateTime.now());
+        }
+
+        // Cannot fail: the reserved permit stands for a free buffer slot
+        if (!buffer.offer(gameHistory)) {
+            room.release();
+            droppedRows.increment();
+            log.error("GameHistory buffer rejected a reserved row for user {}, row lost", gameHistory.getUserId());
+            return;
+        }
+
+        // Size trigger: wake the flusher once per full batch
+        if (buffer.size() >= batchSize && flushRequested.compareAndSet(false, true)) {
+            flusher.execute(() -> {
+                flushRequested.set(false);
+                flushQuietly();
+            });
+        }
+    }
+
+    private void flushQuietly() {
+        try {
+            flushBatches(Integer.MAX_VALUE);
+        } catch (Exception e) {
+            log.error("GameHistory flush failed: {}", e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Retry the failed batch, then drain up to maxBatches batches and write each as one JDBC batch
+     * Stops at the first failure: that batch stays at the head for the next flush
+     *
+     * @return Number of rows written
+     */
+    private int flushBatches(int maxBatches) {
+        flushLock.lock();
+        try {
+            int written = 0;
+
+            List<GameHistory> retry = failedBatch;
+            if (retry != null) {
+                if (!writeBatch(retry)) {
+                    return 0;
+                }
+                failedBatch = null;
+                room.release(retry.size());
+                written += retry.size();
+            }
+
+            for (int i = 0; i < maxBatches; i++) {
+                List<GameHistory> batch = new ArrayList<>(batchSize);
+                if (buffer.drainTo(batch, batchSize) == 0) {
+                    break;
+                }
+                if (!writeBatch(batch)) {
+                    failedBatch = batch;
+                    break;
+                }
+                room.release(batch.size());
+                written += batch.size();
+            }
+
+            return written;
+        } finally {
+            flushLock.unlock();
+        }
+    }
+
+    private boolean writeBatch(List<GameHistory> batch) {
+        long start = System.nanoTime();
+        try {
+            // Rewritten to multi-row INSERTs by the MySQL driver (rewriteBatchedStatements=true), which
+            // autocommit would commit one by one: in one transaction a failure leaves nothing to re-insert
+            transactionTemplate.executeWithoutResult(status ->
+                jdbcTemplate.batchUpdate(INSERT_SQL, batch, batch.size(), (ps, history) -> {
+                    ps.setLong(1, history.getUserId());
+                    ps.setInt(2, history.getGuessedNumber());
+                    ps.setInt(3, history.getActualNumber());
+                    ps.setBoolean(4, history.getIsCorrect());
+                    ps.setInt(5, history.getScoreEarned());
+                    ps.setTimestamp(6, Timestamp.valueOf(history.getPlayedAt()));
+                }));
+
+            flushedRows.increment(batch.size());
+            log.debug("Flushed {} GameHistory rows", batch.size());
+            return true;
+        } catch (Exception e) {
+            log.error("Failed to flush {} GameHistory rows (rolled back), retrying next flush: {}",
+                batch.size(), e.getMessage());
+            return false;
+        } finally {
+            flushTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    /**
+     * Room reserved for one row; closing it without a record gives the permit back
+     */
+    private final class BufferSlot implements Slot {
+
+        private final boolean reserved;
+        private boolean used;
+
+        private BufferSlot(boolean reserved) {
+            this.reserved = reserved;
+        }
+
+        @Override
+        public void record(GameHistory gameHistory) {
+            if (used) {
+                throw new IllegalStateException("History slot already used");
+            }
+            used = true;
+
+            if (!reserved) {
+                gameHistoryRepository.save(gameHistory);
+                return;
+            }
+            enqueue(gameHistory);
+        }
+
+        @Override
+        public void close() {
+            if (reserved && !used) {
+                used = true;
+                room.release();
+            }
+        }
+    }
+}
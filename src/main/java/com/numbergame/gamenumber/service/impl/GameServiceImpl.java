@@ -1,11 +1,14 @@
 package com.numbergame.gamenumber.service.impl;
 
+import com.numbergame.gamenumber.dto.GuessOutcome;
+import com.numbergame.gamenumber.dto.UserGameState;
 import com.numbergame.gamenumber.dto.request.GuessRequest;
 import com.numbergame.gamenumber.dto.response.GameHistoryResponse;
 import com.numbergame.gamenumber.dto.response.GuessResponse;
 import com.numbergame.gamenumber.entity.GameHistory;
 import com.numbergame.gamenumber.entity.User;
 import com.numbergame.gamenumber.enums.GameEventType;
+import com.numbergame.gamenumber.enums.GuessMode;
 import com.numbergame.gamenumber.event.GameEvent;
 import com.numbergame.gamenumber.exception.custom.GameLockException;
 import com.numbergame.gamenumber.exception.custom.InsufficientTurnsException;
@@ -16,6 +19,7 @@ import com.numbergame.gamenumber.repository.UserRepository;
 import com.numbergame.gamenumber.service.IAuditService;
 import com.numbergame.gamenumber.service.IEventPublisher;
 import com.numbergame.gamenumber.service.IGameEngine;
+import com.numbergame.gamenumber.service.IGameHistoryWriter;
 import com.numbergame.gamenumber.service.IGameService;
 import com.numbergame.gamenumber.service.ILeaderboardService;
 import com.numbergame.gamenumber.service.IRedisService;
@@ -24,10 +28,10 @@ import com.numbergame.gamenumber.utils.RedisUtils;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
-import org.springframework.cache.annotation.CacheEvict;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.time.Instant;
 import java.time.LocalDateTime;
 import java.util.HashMap;
 import java.util.List;
@@ -42,6 +46,7 @@ public class GameServiceImpl implements IGameService {
     private final UserRepository userRepository;
     private final GameHistoryRepository gameHistoryRepository;
     private final GameHistoryMapper gameHistoryMapper;
+    private final IGameHistoryWriter gameHistoryWriter;
     private final RedisUtils redisUtils;
     private final IAuditService auditService;
     private final IEventPublisher eventPublisher;
@@ -58,13 +63,20 @@ public class GameServiceImpl implements IGameService {
     @Value("${game.win-rate}")
     private Double winRate;
 
+    @Value("${game.guess.mode:SCRIPT}")
+    private GuessMode guessMode;
+
+    private static final int SCORE_PER_WIN = 1;
+
     private static final long LOCK_TIMEOUT = 5;
     private static final int MAX_LOCK_RETRIES = 2;
     private static final long LOCK_RETRY_DELAY = 50;
 
+    /**
+     * Not @Transactional on purpose: no JDBC connection is held while Redis, Kafka and audit work runs.
+     * The DB is only touched in short, separate units of work (id lookup on cache miss, history flush).
+     */
     @Override
-    @Transactional
-    @CacheEvict(value = "leaderboard", allEntries = true)
     public GuessResponse guessNumber(String username, GuessRequest request) {
         long startTime = System.currentTimeMillis();
 
@@ -75,12 +87,69 @@ public class GameServiceImpl implements IGameService {
             throw new IllegalArgumentException("Number must be between " + minNumber + " and " + maxNumber);
         }
 
-        // Get user
-        User user = userRepository.findByUsername(username)
-                .orElseThrow(() -> new ResourceNotFoundException("User", "username", username));
+        // ⚡ Resolve user id from Redis (DB only on cache miss, outside any transaction)
+        Long userId = redisService.getUserIdByUsername(username);
+
+        // Room for the history row is reserved before a turn is spent: a full buffer rejects the guess
+        // instead of losing its row; the slot is given back if the guess fails before recording
+        try (IGameHistoryWriter.Slot historySlot = gameHistoryWriter.reserve()) {
+            return switch (guessMode) {
+                case SCRIPT -> guessWithScript(userId, username, request, historySlot, startTime);
+                case CONDITIONAL -> guessWithConditionalDecrement(userId, username, request, historySlot, startTime);
+                case LOCK -> guessWithLock(userId, username, request, historySlot, startTime);
+            };
+        }
+    }
+
+    /**
+     * Lock-free guess: the whole state transition runs in one atomic Redis script
+     */
+    private GuessResponse guessWithScript(Long userId, String username, GuessRequest request,
+                                          IGameHistoryWriter.Slot historySlot, long startTime) {
+        // ⚡ One round-trip: check + deduct turn, pity/streak, score, dirty flag, metric boards
+        GuessOutcome outcome = gameEngine.processGuessAtomically(
+                userId, request.getWinProbability(), SCORE_PER_WIN);
+
+        if (outcome.isInsufficientTurns()) {
+            throw new InsufficientTurnsException();
+        }
+
+        return completeGuess(userId, username, request, historySlot, outcome.isCorrect(), outcome.getTotalScore(),
+                outcome.getRemainingTurns(), outcome.getLossStreak(), outcome.getAchievedAt(), startTime);
+    }
+
+    /**
+     * Lock-free guess: correctness comes from atomic conditional updates instead of a mutex,
+     * so concurrent guesses of the same user are simply ordered by Redis
+     */
+    private GuessResponse guessWithConditionalDecrement(Long userId, String username, GuessRequest request,
+                                                        IGameHistoryWriter.Slot historySlot, long startTime) {
+        // ⚡ Decrement-if-positive (atomic): turns can never go below zero
+        int remainingTurns = redisService.tryDecrementTurns(userId);
+        if (remainingTurns < 0) {
+            throw new InsufficientTurnsException();
+        }
+
+        // 🎲 Game Engine (loss streak updated with compare-and-set)
+        boolean isCorrect = gameEngine.processGuess(userId, request.getNumber(), request.getWinProbability());
+
+        if (isCorrect) {
+            redisService.incrementScore(userId, SCORE_PER_WIN);
+        }
+        redisService.recordGameMetrics(userId, isCorrect);
 
-        final Long userId = user.getId();
+        // ⚡ Score + streak in one read of the user state hash
+        UserGameState state = redisService.getGameState(userId);
 
+        return completeGuess(userId, username, request, historySlot, isCorrect, state.getScore(), remainingTurns,
+                state.getLossStreak(), state.getAchievedAt(), startTime);
+    }
+
+    /**
+     * Legacy guess: per-user distributed lock around individual Redis calls
+     */
+    private GuessResponse guessWithLock(Long userId, String username, GuessRequest request,
+                                        IGameHistoryWriter.Slot historySlot, long startTime) {
         // 🔒 Acquire distributed lock
         String lockKey = "game:lock:" + userId;
         if (!acquireLockWithRetry(lockKey)) {
@@ -103,72 +172,82 @@ public class GameServiceImpl implements IGameService {
             // Use custom win probability if provided in request
             boolean isCorrect = gameEngine.processGuess(userId, request.getNumber(), request.getWinProbability());
 
-            // Generate actual number
-            int actualNumber;
             if (isCorrect) {
-                actualNumber = request.getNumber();
-            } else {
-                do {
-                    actualNumber = GameUtils.generateRandomNumber(minNumber, maxNumber);
-                } while (actualNumber == request.getNumber());
+                redisService.incrementScore(userId, SCORE_PER_WIN);
             }
+            redisService.recordGameMetrics(userId, isCorrect);
 
-            int scoreEarned = 0;
-            Integer newScore = redisService.getUserScore(userId);
-
-            if (isCorrect) {
-                scoreEarned = 1;
-                redisService.incrementScore(userId, scoreEarned);
-                newScore = redisService.getUserScore(userId);
-            }
+            // ⚡ Score + streak in one read of the user state hash
+            UserGameState state = redisService.getGameState(userId);
 
-            // Save game history
-            GameHistory gameHistory = GameHistory.builder()
-                    .userId(userId)
-                    .guessedNumber(request.getNumber())
-                    .actualNumber(actualNumber)
-                    .isCorrect(isCorrect)
-                    .scoreEarned(scoreEarned)
-                    .build();
-            gameHistoryRepository.save(gameHistory);
-
-            // ⚡ Update leaderboard for ALL users (not just when correct)
-            // This ensures all users appear in the leaderboard
-            leaderboardService.updateScore(userId, user.getUsername(), newScore);
-
-            // Clear cache
-            redisService.invalidateUserCache(userId);
-
-            // Get stats
-            int lossStreak = gameEngine.getLossStreak(userId);
-            double adjustedRate = gameEngine.getAdjustedWinRate(userId);
-
-            log.info("✅ Guess processed - User: {}, Correct: {}, Score: {}, Took: {}ms",
-                username, isCorrect, newScore, System.currentTimeMillis() - startTime);
-
-            // Publish event (async via Kafka)
-            publishGameEvent(userId, user.getUsername(), request.getNumber(), actualNumber,
-                isCorrect, scoreEarned, newScore, lossStreak, adjustedRate);
-
-            // Build response
-            String message = buildResponseMessage(isCorrect, lossStreak, adjustedRate);
-
-            return GuessResponse.builder()
-                    .correct(isCorrect)
-                    .guessedNumber(request.getNumber())
-                    .actualNumber(actualNumber)
-                    .scoreEarned(scoreEarned)
-                    .totalScore(newScore)
-                    .remainingTurns(currentTurns - 1)
-                    .gameId(gameHistory.getId())
-                    .message(message)
-                    .build();
+            return completeGuess(userId, username, request, historySlot, isCorrect, state.getScore(), currentTurns - 1,
+                    state.getLossStreak(), state.getAchievedAt(), startTime);
 
         } finally {
             redisUtils.releaseLock(lockKey);
         }
     }
 
+    /**
+     * Shared tail of both modes: history, leaderboard, cache, event and response
+     */
+    private GuessResponse completeGuess(Long userId, String username, GuessRequest request,
+                                        IGameHistoryWriter.Slot historySlot, boolean isCorrect, int newScore,
+                                        int remainingTurns, int lossStreak, long achievedAt, long startTime) {
+        // Generate actual number
+        int actualNumber;
+        if (isCorrect) {
+            actualNumber = request.getNumber();
+        } else {
+            do {
+                actualNumber = GameUtils.generateRandomNumber(minNumber, maxNumber);
+            } while (actualNumber == request.getNumber());
+        }
+
+        int scoreEarned = isCorrect ? SCORE_PER_WIN : 0;
+
+        // Save game history (write-behind: batched off the hot path, gameId stays null)
+        GameHistory gameHistory = GameHistory.builder()
+                .userId(userId)
+                .guessedNumber(request.getNumber())
+                .actualNumber(actualNumber)
+                .isCorrect(isCorrect)
+                .scoreEarned(scoreEarned)
+                .build();
+        historySlot.record(gameHistory);
+
+        // ⚡ Update leaderboard for ALL users (not just when correct)
+        // This ensures all users appear in the leaderboard
+        leaderboardService.updateScore(userId, username, newScore,
+                achievedAt > 0 ? Instant.ofEpochSecond(achievedAt) : null);
+        // Daily / season boards only count points won
+        leaderboardService.addWindowPoints(userId, scoreEarned);
+
+        // Stats (streak already known, no extra Redis read)
+        double adjustedRate = gameEngine.calculateAdjustedWinRate(lossStreak);
+
+        log.info("✅ Guess processed - User: {}, Correct: {}, Score: {}, Took: {}ms",
+            username, isCorrect, newScore, System.currentTimeMillis() - startTime);
+
+        // Publish event (async via Kafka)
+        publishGameEvent(userId, username, request.getNumber(), actualNumber,
+            isCorrect, scoreEarned, newScore, lossStreak, adjustedRate);
+
+        // Build response
+        String message = buildResponseMessage(isCorrect, lossStreak, adjustedRate);
+
+        return GuessResponse.builder()
+                .correct(isCorrect)
+                .guessedNumber(request.getNumber())
+                .actualNumber(actualNumber)
+                .scoreEarned(scoreEarned)
+                .totalScore(newScore)
+                .remainingTurns(remainingTurns)
+                .gameId(gameHistory.getId())
+                .message(message)
+                .build();
+    }
+
     @Override
     @Transactional(readOnly = true)
     public List<GameHistoryResponse> getGameHistory(String username) {
@@ -1,16 +1,44 @@
 package com.numbergame.gamenumber.service.impl;
 
+import com.numbergame.gamenumber.dto.UserScoreView;
+import com.numbergame.gamenumber.dto.response.LeaderboardPageResponse;
 import com.numbergame.gamenumber.dto.response.LeaderboardResponse;
 import com.numbergame.gamenumber.entity.User;
+import com.numbergame.gamenumber.enums.LeaderboardMetric;
+import com.numbergame.gamenumber.enums.LeaderboardWindow;
+import com.numbergame.gamenumber.exception.custom.ForbiddenOperationException;
 import com.numbergame.gamenumber.repository.UserRepository;
 import com.numbergame.gamenumber.service.ILeaderboardService;
+import com.numbergame.gamenumber.service.ILocalLeaderboardService;
+import com.numbergame.gamenumber.service.ISeasonArchiveService;
+import com.numbergame.gamenumber.utils.LeaderboardScoreCodec;
+import com.numbergame.gamenumber.utils.LeaderboardShards;
 import lombok.RequiredArgsConstructor;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.redis.core.RedisCallback;
 import org.springframework.data.redis.core.RedisTemplate;
 import org.springframework.data.redis.core.ZSetOperations;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
 
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+import java.time.temporal.ChronoUnit;
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Pattern;
 import java.util.stream.Collectors;
 
 /**
@@ -21,8 +49,29 @@ import java.util.stream.Collectors;
  * - Real-time updates
  * - Handles millions of users efficiently
  * - Persistent in Redis with optional DB sync
- * - Optimized batch loading to prevent N+1 queries
+ * - Compact layout: usernames live in one shared hash, a top-N / window read is a single
+ *   script call (ZREVRANGE + HMGET), no per-user hash and no N+1 lookups
  * - Response caching for ultra-fast retrieval
+ * - Versioned cache pages: a score change only invalidates the top-L pages it actually changes
+ *   (no KEYS/SCAN, stale pages simply expire)
+ * - Rank windows / "around me" queries: bounded ZREVRANGE slices instead of big top-N lists
+ * - Stable tie-break: global ZSET scores are composite (score + reversed achieved-at, see
+ *   LeaderboardScoreCodec), equal scores rank the earlier achiever first, same order as the DB
+ * - Time windows: daily + season boards incremented on each win (ZINCRBY, TTL),
+ *   rolling weekly board rebuilt on a schedule with ZUNIONSTORE of the daily boards
+ * - Coalesced writes: only the latest score per user is kept and all changed entries
+ *   are flushed in one script call per tick (bounded by leaderboard.write.max-staleness-ms),
+ *   on a dedicated flusher thread so a slow scheduled job (rebuild, rollover) cannot delay it;
+ *   the script only raises entries, so a node flushing an older score late cannot lower one
+ * - Optional sharding (leaderboard.shards > 1): the global board is split by user id into N sorted
+ *   sets with hash-tagged keys (leaderboard:{s}:global, own page-cache keys), so no script spans two
+ *   cluster slots; top-N is a k-way merge of per-shard top-N, a rank the sum of per-shard ZCOUNTs
+ * - Season rollover: live season board RENAMEd to an archive key in one script (no traffic stop),
+ *   then streamed to MySQL; past seasons are read from the archive key, then from MySQL
+ * - Group boards (friends, clans): membership set ZINTERSTORE'd with the global board, cached per
+ *   group with a short TTL and read with names in one script call
+ * - Redis outage: global reads fall back to the in-JVM board (ILocalLeaderboardService), kept warm
+ *   from every score update, instead of returning an empty list
  */
 @Service
 @RequiredArgsConstructor
@@ -31,29 +80,140 @@ public class LeaderboardServiceImpl implements ILeaderboardService {
 
     private final RedisTemplate<String, String> redisTemplate;
     private final UserRepository userRepository;
+    private final ILocalLeaderboardService localLeaderboard;
+    private final ISeasonArchiveService seasonArchive;
 
-    private static final String LEADERBOARD_KEY = "leaderboard:global";
-    private static final String USER_DATA_KEY = "leaderboard:user:";
+    private static final String LEADERBOARD_KEY = "leaderboard:global"; // unsharded board, see LeaderboardShards
+    private static final String NAMES_KEY = "leaderboard:names"; // shared hash: user id -> username
     private static final String LEADERBOARD_CACHE_KEY = "leaderboard:cache:top";
+    // Nodes holding an in-memory snapshot listen here (payload: smallest affected 0-based rank)
+    public static final String UPDATES_CHANNEL = "leaderboard:updates";
+
+    private static final String DAILY_KEY_PREFIX = "leaderboard:daily:";
+    private static final String WEEKLY_KEY = "leaderboard:weekly";
+    private static final String SEASON_LIVE_KEY = "leaderboard:season:live";
+    private static final String SEASON_META_KEY = "leaderboard:season:meta"; // number, startedAt (epoch day)
+    private static final String SEASON_ARCHIVE_PREFIX = "leaderboard:season:archive:";
+    private static final String SEASON_EXPORT_PREFIX = "leaderboard:season:export:"; // SET NX claim, one exporting node
+    private static final long SEASON_EXPORT_CLAIM_TTL = TimeUnit.MINUTES.toSeconds(10); // also the retry backoff
+    private static final int WEEKLY_DAYS = 7;
+    private static final long DAILY_TTL = TimeUnit.DAYS.toSeconds(WEEKLY_DAYS + 1); // still needed by the weekly union
+    private static final long WEEKLY_TTL = TimeUnit.DAYS.toSeconds(1); // expires if the aggregation stops
+
+    private static final String GROUP_KEY_PREFIX = "leaderboard:group:";
+    private static final Pattern GROUP_ID_PATTERN = Pattern.compile("[A-Za-z0-9_-]{1,64}");
+
     private static final long LEADERBOARD_CACHE_TTL = 60; // 1 minute cache
+    private static final int MAX_CACHED_LIMIT = 100; // bigger pages are never cached
+    private static final int MAX_PAGE_SIZE = 100;
+    private static final int MAX_AROUND_RADIUS = 50;
+    private static final int WRITE_BATCH_SIZE = 500; // entries per script call, keeps each EVAL short
+    private static final int REBUILD_BATCH_SIZE = 2000; // rows per keyset page / ZADD
+    private static final long REBUILD_KEY_TTL = TimeUnit.HOURS.toSeconds(1);
+    private static final int MAX_TRACKED_SCORES = 100_000; // bound of the last-written map
+    private static final long REDIS_RETRY_INTERVAL_MS = 5000; // local fallback only, until then
+
+    @Value("${leaderboard.write.coalescing.enabled:true}")
+    private boolean coalescingEnabled;
+
+    @Value("${leaderboard.write.max-staleness-ms:200}")
+    private long maxStalenessMs;
+
+    // 1 = single leaderboard:global key; N > 1 = leaderboard:{0..N-1}:global (filled from MySQL when empty)
+    @Value("${leaderboard.shards:1}")
+    private int shardCount;
+
+    @Value("${leaderboard.window.zone:UTC}")
+    private String windowZone;
+
+    @Value("${leaderboard.season.start-date:2025-01-01}")
+    private String seasonStartDate;
+
+    @Value("${leaderboard.season.length-days:90}")
+    private int seasonLengthDays;
+
+    @Value("${leaderboard.season.auto-rollover:true}")
+    private boolean seasonAutoRollover;
+
+    // How long an archived season stays in Redis (then read from MySQL)
+    @Value("${leaderboard.season.archive-retention-days:30}")
+    private int seasonArchiveRetentionDays;
+
+    @Value("${leaderboard.group.max-members:5000}")
+    private int maxGroupMembers;
+
+    @Value("${leaderboard.group.board-ttl-ms:5000}")
+    private long groupBoardTtlMs;
+
+    // Latest pending score per user, replaced in place until the next flush
+    private final Map<Long, PendingScore> pendingScores = new ConcurrentHashMap<>();
+    // Points won per user since the last flush (time-windowed boards)
+    private final Map<Long, Integer> pendingWindowPoints = new ConcurrentHashMap<>();
+    // Last score flushed per user, used to drop no-op updates (e.g. losses)
+    private final Map<Long, Integer> lastWrittenScores = new ConcurrentHashMap<>();
+
+    private LeaderboardShards shards;
+    private ScheduledExecutorService flusher;
+    // Redis is skipped for global reads until this time after a failure (no timeout on every request)
+    private volatile long redisRetryAt;
+
+    // ZADD + user hash + targeted page invalidation in one round-trip
+    private static final RedisScript<Long> UPDATE_SCORE_SCRIPT =
+        RedisScript.of(new ClassPathResource("scripts/leaderboard-update.lua"), Long.class);
+
+    // ZREVRANGE WITHSCORES + HMGET of the names in one round-trip
+    @SuppressWarnings("rawtypes")
+    private static final RedisScript<List> RANGE_SCRIPT =
+        RedisScript.of(new ClassPathResource("scripts/leaderboard-range.lua"), List.class);
+
+    // ZINCRBY on the daily + season boards, TTL refreshed in the same call
+    private static final RedisScript<Long> WINDOW_INCREMENT_SCRIPT =
+        RedisScript.of(new ClassPathResource("scripts/leaderboard-window-incr.lua"), Long.class);
+
+    // RENAME live season -> archive + next season number, compare-and-set on the number
+    private static final RedisScript<Long> SEASON_ROLLOVER_SCRIPT =
+        RedisScript.of(new ClassPathResource("scripts/season-rollover.lua"), Long.class);
+
+    // Group board: (cached) ZINTERSTORE + ZREVRANGE + HMGET names in one round-trip
+    @SuppressWarnings("rawtypes")
+    private static final RedisScript<List> GROUP_RANGE_SCRIPT =
+        RedisScript.of(new ClassPathResource("scripts/leaderboard-group-range.lua"), List.class);
+
+    // Owner check, cap on members + pending invites, SADD invites in one step
+    private static final RedisScript<Long> GROUP_INVITE_SCRIPT =
+        RedisScript.of(new ClassPathResource("scripts/leaderboard-group-invite.lua"), Long.class);
+
+    // Pending invite -> member, cached group board dropped
+    private static final RedisScript<Long> GROUP_ACCEPT_SCRIPT =
+        RedisScript.of(new ClassPathResource("scripts/leaderboard-group-accept.lua"), Long.class);
+
+    // Leave or decline, ownership and empty group cleaned up
+    private static final RedisScript<Long> GROUP_LEAVE_SCRIPT =
+        RedisScript.of(new ClassPathResource("scripts/leaderboard-group-leave.lua"), Long.class);
 
     @Override
-    public void updateScore(Long userId, String username, Integer score) {
-        try {
-            // Update score in Redis Sorted Set (O(log N))
-            redisTemplate.opsForZSet().add(LEADERBOARD_KEY, userId.toString(), score);
-
-            // Cache user data for quick retrieval using pipeline
-            String userDataKey = USER_DATA_KEY + userId;
-            redisTemplate.executePipelined((org.springframework.data.redis.core.RedisCallback<?>) connection -> {
-                redisTemplate.opsForHash().put(userDataKey, "username", username);
-                redisTemplate.opsForHash().put(userDataKey, "score", score.toString());
-                return null;
-            });
+    public void updateScore(Long userId, String username, Integer score, Instant achievedAt) {
+        // Same instant the state hash holds and the batch sync persists: Redis, DB and rebuilds order ties alike
+        long tiebreak = LeaderboardScoreCodec.tiebreak(achievedAt);
+        // Local fallback board always up to date, whatever happens to Redis
+        localLeaderboard.update(userId, username, score, tiebreak);
 
-            // Invalidate leaderboard cache when score updates
-            redisTemplate.delete(LEADERBOARD_CACHE_KEY + ":10");
+        if (coalescingEnabled) {
+            // Unchanged (or older) score: nothing to write
+            Integer written = lastWrittenScores.get(userId);
+            if (written != null && score <= written && !pendingScores.containsKey(userId)) {
+                return;
+            }
+            // Highest score wins, written by the next flush: guesses finishing out of order cannot
+            // replace a newer score, and a repeat of the pending score keeps the earlier achieved-at
+            PendingScore update = new PendingScore(userId, username, score, tiebreak);
+            pendingScores.merge(userId, update,
+                (pending, latest) -> latest.score() > pending.score() ? latest : pending);
+            return;
+        }
 
+        try {
+            writeScores(List.of(new PendingScore(userId, username, score, tiebreak)));
             log.debug("Updated leaderboard: User {} - Score {}", username, score);
         } catch (Exception e) {
             log.error("Failed to update leaderboard for user {}: {}", userId, e.getMessage());
@@ -61,81 +221,372 @@ public class LeaderboardServiceImpl implements ILeaderboardService {
     }
 
     @Override
-    public List<LeaderboardResponse> getTopUsers(int limit) {
+    public void addWindowPoints(Long userId, int points) {
+        if (points <= 0) {
+            return;
+        }
+
+        if (coalescingEnabled) {
+            // Summed per user, one ZINCRBY per board at the next flush
+            pendingWindowPoints.merge(userId, points, Integer::sum);
+            return;
+        }
+
         try {
-            // Try to get from cache first (ultra-fast)
-            String cacheKey = LEADERBOARD_CACHE_KEY + ":" + limit;
-            List<String> cachedData = redisTemplate.opsForList().range(cacheKey, 0, -1);
+            writeWindowPoints(Map.of(userId, points));
+        } catch (Exception e) {
+            log.error("Failed to update time-windowed leaderboards for user {}: {}", userId, e.getMessage());
+        }
+    }
 
-            if (cachedData != null && !cachedData.isEmpty()) {
-                log.debug("Leaderboard cache HIT for top {}", limit);
-                return deserializeLeaderboard(cachedData);
+    /**
+     * Rebuild the rolling weekly board from the last 7 daily boards
+     * O(N) + O(M log M) in Redis, independent of the number of guesses (no game_history scan)
+     */
+    @Scheduled(fixedDelayString = "${leaderboard.window.weekly-refresh-ms:60000}")
+    public void aggregateWeeklyBoard() {
+        try {
+            LocalDate today = today();
+            List<String> previousDays = new ArrayList<>(WEEKLY_DAYS - 1);
+            for (int day = 1; day < WEEKLY_DAYS; day++) {
+                previousDays.add(dailyKey(today.minusDays(day)));
             }
 
-            log.debug("Leaderboard cache MISS, building from Redis Sorted Set");
+            // Destination is replaced atomically, readers never see a partial union
+            Long size = redisTemplate.opsForZSet().unionAndStore(dailyKey(today), previousDays, WEEKLY_KEY);
+            redisTemplate.expire(WEEKLY_KEY, WEEKLY_TTL, TimeUnit.SECONDS);
 
-            // Get top N users with highest scores (O(log N + M))
-            Set<ZSetOperations.TypedTuple<String>> topUsers =
-                redisTemplate.opsForZSet().reverseRangeWithScores(LEADERBOARD_KEY, 0, limit - 1);
+            log.debug("Weekly leaderboard rebuilt with {} users", size);
+        } catch (Exception e) {
+            log.error("Failed to aggregate weekly leaderboard: {}", e.getMessage());
+        }
+    }
 
-            if (topUsers == null || topUsers.isEmpty()) {
-                log.warn("Leaderboard is empty, loading from database");
-                return loadLeaderboardFromDB(limit);
+    /**
+     * Close the season once its length has elapsed
+     * The next season starts where this one should have ended, so the cadence stays fixed
+     */
+    @Scheduled(fixedDelayString = "${leaderboard.season.check-interval-ms:60000}")
+    public void checkSeasonRollover() {
+        if (!seasonAutoRollover) {
+            return;
+        }
+
+        try {
+            long[] season = seasonState();
+            long nextStart = season[1] + seasonLengthDays;
+            if (today().toEpochDay() >= nextStart) {
+                rolloverSeason(season[0], nextStart);
+            } else {
+                retryIncompleteExport(season[0] - 1);
             }
+        } catch (Exception e) {
+            log.error("Failed to check season rollover: {}", e.getMessage());
+        }
+    }
 
-            // Extract user IDs for batch loading
-            List<Long> userIds = topUsers.stream()
-                .map(tuple -> Long.parseLong(tuple.getValue()))
-                .collect(Collectors.toList());
+    /**
+     * Re-run the MySQL export of a closed season while its Redis archive is still there and
+     * MySQL holds fewer rows (export failed, or the node died mid-export)
+     */
+    private void retryIncompleteExport(long season) {
+        if (season < 0) {
+            return;
+        }
+
+        String archiveKey = seasonArchiveKey(season);
+        Long archived = redisTemplate.opsForZSet().zCard(archiveKey);
+        if (archived == null || archived == 0 || seasonArchive.getArchivedCount(season) >= archived) {
+            return;
+        }
+
+        if (exportSeason(season, archiveKey)) {
+            log.warn("Season {} export incomplete ({} entries in Redis), retrying", season, archived);
+        }
+    }
+
+    /**
+     * Start the export on this node unless another one holds the claim
+     * The claim expires instead of being released, so a failed export is retried after the TTL
+     *
+     * @return true if the export was started here
+     */
+    private boolean exportSeason(long season, String archiveKey) {
+        Boolean claimed = redisTemplate.opsForValue()
+            .setIfAbsent(SEASON_EXPORT_PREFIX + season, "1", SEASON_EXPORT_CLAIM_TTL, TimeUnit.SECONDS);
+        if (!Boolean.TRUE.equals(claimed)) {
+            return false;
+        }
+
+        // Streamed in chunks on the batch executor, readers use the Redis archive meanwhile
+        seasonArchive.archiveSeason(season, (start, count) -> readRange(archiveKey, start, start + count - 1));
+        return true;
+    }
+
+    /**
+     * Periodic flush of coalesced scores
+     * The delay is the maximum time a score stays invisible on the leaderboard, so it runs on its own
+     * thread: the shared @Scheduled thread also runs the weekly rebuild and the season rollover
+     */
+    @PostConstruct
+    public void initShards() {
+        shards = new LeaderboardShards(shardCount);
+        if (!shards.isSharded()) {
+            return;
+        }
+        log.info("Sharded global leaderboard: {} shards", shardCount);
+
+        // Shard count just changed (or first start): every shard key is new, fill them from MySQL
+        try {
+            if (getTotalUsers() == 0) {
+                populateFromDatabase();
+            }
+        } catch (Exception e) {
+            log.warn("⚠️ Could not fill the leaderboard shards at startup: {}", e.getMessage());
+        }
+    }
+
+    @PostConstruct
+    public void startFlusher() {
+        if (!coalescingEnabled) {
+            return;
+        }
+        flusher = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "Leaderboard-Flusher");
+            thread.setDaemon(true);
+            return thread;
+        });
+        flusher.scheduleWithFixedDelay(this::scheduledFlush, maxStalenessMs, maxStalenessMs, TimeUnit.MILLISECONDS);
+    }
+
+    private void scheduledFlush() {
+        try {
+            flushPendingUpdates();
+        } catch (Exception e) {
+            // Never let an exception cancel the periodic task; the entries stay pending for the next tick
+            log.error("Leaderboard flush failed: {}", e.getMessage());
+        }
+    }
+
+    @PreDestroy
+    public void flushOnShutdown() {
+        if (flusher != null) {
+            flusher.shutdown();
+            try {
+                flusher.awaitTermination(5, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        int flushed = flushPendingUpdates();
+        if (flushed > 0) {
+            log.info("🛑 Flushed {} pending leaderboard updates on shutdown", flushed);
+        }
+    }
+
+    @Override
+    public synchronized int flushPendingUpdates() {
+        return flushPendingScores() + flushPendingWindowPoints();
+    }
+
+    private int flushPendingScores() {
+        if (pendingScores.isEmpty()) {
+            return 0;
+        }
+
+        // Drain entry by entry: an update arriving meanwhile simply stays for the next tick
+        List<PendingScore> batch = new ArrayList<>();
+        for (Long userId : pendingScores.keySet()) {
+            PendingScore pending = pendingScores.remove(userId);
+            if (pending != null) {
+                batch.add(pending);
+            }
+        }
+
+        try {
+            writeScores(batch);
+
+            if (lastWrittenScores.size() > MAX_TRACKED_SCORES) {
+                lastWrittenScores.clear();
+            }
+            batch.forEach(pending -> lastWrittenScores.merge(pending.userId(), pending.score(), Math::max));
+
+            log.debug("Flushed {} coalesced leaderboard updates", batch.size());
+            return batch.size();
+        } catch (Exception e) {
+            log.error("Failed to flush {} leaderboard updates, retrying next tick: {}", batch.size(), e.getMessage());
+            // Re-queue, unless a newer score arrived in the meantime
+            batch.forEach(pending -> pendingScores.putIfAbsent(pending.userId(), pending));
+            return 0;
+        }
+    }
+
+    private int flushPendingWindowPoints() {
+        if (pendingWindowPoints.isEmpty()) {
+            return 0;
+        }
+
+        Map<Long, Integer> batch = new HashMap<>();
+        for (Long userId : pendingWindowPoints.keySet()) {
+            Integer points = pendingWindowPoints.remove(userId);
+            if (points != null) {
+                batch.put(userId, points);
+            }
+        }
+
+        try {
+            writeWindowPoints(batch);
+            return batch.size();
+        } catch (Exception e) {
+            log.error("Failed to flush {} window increments, retrying next tick: {}", batch.size(), e.getMessage());
+            // Points are deltas: add back to whatever arrived meanwhile
+            batch.forEach((userId, points) -> pendingWindowPoints.merge(userId, points, Integer::sum));
+            return 0;
+        }
+    }
+
+    @Override
+    public List<LeaderboardResponse> getTopUsers(int limit) {
+        return withPercentiles(loadTopUsers(limit));
+    }
+
+    private List<LeaderboardResponse> loadTopUsers(int limit) {
+        if (useLocalFallback()) {
+            return localLeaderboard.getRange(0, limit);
+        }
+
+        try {
+            // Try to get from cache first (ultra-fast)
+            boolean cacheable = limit <= MAX_CACHED_LIMIT;
+            String cacheKey = null;
+
+            if (cacheable) {
+                cacheKey = buildCacheKey(limit);
+                List<String> cachedData = redisTemplate.opsForList().range(cacheKey, 0, -1);
 
-            // Batch load usernames from Redis using pipeline (prevents N+1 problem)
-            Map<Long, String> usernameMap = batchLoadUsernames(userIds);
+                if (cachedData != null && !cachedData.isEmpty()) {
+                    log.debug("Leaderboard cache HIT for top {}", limit);
+                    return deserializeLeaderboard(cachedData);
+                }
+
+                // Register the page BEFORE reading the ZSET so any later update bumps its version
+                registerCachedLimit(limit);
+            }
 
-            // Build leaderboard response
-            List<LeaderboardResponse> leaderboard = new ArrayList<>();
-            int rank = 1;
+            log.debug("Leaderboard cache MISS, building from Redis Sorted Set");
 
-            for (ZSetOperations.TypedTuple<String> tuple : topUsers) {
-                Long userId = Long.parseLong(tuple.getValue());
-                Integer score = tuple.getScore().intValue();
-                String username = usernameMap.getOrDefault(userId, "Unknown");
+            // Get top N users with highest scores + names (O(log N + M), one round-trip)
+            List<LeaderboardResponse> leaderboard = readGlobalRange(0, limit - 1);
 
-                leaderboard.add(LeaderboardResponse.builder()
-                    .rank(rank++)
-                    .userId(userId)
-                    .username(username)
-                    .score(score)
-                    .build());
+            if (leaderboard.isEmpty()) {
+                log.warn("Leaderboard is empty, loading from database");
+                return loadLeaderboardFromDB(limit);
             }
 
             // Cache the result for ultra-fast subsequent requests
-            cacheLeaderboardResponse(cacheKey, leaderboard);
+            if (cacheable) {
+                cacheLeaderboardResponse(cacheKey, leaderboard);
+            }
 
             return leaderboard;
+        } catch (DataAccessException e) {
+            markRedisUnavailable(e);
+            return localLeaderboard.getRange(0, limit);
         } catch (Exception e) {
             log.error("Failed to get top users from leaderboard: {}", e.getMessage(), e);
             return Collections.emptyList();
         }
     }
 
+    @Override
+    public LeaderboardPageResponse getRankWindow(LeaderboardWindow window, long cursor, int size) {
+        return withPercentiles(window, loadRankWindow(window, cursor, size));
+    }
+
+    private LeaderboardPageResponse loadRankWindow(LeaderboardWindow window, long cursor, int size) {
+        long start = Math.max(cursor, 1) - 1;
+        int pageSize = Math.min(Math.max(size, 1), MAX_PAGE_SIZE);
+        if (window != LeaderboardWindow.GLOBAL) {
+            return loadWindow(boardKey(window), start, pageSize);
+        }
+
+        if (useLocalFallback()) {
+            return toPage(localLeaderboard.getRange(start, pageSize + 1), start, pageSize);
+        }
+        try {
+            // One extra entry tells whether there is a next page
+            return toPage(readGlobalRange(start, start + pageSize), start, pageSize);
+        } catch (DataAccessException e) {
+            markRedisUnavailable(e);
+            return toPage(localLeaderboard.getRange(start, pageSize + 1), start, pageSize);
+        }
+    }
+
+    @Override
+    public LeaderboardPageResponse getAroundUser(LeaderboardWindow window, Long userId, int radius) {
+        return withPercentiles(window, loadAroundUser(window, userId, radius));
+    }
+
+    private LeaderboardPageResponse loadAroundUser(LeaderboardWindow window, Long userId, int radius) {
+        int k = Math.min(Math.max(radius, 0), MAX_AROUND_RADIUS);
+        if (window == LeaderboardWindow.GLOBAL) {
+            if (useLocalFallback()) {
+                return localNeighbourhood(userId, k);
+            }
+            try {
+                return shards.isSharded() ? loadShardedNeighbourhood(userId, k)
+                    : loadNeighbourhood(LEADERBOARD_KEY, userId, k);
+            } catch (DataAccessException e) {
+                markRedisUnavailable(e);
+                return localNeighbourhood(userId, k);
+            }
+        }
+        return loadNeighbourhood(boardKey(window), userId, k);
+    }
+
+    /**
+     * Rank ± k on one sorted set: ZREVRANK then one range read
+     */
+    private LeaderboardPageResponse loadNeighbourhood(String boardKey, Long userId, int k) {
+        Long rank = redisTemplate.opsForZSet().reverseRank(boardKey, userId.toString());
+        if (rank == null) {
+            log.debug("User {} not found in {}", userId, boardKey);
+            return null;
+        }
+
+        long start = Math.max(rank - k, 0);
+        return loadWindow(boardKey, start, (int) (rank + k - start + 1));
+    }
+
     @Override
     public LeaderboardResponse getUserRank(Long userId) {
+        LeaderboardResponse entry = loadUserRank(userId);
+        if (entry != null && entry.getRank() != null) {
+            entry.setPercentile(getPercentile(entry.getRank()));
+        }
+        return entry;
+    }
+
+    private LeaderboardResponse loadUserRank(Long userId) {
+        if (useLocalFallback()) {
+            return localLeaderboard.getUserRank(userId);
+        }
+
         try {
             // Get user's score (O(1))
-            Double score = redisTemplate.opsForZSet().score(LEADERBOARD_KEY, userId.toString());
+            Double score = redisTemplate.opsForZSet().score(globalBoardKey(userId), userId.toString());
 
             if (score == null) {
                 log.debug("User {} not found in leaderboard", userId);
                 return null;
             }
 
-            // Get user's rank (O(log N))
-            Long rank = redisTemplate.opsForZSet()
-                .reverseRank(LEADERBOARD_KEY, userId.toString());
+            // Get user's rank (O(log N), summed over shards in sharded mode)
+            Long rank = globalRank(userId, score);
 
-            // Get username from cache
-            String username = (String) redisTemplate.opsForHash()
-                .get(USER_DATA_KEY + userId, "username");
+            // Get username from the shared names hash
+            Object cachedName = redisTemplate.opsForHash().get(NAMES_KEY, userId.toString());
+            String username = cachedName != null ? cachedName.toString() : null;
 
             if (username == null) {
                 username = userRepository.findById(userId)
@@ -147,8 +598,11 @@ public class LeaderboardServiceImpl implements ILeaderboardService {
                 .rank(rank != null ? rank.intValue() + 1 : null) // Convert to 1-based rank
                 .userId(userId)
                 .username(username)
-                .score(score.intValue())
+                .score(LeaderboardScoreCodec.decodeScore(score))
                 .build();
+        } catch (DataAccessException e) {
+            markRedisUnavailable(e);
+            return localLeaderboard.getUserRank(userId);
         } catch (Exception e) {
             log.error("Failed to get user rank for userId {}: {}", userId, e.getMessage());
             return null;
@@ -157,20 +611,200 @@ public class LeaderboardServiceImpl implements ILeaderboardService {
 
     @Override
     public Long getUserPosition(Long userId) {
-        Long rank = redisTemplate.opsForZSet()
-            .reverseRank(LEADERBOARD_KEY, userId.toString());
-        return rank != null ? rank + 1 : null; // Convert to 1-based
+        if (useLocalFallback()) {
+            return localPosition(userId);
+        }
+
+        try {
+            Long rank = globalRank(userId, null);
+            return rank != null ? rank + 1 : null; // Convert to 1-based
+        } catch (DataAccessException e) {
+            markRedisUnavailable(e);
+            return localPosition(userId);
+        }
+    }
+
+    @Override
+    public Long estimateRank(int score) {
+        return localLeaderboard.estimateRank(score);
+    }
+
+    @Override
+    public Double getPercentile(long rank) {
+        return percentile(rank, playerCount());
+    }
+
+    private static Double percentile(long rank, long total) {
+        if (total == 0 || rank < 1) {
+            return null;
+        }
+        // Rank and count are separate reads: clamp instead of reporting > 100 or < 0
+        double percentile = 100.0 * (total - Math.min(rank, total) + 1) / total;
+        return Math.round(percentile * 100) / 100.0;
+    }
+
+    /**
+     * Player count from the same board the ranks come from: ZCARD while Redis serves ranks,
+     * the local board size only while ranks are served by the local fallback
+     */
+    private long playerCount() {
+        if (useLocalFallback()) {
+            return localLeaderboard.size();
+        }
+
+        try {
+            return getTotalUsers();
+        } catch (DataAccessException e) {
+            markRedisUnavailable(e);
+            return localLeaderboard.size();
+        }
+    }
+
+    @Override
+    public int inviteGroupMembers(String groupId, Long ownerId, Collection<Long> userIds) {
+        List<String> keys = List.of(groupKey(groupId, "members"), groupKey(groupId, "invites"),
+            groupKey(groupId, "owner"));
+        List<String> args = new ArrayList<>();
+        args.add(String.valueOf(maxGroupMembers));
+        args.add(ownerId.toString());
+        userIds.forEach(userId -> args.add(userId.toString()));
+
+        Long invited = redisTemplate.execute(GROUP_INVITE_SCRIPT, keys, args.toArray());
+        if (invited != null && invited == -1) {
+            throw new ForbiddenOperationException("Only the owner of group " + groupId + " can invite players");
+        }
+        if (invited != null && invited == -2) {
+            throw new IllegalArgumentException("Group " + groupId + " is limited to " + maxGroupMembers + " members");
+        }
+        log.debug("Invited {} users to leaderboard group {}", invited, groupId);
+        return invited != null ? invited.intValue() : 0;
+    }
+
+    @Override
+    public boolean acceptGroupInvite(String groupId, Long userId) {
+        List<String> keys = List.of(groupKey(groupId, "members"), groupKey(groupId, "invites"),
+            groupKey(groupId, "board"));
+        Long joined = redisTemplate.execute(GROUP_ACCEPT_SCRIPT, keys, userId.toString());
+        return joined != null && joined == 1;
+    }
+
+    @Override
+    public void removeGroupMember(String groupId, Long userId) {
+        List<String> keys = List.of(groupKey(groupId, "members"), groupKey(groupId, "invites"),
+            groupKey(groupId, "owner"), groupKey(groupId, "board"));
+        redisTemplate.execute(GROUP_LEAVE_SCRIPT, keys, userId.toString());
+    }
+
+    @Override
+    public boolean isGroupMember(String groupId, Long userId) {
+        return Boolean.TRUE.equals(redisTemplate.opsForSet().isMember(groupKey(groupId, "members"), userId.toString()));
+    }
+
+    @Override
+    public long getGroupSize(String groupId) {
+        Long size = redisTemplate.opsForSet().size(groupKey(groupId, "members"));
+        return size != null ? size : 0L;
+    }
+
+    @Override
+    public LeaderboardPageResponse getGroupRankWindow(String groupId, long cursor, int size) {
+        long start = Math.max(cursor, 1) - 1;
+        int pageSize = Math.min(Math.max(size, 1), MAX_PAGE_SIZE);
+        if (shards.isSharded()) {
+            return toPage(readShardedGroupRange(groupId, start, start + pageSize), start, pageSize);
+        }
+
+        List<String> keys = new ArrayList<>();
+        keys.add(groupKey(groupId, "members"));
+        keys.add(groupKey(groupId, "board"));
+        keys.add(NAMES_KEY);
+        keys.add(LEADERBOARD_KEY);
+
+        // One extra entry tells whether there is a next page
+        List<Object> flat = redisTemplate.execute(GROUP_RANGE_SCRIPT, keys,
+            String.valueOf(start), String.valueOf(start + pageSize), String.valueOf(groupBoardTtlMs));
+        return toPage(parseRange(flat, start, true), start, pageSize);
+    }
+
+    @Override
+    public LeaderboardPageResponse getMetricRankWindow(LeaderboardMetric metric, long cursor, int size) {
+        long start = Math.max(cursor, 1) - 1;
+        int pageSize = Math.min(Math.max(size, 1), MAX_PAGE_SIZE);
+        return loadWindow(metric.getBoardKey(), start, pageSize);
+    }
+
+    @Override
+    public LeaderboardResponse getMetricUserRank(LeaderboardMetric metric, Long userId) {
+        String member = userId.toString();
+        Double value = redisTemplate.opsForZSet().score(metric.getBoardKey(), member);
+        Long rank = redisTemplate.opsForZSet().reverseRank(metric.getBoardKey(), member);
+        if (value == null || rank == null) {
+            return null;
+        }
+
+        Object cachedName = redisTemplate.opsForHash().get(NAMES_KEY, member);
+        String username = cachedName != null
+            ? cachedName.toString()
+            : userRepository.findById(userId).map(User::getUsername).orElse("Unknown");
+
+        return LeaderboardResponse.builder()
+            .rank(rank.intValue() + 1)
+            .userId(userId)
+            .username(username)
+            .score(value.intValue())
+            .build();
+    }
+
+    @Override
+    public long rolloverSeason() {
+        return rolloverSeason(seasonState()[0], today().toEpochDay());
+    }
+
+    @Override
+    public long getCurrentSeason() {
+        return seasonState()[0];
+    }
+
+    @Override
+    public LeaderboardPageResponse getSeasonRankWindow(long season, long cursor, int size) {
+        long start = Math.max(cursor, 1) - 1;
+        int pageSize = Math.min(Math.max(size, 1), MAX_PAGE_SIZE);
+
+        long current = getCurrentSeason();
+        if (season == current) {
+            return loadWindow(SEASON_LIVE_KEY, start, pageSize);
+        }
+        if (season < 0 || season > current) {
+            return toPage(new ArrayList<>(), start, pageSize);
+        }
+
+        // Recent season: still in Redis; older: MySQL copy
+        String archiveKey = seasonArchiveKey(season);
+        if (Boolean.TRUE.equals(redisTemplate.hasKey(archiveKey))) {
+            return loadWindow(archiveKey, start, pageSize);
+        }
+        return toPage(seasonArchive.getRange(season, start, pageSize + 1), start, pageSize);
     }
 
     @Override
     public void removeUser(Long userId) {
+        // A pending score must not re-add the user on the next flush
+        pendingScores.remove(userId);
+        lastWrittenScores.remove(userId);
+        localLeaderboard.remove(userId);
+
         try {
-            redisTemplate.opsForZSet().remove(LEADERBOARD_KEY, userId.toString());
-            redisTemplate.delete(USER_DATA_KEY + userId);
+            Long rank = globalRank(userId, null);
+            redisTemplate.opsForZSet().remove(globalBoardKey(userId), userId.toString());
+            redisTemplate.opsForHash().delete(NAMES_KEY, userId.toString());
+            for (LeaderboardMetric metric : LeaderboardMetric.values()) {
+                redisTemplate.opsForZSet().remove(metric.getBoardKey(), userId.toString());
+            }
 
-            // Invalidate cache
-            redisTemplate.keys(LEADERBOARD_CACHE_KEY + ":*")
-                .forEach(key -> redisTemplate.delete(key));
+            // Invalidate only the cached pages that contained the user (no keyspace scan)
+            if (rank != null) {
+                invalidatePagesFromRank(rank);
+            }
 
             log.info("Removed user {} from leaderboard", userId);
         } catch (Exception e) {
@@ -178,103 +812,653 @@ public class LeaderboardServiceImpl implements ILeaderboardService {
         }
     }
 
+    @Override
+    public long getBoardVersion(int limit) {
+        // Sharded: sum of the shards' versions, which grows whenever any of them is bumped
+        long sum = 0L;
+        for (int shard = 0; shard < shards.getCount(); shard++) {
+            Object version = redisTemplate.opsForHash().get(shards.versionKey(shard), String.valueOf(limit));
+            sum += version != null ? Long.parseLong(version.toString()) : 0L;
+        }
+        return sum;
+    }
+
     @Override
     public long getTotalUsers() {
-        Long total = redisTemplate.opsForZSet().size(LEADERBOARD_KEY);
-        return total != null ? total : 0L;
+        long total = 0L;
+        for (int shard = 0; shard < shards.getCount(); shard++) {
+            Long size = redisTemplate.opsForZSet().size(shards.boardKey(shard));
+            total += size != null ? size : 0L;
+        }
+        return total;
     }
 
     @Override
     public int populateFromDatabase() {
-        log.info("🔄 Populating leaderboard from database...");
+        log.info("🔄 Rebuilding leaderboard from database...");
+
+        // Built aside and RENAMEd over the live board(s): readers never see a half-built shard
+        String rebuildId = UUID.randomUUID().toString();
+        Set<Integer> filledShards = new HashSet<>();
+        long startTime = System.currentTimeMillis();
 
         try {
-            List<User> allUsers = userRepository.findAll();
+            long afterId = 0L;
+            int count = 0;
+
+            while (true) {
+                List<UserScoreView> page =
+                    userRepository.findScoresAfterId(afterId, PageRequest.of(0, REBUILD_BATCH_SIZE));
+                if (page.isEmpty()) {
+                    break;
+                }
+
+                filledShards.addAll(writeRebuildBatch(rebuildId, page));
+                afterId = page.get(page.size() - 1).getId();
+                count += page.size();
+
+                log.info("⏳ Leaderboard rebuild progress: {} users loaded (last id {})", count, afterId);
+            }
 
-            if (allUsers.isEmpty()) {
+            if (count == 0) {
                 log.warn("No users found in database");
                 return 0;
             }
 
-            int count = 0;
-            for (User user : allUsers) {
-                updateScore(user.getId(), user.getUsername(), user.getScore());
-                count++;
-            }
+            swapRebuiltBoards(rebuildId, filledShards);
+            lastWrittenScores.clear();
 
-            log.info("✅ Successfully populated leaderboard with {} users", count);
+            // Whole board replaced: every cached page is stale
+            invalidatePagesFromRank(0);
+
+            log.info("✅ Rebuilt leaderboard with {} users in {}ms", count, System.currentTimeMillis() - startTime);
             return count;
 
         } catch (Exception e) {
             log.error("❌ Failed to populate leaderboard from database: {}", e.getMessage(), e);
+            for (int shard = 0; shard < shards.getCount(); shard++) {
+                redisTemplate.delete(shards.rebuildKey(shard, rebuildId));
+            }
             return 0;
         }
     }
 
     /**
-     * Batch load usernames from Redis using pipeline
-     * Prevents N+1 query problem - loads all usernames in 1 operation
-     * Complexity: O(N) instead of O(N) separate calls
+     * One pipelined round-trip per rebuild batch: a single multi-member ZADD + a single multi-field HSET
+     * Sharded: one ZADD per shard, each a single-key command for the node owning that shard
+     *
+     * @return Shards that received entries
      */
-    private Map<Long, String> batchLoadUsernames(List<Long> userIds) {
-        Map<Long, String> usernameMap = new HashMap<>();
-
-        if (userIds.isEmpty()) {
-            return usernameMap;
+    private Set<Integer> writeRebuildBatch(String rebuildId, List<UserScoreView> page) {
+        Map<Integer, Set<ZSetOperations.TypedTuple<String>>> tuplesByShard = new HashMap<>();
+        Map<String, String> names = new HashMap<>(page.size() * 2);
+        for (UserScoreView user : page) {
+            names.put(user.getId().toString(), user.getUsername());
+            long tiebreak = LeaderboardScoreCodec.tiebreak(user.getScoreAchievedAt());
+            localLeaderboard.update(user.getId(), user.getUsername(), user.getScore(), tiebreak);
+            double composite = LeaderboardScoreCodec.encode(user.getScore(), tiebreak);
+            tuplesByShard.computeIfAbsent(shards.shardOf(user.getId()), shard -> new HashSet<>())
+                .add(ZSetOperations.TypedTuple.of(user.getId().toString(), composite));
         }
 
-        try {
-            // Use pipeline for batch loading (1 network roundtrip instead of N)
-            List<Object> results = redisTemplate.executePipelined(
-                (org.springframework.data.redis.core.RedisCallback<?>) connection -> {
-                    for (Long userId : userIds) {
-                        redisTemplate.opsForHash().get(USER_DATA_KEY + userId, "username");
-                    }
+        if (!shards.isSharded()) {
+            String tempKey = shards.rebuildKey(0, rebuildId);
+            redisTemplate.executePipelined(
+                (RedisCallback<?>) connection -> {
+                    redisTemplate.opsForZSet().add(tempKey, tuplesByShard.get(0));
+                    // Abandoned rebuilds (crash mid-way) clean themselves up
+                    redisTemplate.expire(tempKey, REBUILD_KEY_TTL, TimeUnit.SECONDS);
+                    redisTemplate.opsForHash().putAll(NAMES_KEY, names);
                     return null;
                 });
+            return tuplesByShard.keySet();
+        }
 
-            // Map results back to userIds
-            List<Long> missingUserIds = new ArrayList<>();
-            for (int i = 0; i < userIds.size(); i++) {
-                Long userId = userIds.get(i);
-                Object username = results.get(i);
+        tuplesByShard.forEach((shard, tuples) -> {
+            String tempKey = shards.rebuildKey(shard, rebuildId);
+            redisTemplate.opsForZSet().add(tempKey, tuples);
+            redisTemplate.expire(tempKey, REBUILD_KEY_TTL, TimeUnit.SECONDS);
+        });
+        redisTemplate.opsForHash().putAll(NAMES_KEY, names);
+        return tuplesByShard.keySet();
+    }
 
-                if (username != null) {
-                    usernameMap.put(userId, username.toString());
-                } else {
-                    missingUserIds.add(userId);
-                }
+    /**
+     * RENAME each rebuilt shard over its live board (same hash tag, same slot) and drop the safety TTL
+     * carried over; shards that got no user are emptied. Shards are swapped one after the other.
+     */
+    private void swapRebuiltBoards(String rebuildId, Set<Integer> filledShards) {
+        for (int shard = 0; shard < shards.getCount(); shard++) {
+            String boardKey = shards.boardKey(shard);
+            if (filledShards.contains(shard)) {
+                redisTemplate.rename(shards.rebuildKey(shard, rebuildId), boardKey);
+                redisTemplate.persist(boardKey);
+            } else {
+                redisTemplate.delete(boardKey);
             }
+        }
+    }
 
-            // Batch load missing usernames from DB (if any)
-            if (!missingUserIds.isEmpty()) {
-                log.debug("Loading {} missing usernames from DB", missingUserIds.size());
-                List<User> users = userRepository.findAllById(missingUserIds);
+    /**
+     * Load entries [start, start + count) by 0-based rank
+     * Fetches one extra entry to know whether a next page exists (no ZCARD round-trip)
+     */
+    private LeaderboardPageResponse loadWindow(String boardKey, long start, int count) {
+        return toPage(readRange(boardKey, start, start + count), start, count);
+    }
 
-                for (User user : users) {
-                    usernameMap.put(user.getId(), user.getUsername());
-                    // Cache for next time
-                    redisTemplate.opsForHash().put(
-                        USER_DATA_KEY + user.getId(),
-                        "username",
-                        user.getUsername()
-                    );
-                }
+    /**
+     * Page of count entries from a slice read with one extra entry (start, count + 1)
+     */
+    private LeaderboardPageResponse toPage(List<LeaderboardResponse> entries, long start, int count) {
+        boolean hasMore = entries.size() > count;
+        if (hasMore) {
+            entries = entries.subList(0, count);
+        }
+
+        return LeaderboardPageResponse.builder()
+            .entries(entries)
+            .fromRank(entries.isEmpty() ? null : start + 1)
+            .toRank(entries.isEmpty() ? null : start + entries.size())
+            .nextCursor(hasMore ? start + count + 1 : null)
+            .build();
+    }
+
+    /**
+     * Read ranks [start, stop] (0-based, inclusive) with usernames in one script call
+     * Composite scores of the global board are decoded back to the plain score
+     */
+    @SuppressWarnings("unchecked")
+    private List<LeaderboardResponse> readRange(String boardKey, long start, long stop) {
+        List<Object> flat = redisTemplate.execute(RANGE_SCRIPT, List.of(boardKey, NAMES_KEY),
+            String.valueOf(start), String.valueOf(stop));
+        return parseRange(flat, start, LEADERBOARD_KEY.equals(boardKey));
+    }
+
+    /**
+     * Entries from the flat (member, score, username) triples of the range scripts
+     * Names missing from the shared hash are resolved in one batch
+     */
+    private List<LeaderboardResponse> parseRange(List<Object> flat, long start, boolean composite) {
+        if (flat == null || flat.isEmpty()) {
+            return new ArrayList<>();
+        }
+
+        List<LeaderboardResponse> entries = new ArrayList<>(flat.size() / 3);
+        List<LeaderboardResponse> unnamed = new ArrayList<>();
+        long rank = start + 1;
+
+        for (int i = 0; i + 2 < flat.size(); i += 3) {
+            double score = Double.parseDouble(flat.get(i + 1).toString());
+            Object username = flat.get(i + 2);
+
+            LeaderboardResponse entry = LeaderboardResponse.builder()
+                .rank((int) rank++)
+                .userId(Long.parseLong(flat.get(i).toString()))
+                .username(username != null ? username.toString() : null)
+                .score(composite ? LeaderboardScoreCodec.decodeScore(score) : (int) score)
+                .build();
+
+            entries.add(entry);
+            if (username == null) {
+                unnamed.add(entry);
+            }
+        }
+
+        if (!unnamed.isEmpty()) {
+            resolveMissingUsernames(unnamed);
+        }
+
+        return entries;
+    }
+
+    /**
+     * Fill names missing from the shared hash with one DB query, then backfill the hash (one HSET)
+     */
+    private void resolveMissingUsernames(List<LeaderboardResponse> entries) {
+        log.debug("Loading {} missing usernames from DB", entries.size());
+
+        Map<Long, String> usernames = new HashMap<>();
+        try {
+            List<Long> userIds = entries.stream().map(LeaderboardResponse::getUserId).collect(Collectors.toList());
+            for (User user : userRepository.findAllById(userIds)) {
+                usernames.put(user.getId(), user.getUsername());
             }
 
+            if (!usernames.isEmpty()) {
+                Map<String, String> backfill = new HashMap<>();
+                usernames.forEach((userId, username) -> backfill.put(userId.toString(), username));
+                redisTemplate.opsForHash().putAll(NAMES_KEY, backfill);
+            }
         } catch (Exception e) {
-            log.error("Error in batch loading usernames: {}", e.getMessage());
-            // Fallback to individual loading if pipeline fails
-            for (Long userId : userIds) {
-                String username = (String) redisTemplate.opsForHash()
-                    .get(USER_DATA_KEY + userId, "username");
-                if (username != null) {
-                    usernameMap.put(userId, username);
+            log.error("Error in loading missing usernames: {}", e.getMessage());
+        }
+
+        entries.forEach(entry -> entry.setUsername(usernames.getOrDefault(entry.getUserId(), "Unknown")));
+    }
+
+    /**
+     * Write scores + usernames through the update script
+     * One script call per WRITE_BATCH_SIZE entries (ZADD, names hash and page versions together)
+     * Sharded: one call per shard with only that shard's keys, names in one HSET of their own
+     */
+    private void writeScores(List<PendingScore> entries) {
+        if (!shards.isSharded()) {
+            writeShardScores(0, entries, true);
+            return;
+        }
+
+        // Names first: a reader finding a new entry also finds its name
+        Map<String, String> names = new HashMap<>(entries.size() * 2);
+        Map<Integer, List<PendingScore>> byShard = new HashMap<>();
+        for (PendingScore pending : entries) {
+            names.put(pending.userId().toString(), pending.username());
+            byShard.computeIfAbsent(shards.shardOf(pending.userId()), shard -> new ArrayList<>()).add(pending);
+        }
+        redisTemplate.opsForHash().putAll(NAMES_KEY, names);
+        byShard.forEach((shard, shardEntries) -> writeShardScores(shard, shardEntries, false));
+    }
+
+    private void writeShardScores(int shard, List<PendingScore> entries, boolean withNames) {
+        for (int from = 0; from < entries.size(); from += WRITE_BATCH_SIZE) {
+            List<PendingScore> chunk = entries.subList(from, Math.min(from + WRITE_BATCH_SIZE, entries.size()));
+
+            List<String> keys = new ArrayList<>(4);
+            keys.add(shards.boardKey(shard));
+            keys.add(shards.versionKey(shard));
+            keys.add(shards.limitsKey(shard));
+            if (withNames) {
+                keys.add(NAMES_KEY);
+            }
+
+            List<String> args = new ArrayList<>(1 + chunk.size() * 4);
+            args.add(UPDATES_CHANNEL);
+
+            for (PendingScore pending : chunk) {
+                args.add(pending.userId().toString());
+                args.add(String.valueOf(Math.min(pending.score(), LeaderboardScoreCodec.MAX_SCORE)));
+                args.add(pending.username());
+                args.add(String.valueOf(pending.tiebreak()));
+            }
+
+            Long bumped = redisTemplate.execute(UPDATE_SCORE_SCRIPT, keys, args.toArray());
+            log.debug("Wrote {} leaderboard entries ({} cached pages invalidated)", chunk.size(), bumped);
+        }
+    }
+
+    // ==================== PERCENTILES ====================
+
+    /**
+     * Percentile from the rank and the player count (one ZCARD per list), applied on the way out
+     * (the cached top-N pages keep the plain rank|userId|username|score format)
+     */
+    private List<LeaderboardResponse> withPercentiles(List<LeaderboardResponse> entries) {
+        if (entries.isEmpty()) {
+            return entries;
+        }
+        long total = playerCount();
+        for (LeaderboardResponse entry : entries) {
+            if (entry.getRank() != null) {
+                entry.setPercentile(percentile(entry.getRank(), total));
+            }
+        }
+        return entries;
+    }
+
+    private LeaderboardPageResponse withPercentiles(LeaderboardWindow window, LeaderboardPageResponse page) {
+        // Time-windowed boards rank a subset of the players, the global count does not apply
+        if (page != null && window == LeaderboardWindow.GLOBAL) {
+            withPercentiles(page.getEntries());
+        }
+        return page;
+    }
+
+    // ==================== SHARDED MODE ====================
+
+    /**
+     * Global board holding the user (leaderboard:global unless sharded)
+     */
+    private String globalBoardKey(Long userId) {
+        return shards.boardKey(shards.shardOf(userId));
+    }
+
+    /**
+     * 0-based global rank of a user
+     * Sharded: number of members with a strictly higher composite score = sum of per-shard ZCOUNTs
+     *
+     * @param score Composite score if already known, null to read it
+     */
+    private Long globalRank(Long userId, Double score) {
+        if (!shards.isSharded()) {
+            return redisTemplate.opsForZSet().reverseRank(LEADERBOARD_KEY, userId.toString());
+        }
+
+        if (score == null) {
+            score = redisTemplate.opsForZSet().score(globalBoardKey(userId), userId.toString());
+            if (score == null) {
+                return null;
+            }
+        }
+        return countAbove(score);
+    }
+
+    private long countAbove(double score) {
+        // Composite scores are integers, so +1 makes the lower bound exclusive
+        double min = score + 1;
+        long count = 0L;
+        for (int shard = 0; shard < shards.getCount(); shard++) {
+            Long above = redisTemplate.opsForZSet().count(shards.boardKey(shard), min, Double.MAX_VALUE);
+            count += above != null ? above : 0L;
+        }
+        return count;
+    }
+
+    /**
+     * Global ranks [start, stop] (0-based, inclusive)
+     * Sharded: every shard's top (stop + 1) holds all its entries up to global rank stop, so a k-way merge
+     * of those lists gives the exact global order. One single-key ZREVRANGE per shard, then one HMGET of
+     * the names; cost O(k * (stop + 1)) transferred, cheap for top pages, grows with the depth of the page
+     */
+    private List<LeaderboardResponse> readGlobalRange(long start, long stop) {
+        if (!shards.isSharded()) {
+            return readRange(LEADERBOARD_KEY, start, stop);
+        }
+
+        List<List<ZSetOperations.TypedTuple<String>>> perShard = new ArrayList<>(shards.getCount());
+        for (int shard = 0; shard < shards.getCount(); shard++) {
+            perShard.add(reverseRangeWithScores(shards.boardKey(shard), 0, stop));
+        }
+        return toEntries(LeaderboardShards.merge(perShard, start, stop), start + 1);
+    }
+
+    private List<ZSetOperations.TypedTuple<String>> reverseRangeWithScores(String key, long start, long stop) {
+        Set<ZSetOperations.TypedTuple<String>> tuples =
+            redisTemplate.opsForZSet().reverseRangeWithScores(key, start, stop);
+        return tuples != null ? new ArrayList<>(tuples) : new ArrayList<>();
+    }
+
+    /**
+     * Neighbourhood (rank ± k) without reading from the top:
+     * the k entries just above the user are among each shard's k closest above (ZRANGEBYSCORE),
+     * the entries from the user down are among each shard's k + 2 closest at or below (ZREVRANGEBYSCORE)
+     */
+    private LeaderboardPageResponse loadShardedNeighbourhood(Long userId, int k) {
+        Double score = redisTemplate.opsForZSet().score(globalBoardKey(userId), userId.toString());
+        if (score == null) {
+            log.debug("User {} not found in leaderboard", userId);
+            return null;
+        }
+
+        long rank = countAbove(score);
+        double aboveMin = score + 1;
+        List<ZSetOperations.TypedTuple<String>> above = new ArrayList<>();
+        List<ZSetOperations.TypedTuple<String>> below = new ArrayList<>();
+        for (int shard = 0; shard < shards.getCount(); shard++) {
+            String key = shards.boardKey(shard);
+            Set<ZSetOperations.TypedTuple<String>> closestAbove =
+                redisTemplate.opsForZSet().rangeByScoreWithScores(key, aboveMin, Double.MAX_VALUE, 0, k);
+            Set<ZSetOperations.TypedTuple<String>> closestBelow =
+                redisTemplate.opsForZSet().reverseRangeByScoreWithScores(key, -Double.MAX_VALUE, score, 0, k + 2);
+            if (closestAbove != null) {
+                above.addAll(closestAbove);
+            }
+            if (closestBelow != null) {
+                below.addAll(closestBelow);
+            }
+        }
+
+        // Global order (highest first), keep the k closest above and k + 1 from the user down
+        above.sort(LeaderboardShards.ORDER);
+        below.sort(LeaderboardShards.ORDER);
+        List<ZSetOperations.TypedTuple<String>> window = new ArrayList<>(
+            above.subList(Math.max(above.size() - k, 0), above.size()));
+        long start = rank - window.size();
+        boolean hasMore = below.size() > k + 1;
+        window.addAll(below.subList(0, Math.min(below.size(), k + 1)));
+
+        List<LeaderboardResponse> entries = toEntries(window, start + 1);
+        return LeaderboardPageResponse.builder()
+            .entries(entries)
+            .fromRank(entries.isEmpty() ? null : start + 1)
+            .toRank(entries.isEmpty() ? null : start + entries.size())
+            .nextCursor(hasMore ? start + entries.size() + 1 : null)
+            .build();
+    }
+
+    /**
+     * Group board in sharded mode: the members' composite scores are read with one ZMSCORE per shard and
+     * cached in the group board (ZADD + PEXPIRE), instead of a ZINTERSTORE across keys of different slots
+     */
+    private List<LeaderboardResponse> readShardedGroupRange(String groupId, long start, long stop) {
+        String boardKey = groupKey(groupId, "board");
+        if (!Boolean.TRUE.equals(redisTemplate.hasKey(boardKey))) {
+            Set<String> members = redisTemplate.opsForSet().members(groupKey(groupId, "members"));
+            Map<Integer, List<String>> byShard = new HashMap<>();
+            if (members != null) {
+                members.forEach(member ->
+                    byShard.computeIfAbsent(shards.shardOf(Long.parseLong(member)), shard -> new ArrayList<>())
+                        .add(member));
+            }
+
+            Set<ZSetOperations.TypedTuple<String>> tuples = new HashSet<>();
+            byShard.forEach((shard, ids) -> {
+                List<Double> scores = redisTemplate.opsForZSet().score(shards.boardKey(shard), ids.toArray());
+                for (int i = 0; i < ids.size(); i++) {
+                    if (scores != null && scores.get(i) != null) {
+                        tuples.add(ZSetOperations.TypedTuple.of(ids.get(i), scores.get(i)));
+                    }
                 }
+            });
+
+            if (!tuples.isEmpty()) {
+                redisTemplate.opsForZSet().add(boardKey, tuples);
+                redisTemplate.expire(boardKey, groupBoardTtlMs, TimeUnit.MILLISECONDS);
             }
         }
+        return toEntries(reverseRangeWithScores(boardKey, start, stop), start + 1);
+    }
 
-        return usernameMap;
+    /**
+     * Ranked entries from (member, composite score) tuples of the global or a group board, names in one HMGET
+     */
+    private List<LeaderboardResponse> toEntries(List<ZSetOperations.TypedTuple<String>> tuples, long firstRank) {
+        if (tuples.isEmpty()) {
+            return new ArrayList<>();
+        }
+
+        List<Object> members = new ArrayList<>(tuples.size());
+        tuples.forEach(tuple -> members.add(tuple.getValue()));
+        List<Object> names = redisTemplate.opsForHash().multiGet(NAMES_KEY, members);
+
+        List<Object> flat = new ArrayList<>(tuples.size() * 3);
+        for (int i = 0; i < tuples.size(); i++) {
+            flat.add(tuples.get(i).getValue());
+            flat.add(tuples.get(i).getScore());
+            flat.add(names.get(i));
+        }
+        return parseRange(flat, firstRank - 1, true);
+    }
+
+    // ==================== LOCAL FALLBACK ====================
+
+    private boolean useLocalFallback() {
+        return System.currentTimeMillis() < redisRetryAt && localLeaderboard.isReady();
+    }
+
+    private void markRedisUnavailable(DataAccessException e) {
+        if (System.currentTimeMillis() >= redisRetryAt) {
+            log.warn("⚠️ Redis unavailable ({}), serving leaderboard from the local board for {}ms",
+                e.getMessage(), REDIS_RETRY_INTERVAL_MS);
+        }
+        redisRetryAt = System.currentTimeMillis() + REDIS_RETRY_INTERVAL_MS;
+    }
+
+    private LeaderboardPageResponse localNeighbourhood(Long userId, int k) {
+        LeaderboardResponse entry = localLeaderboard.getUserRank(userId);
+        if (entry == null) {
+            return null;
+        }
+        long rank = entry.getRank() - 1L;
+        long start = Math.max(rank - k, 0);
+        int count = (int) (rank + k - start + 1);
+        return toPage(localLeaderboard.getRange(start, count + 1), start, count);
+    }
+
+    private Long localPosition(Long userId) {
+        LeaderboardResponse entry = localLeaderboard.getUserRank(userId);
+        return entry != null ? entry.getRank().longValue() : null;
+    }
+
+    /**
+     * Apply summed points to today's daily board and the current season board
+     */
+    private void writeWindowPoints(Map<Long, Integer> points) {
+        LocalDate today = today();
+        List<String> keys = List.of(dailyKey(today), SEASON_LIVE_KEY);
+        String seasonTtl = String.valueOf(TimeUnit.DAYS.toSeconds(seasonLengthDays + WEEKLY_DAYS));
+
+        List<Map.Entry<Long, Integer>> entries = new ArrayList<>(points.entrySet());
+        for (int from = 0; from < entries.size(); from += WRITE_BATCH_SIZE) {
+            List<Map.Entry<Long, Integer>> chunk = entries.subList(from, Math.min(from + WRITE_BATCH_SIZE, entries.size()));
+
+            List<String> args = new ArrayList<>(2 + chunk.size() * 2);
+            args.add(String.valueOf(DAILY_TTL));
+            args.add(seasonTtl);
+            for (Map.Entry<Long, Integer> entry : chunk) {
+                args.add(entry.getKey().toString());
+                args.add(entry.getValue().toString());
+            }
+
+            redisTemplate.execute(WINDOW_INCREMENT_SCRIPT, keys, args.toArray());
+        }
+    }
+
+    /**
+     * Format: leaderboard:group:{groupId}:suffix (hash tag: every key of one group script in the same cluster slot)
+     */
+    private static String groupKey(String groupId, String suffix) {
+        if (groupId == null || !GROUP_ID_PATTERN.matcher(groupId).matches()) {
+            throw new IllegalArgumentException("Group id must be 1-64 letters, digits, '_' or '-'");
+        }
+        return GROUP_KEY_PREFIX + "{" + groupId + "}:" + suffix;
+    }
+
+    /**
+     * Sorted set holding the given window
+     * Daily/season keys roll over by date in leaderboard.window.zone
+     */
+    private String boardKey(LeaderboardWindow window) {
+        return switch (window) {
+            case GLOBAL -> LEADERBOARD_KEY;
+            case DAILY -> dailyKey(today());
+            case WEEKLY -> WEEKLY_KEY;
+            case SEASON -> SEASON_LIVE_KEY;
+        };
+    }
+
+    private LocalDate today() {
+        return LocalDate.now(ZoneId.of(windowZone));
+    }
+
+    /**
+     * Format: leaderboard:daily:{yyyyMMdd}
+     */
+    private String dailyKey(LocalDate day) {
+        return DAILY_KEY_PREFIX + day.format(DateTimeFormatter.BASIC_ISO_DATE);
+    }
+
+    /**
+     * Format: leaderboard:season:archive:{number}
+     */
+    private static String seasonArchiveKey(long season) {
+        return SEASON_ARCHIVE_PREFIX + season;
+    }
+
+    /**
+     * Current season as {number, start epoch day}
+     * First use: derived from leaderboard.season.start-date (seasons of length-days since then),
+     * afterwards only moved by rollovers
+     */
+    private long[] seasonState() {
+        List<Object> meta = redisTemplate.opsForHash().multiGet(SEASON_META_KEY, List.of("number", "startedAt"));
+        if (meta.get(0) == null || meta.get(1) == null) {
+            LocalDate firstStart = LocalDate.parse(seasonStartDate);
+            long number = Math.floorDiv(ChronoUnit.DAYS.between(firstStart, today()), seasonLengthDays);
+            long startedAt = firstStart.plusDays(number * seasonLengthDays).toEpochDay();
+
+            // Same values on every node, whoever gets there first
+            redisTemplate.opsForHash().putIfAbsent(SEASON_META_KEY, "number", String.valueOf(number));
+            redisTemplate.opsForHash().putIfAbsent(SEASON_META_KEY, "startedAt", String.valueOf(startedAt));
+            meta = redisTemplate.opsForHash().multiGet(SEASON_META_KEY, List.of("number", "startedAt"));
+        }
+        return new long[] {Long.parseLong(meta.get(0).toString()), Long.parseLong(meta.get(1).toString())};
+    }
+
+    /**
+     * Archive season n and start season n + 1 at the given day, then export the archive to MySQL
+     *
+     * @return Closed season number, or -1 if another node closed it first
+     */
+    private long rolloverSeason(long season, long nextStartEpochDay) {
+        // Coalesced points still in memory belong to the closing season
+        flushPendingUpdates();
+
+        String archiveKey = seasonArchiveKey(season);
+        Long archived = redisTemplate.execute(SEASON_ROLLOVER_SCRIPT,
+            List.of(SEASON_LIVE_KEY, SEASON_META_KEY, archiveKey),
+            String.valueOf(season),
+            String.valueOf(nextStartEpochDay),
+            String.valueOf(TimeUnit.DAYS.toSeconds(seasonArchiveRetentionDays)));
+
+        if (archived == null || archived < 0) {
+            log.info("Season {} already closed by another node", season);
+            return -1;
+        }
+
+        log.info("🏁 Season {} closed: {} entries archived to {}, season {} started", season, archived, archiveKey, season + 1);
+        if (archived > 0) {
+            exportSeason(season, archiveKey);
+        }
+        return season;
+    }
+
+    /**
+     * Cache key of the current version of a top-L page
+     * Format: leaderboard:cache:top:{limit}:v{version}
+     */
+    private String buildCacheKey(int limit) {
+        return LEADERBOARD_CACHE_KEY + ":" + limit + ":v" + getBoardVersion(limit);
+    }
+
+    /**
+     * Bump the version of every cached page whose limit is greater than the given 0-based rank
+     */
+    private void invalidatePagesFromRank(long rank) {
+        boolean bumped = false;
+        for (int shard = 0; shard < shards.getCount(); shard++) {
+            Set<String> limits = redisTemplate.opsForSet().members(shards.limitsKey(shard));
+            if (limits == null) {
+                continue;
+            }
+            for (String limit : limits) {
+                if (rank < Long.parseLong(limit)) {
+                    redisTemplate.opsForHash().increment(shards.versionKey(shard), limit, 1);
+                    bumped = true;
+                }
+            }
+        }
+        if (bumped) {
+            redisTemplate.convertAndSend(UPDATES_CHANNEL, String.valueOf(rank));
+        }
+    }
+
+    /**
+     * Register a cached top-L page with every shard, so a write to any shard can bump its version
+     */
+    private void registerCachedLimit(int limit) {
+        for (int shard = 0; shard < shards.getCount(); shard++) {
+            redisTemplate.opsForSet().add(shards.limitsKey(shard), String.valueOf(limit));
+        }
     }
 
     /**
@@ -327,18 +1511,25 @@ public class LeaderboardServiceImpl implements ILeaderboardService {
     private List<LeaderboardResponse> loadLeaderboardFromDB(int limit) {
         log.info("Loading leaderboard from database (fallback)");
 
-        List<User> allUsers = userRepository.findAllByOrderByScoreDesc();
-        List<User> topUsers = allUsers.stream()
-            .limit(limit)
-            .collect(Collectors.toList());
+        // LIMIT in the query, only (id, username, score) loaded
+        List<UserScoreView> topUsers = userRepository.findTopScores(PageRequest.of(0, limit));
+        topUsers.forEach(user -> localLeaderboard.update(user.getId(), user.getUsername(), user.getScore(),
+            LeaderboardScoreCodec.tiebreak(user.getScoreAchievedAt())));
 
         List<LeaderboardResponse> leaderboard = new ArrayList<>();
 
-        int rank = 1;
-        for (User user : topUsers) {
-            // Populate Redis while loading
-            updateScore(user.getId(), user.getUsername(), user.getScore());
+        // Populate Redis while loading (direct batch write, bypasses coalescing)
+        try {
+            writeScores(topUsers.stream()
+                .map(user -> new PendingScore(user.getId(), user.getUsername(), user.getScore(),
+                    LeaderboardScoreCodec.tiebreak(user.getScoreAchievedAt())))
+                .collect(Collectors.toList()));
+        } catch (Exception e) {
+            log.error("Failed to populate leaderboard from DB fallback: {}", e.getMessage());
+        }
 
+        int rank = 1;
+        for (UserScoreView user : topUsers) {
             leaderboard.add(LeaderboardResponse.builder()
                 .rank(rank++)
                 .userId(user.getId())
@@ -349,4 +1540,11 @@ public class LeaderboardServiceImpl implements ILeaderboardService {
 
         return leaderboard;
     }
+
+    /**
+     * Latest known score of a user waiting to be flushed
+     * tiebreak: achieved-at part of the composite score, only used if the score changed
+     */
+    private record PendingScore(Long userId, String username, Integer score, long tiebreak) {
+    }
 }
@@ -0,0 +1,172 @@
+package com.numbergame.gamenumber.service.impl;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.numbergame.gamenumber.dto.LeaderboardSnapshot;
+import com.numbergame.gamenumber.dto.response.ApiResponse;
+import com.numbergame.gamenumber.dto.response.LeaderboardResponse;
+import com.numbergame.gamenumber.service.ILeaderboardService;
+import com.numbergame.gamenumber.service.ILeaderboardSnapshotService;
+import com.numbergame.gamenumber.service.IUserService;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.zip.CRC32;
+
+/**
+ * In-memory top-N leaderboard snapshot
+ *
+ * Strategy:
+ * - Each node holds one immutable snapshot (entries + pre-serialized JSON) in a volatile field
+ * - Score updates that change the top-N publish on leaderboard:updates -> snapshot rebuilt once
+ * - A scheduled refresh bounds staleness if a notification is missed
+ * - Concurrent refresh requests are coalesced: a request arriving during a rebuild marks the
+ *   snapshot pending and the running rebuild loops once more, so the last change is never dropped
+ * - Cold start: the first snapshot is built by one request, concurrent requests wait for it
+ * - Each snapshot carries a weak ETag (board version + entries fingerprint) for conditional GETs
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class LeaderboardSnapshotServiceImpl implements ILeaderboardSnapshotService {
+
+    private final IUserService userService;
+    private final ILeaderboardService leaderboardService;
+    private final ObjectMapper objectMapper;
+    private final RedisMessageListenerContainer listenerContainer;
+
+    // Same page as IUserService#getLeaderboard (public GET /leaderboard)
+    private static final int SNAPSHOT_SIZE = 10;
+
+    private volatile LeaderboardSnapshot snapshot;
+    private final AtomicBoolean refreshing = new AtomicBoolean();
+    private final AtomicBoolean pending = new AtomicBoolean();
+    private final AtomicReference<CompletableFuture<LeaderboardSnapshot>> firstBuild = new AtomicReference<>();
+
+    @PostConstruct
+    public void subscribe() {
+        listenerContainer.addMessageListener((message, pattern) -> {
+            long affectedRank = Long.parseLong(new String(message.getBody(), StandardCharsets.UTF_8));
+            if (affectedRank < SNAPSHOT_SIZE) {
+                log.debug("Top {} changed at rank {}, refreshing snapshot", SNAPSHOT_SIZE, affectedRank + 1);
+                refresh();
+            }
+        }, new ChannelTopic(LeaderboardServiceImpl.UPDATES_CHANNEL));
+    }
+
+    @Override
+    public LeaderboardSnapshot getSnapshot() {
+        LeaderboardSnapshot current = snapshot;
+        return current != null ? current : buildFirstSnapshot();
+    }
+
+    /**
+     * First requests on this node: one builds, the others wait for its snapshot instead of all
+     * reading the board at once. A failed build fails the waiting requests too; the next one retries.
+     */
+    private LeaderboardSnapshot buildFirstSnapshot() {
+        CompletableFuture<LeaderboardSnapshot> flight = new CompletableFuture<>();
+        CompletableFuture<LeaderboardSnapshot> leader = firstBuild.compareAndExchange(null, flight);
+        if (leader != null) {
+            try {
+                return leader.join();
+            } catch (CompletionException e) {
+                throw e.getCause() instanceof RuntimeException cause ? cause : e;
+            }
+        }
+
+        try {
+            // Built meanwhile by a refresh or by a leader that just finished
+            LeaderboardSnapshot current = snapshot;
+            if (current == null) {
+                current = build();
+                snapshot = current;
+            }
+            flight.complete(current);
+            return current;
+        } catch (RuntimeException e) {
+            flight.completeExceptionally(e);
+            throw e;
+        } finally {
+            firstBuild.set(null);
+        }
+    }
+
+    /**
+     * Bounded staleness: rebuild even if a notification was missed
+     */
+    @Scheduled(fixedDelayString = "${leaderboard.snapshot.max-staleness-ms:5000}")
+    public void scheduledRefresh() {
+        refresh();
+    }
+
+    @Override
+    public void refresh() {
+        // Coalesce: a rebuild already running sees the flag and builds again once it is done
+        pending.set(true);
+
+        // Re-check after releasing: a request may have set the flag just before refreshing was cleared
+        while (pending.get() && refreshing.compareAndSet(false, true)) {
+            try {
+                while (pending.getAndSet(false)) {
+                    rebuild();
+                }
+            } finally {
+                refreshing.set(false);
+            }
+        }
+    }
+
+    private void rebuild() {
+        try {
+            snapshot = build();
+        } catch (Exception e) {
+            // Keep serving the previous snapshot
+            log.error("Failed to refresh leaderboard snapshot: {}", e.getMessage());
+        }
+    }
+
+    private LeaderboardSnapshot build() {
+        // Read version first: a change racing with the build yields a newer version and another refresh
+        long version = leaderboardService.getBoardVersion(SNAPSHOT_SIZE);
+        List<LeaderboardResponse> entries = List.copyOf(userService.getLeaderboard());
+
+        byte[] json;
+        try {
+            json = objectMapper.writeValueAsBytes(ApiResponse.success(entries));
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Failed to serialize leaderboard snapshot", e);
+        }
+
+        log.debug("Leaderboard snapshot v{} built: {} entries, {} bytes", version, entries.size(), json.length);
+        return new LeaderboardSnapshot(version, etag(version, entries), entries, json, System.currentTimeMillis());
+    }
+
+    /**
+     * Same on every node for the same board: the version comes from Redis and only moves when
+     * the top-N composition or scores change. The fingerprint of (userId, score) guards against
+     * a version that restarted from 0 after a Redis flush. Weak, because percentiles may drift
+     * between two rebuilds with the same board.
+     */
+    private static String etag(long version, List<LeaderboardResponse> entries) {
+        CRC32 crc = new CRC32();
+        for (LeaderboardResponse entry : entries) {
+            crc.update(String.valueOf(entry.getUserId()).getBytes(StandardCharsets.UTF_8));
+            crc.update(':');
+            crc.update(String.valueOf(entry.getScore()).getBytes(StandardCharsets.UTF_8));
+            crc.update(';');
+        }
+        return "W/\"" + version + "-" + Long.toHexString(crc.getValue()) + "\"";
+    }
+}
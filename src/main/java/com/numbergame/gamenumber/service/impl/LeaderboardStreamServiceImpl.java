@@ -0,0 +1,291 @@
+package com.numbergame.gamenumber.service.impl;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.numbergame.gamenumber.dto.LeaderboardSnapshot;
+import com.numbergame.gamenumber.dto.response.LeaderboardDiffEntry;
+import com.numbergame.gamenumber.dto.response.LeaderboardDiffResponse;
+import com.numbergame.gamenumber.dto.response.LeaderboardResponse;
+import com.numbergame.gamenumber.service.ILeaderboardSnapshotService;
+import com.numbergame.gamenumber.service.ILeaderboardStreamService;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Leaderboard diffs over Server-Sent Events
+ *
+ * Strategy:
+ * - Subscribe: current top-N snapshot sent once ("snapshot" event, same bytes as GET /leaderboard)
+ * - Every leaderboard.stream.interval-ms: compare the in-memory snapshot with the last broadcast one,
+ *   compute the diff once, serialize it once, fan it out to all subscribers ("diff" event)
+ * - Changes between two ticks are coalesced into one diff
+ * - Heartbeat comments keep proxies from closing idle streams and drop dead connections
+ * - SseEmitter = async servlet request, no thread per idle connection; sends run on virtual
+ *   threads so a slow client never delays the others
+ * - Per-subscriber mailbox holding only the latest pending event, drained by one sender at a time
+ *   (events stay in order). A diff replaced before it was sent is replaced by a full snapshot,
+ *   since diffs only apply on top of the previous one; a client that misses more than
+ *   leaderboard.stream.max-skipped-events in a row is closed and reconnects with a fresh snapshot
+ */
+@Service
+@Slf4j
+public class LeaderboardStreamServiceImpl implements ILeaderboardStreamService {
+
+    private final ILeaderboardSnapshotService snapshotService;
+    private final ObjectMapper objectMapper;
+    private final Executor streamExecutor;
+
+    @Value("${leaderboard.stream.timeout-ms:1800000}")
+    private long emitterTimeoutMs;
+
+    @Value("${leaderboard.stream.max-connections:20000}")
+    private int maxConnections;
+
+    @Value("${leaderboard.stream.max-skipped-events:10}")
+    private int maxSkippedEvents;
+
+    private static final Outgoing PING = new Outgoing(null, null, null);
+
+    private final Map<SseEmitter, Subscriber> subscribers = new ConcurrentHashMap<>();
+
+    // Last snapshot diffed against; only touched by the scheduler thread
+    private LeaderboardSnapshot lastBroadcast;
+
+    public LeaderboardStreamServiceImpl(ILeaderboardSnapshotService snapshotService,
+                                        ObjectMapper objectMapper,
+                                        @Qualifier("leaderboardStreamExecutor") Executor streamExecutor) {
+        this.snapshotService = snapshotService;
+        this.objectMapper = objectMapper;
+        this.streamExecutor = streamExecutor;
+    }
+
+    @Override
+    public SseEmitter subscribe() {
+        if (subscribers.size() >= maxConnections) {
+            log.warn("⚠️ Leaderboard stream full ({} subscribers), rejecting", subscribers.size());
+            return null;
+        }
+
+        SseEmitter emitter = new SseEmitter(emitterTimeoutMs);
+        emitter.onCompletion(() -> subscribers.remove(emitter));
+        emitter.onTimeout(() -> subscribers.remove(emitter));
+        emitter.onError(e -> subscribers.remove(emitter));
+        Subscriber subscriber = new Subscriber(emitter);
+        subscribers.put(emitter, subscriber);
+
+        // Goes through the mailbox too: a diff broadcast meanwhile is ordered after it (or folded into it)
+        deliver(subscriber, snapshotEvent(snapshotService.getSnapshot()), null);
+        return emitter;
+    }
+
+    @Override
+    @Scheduled(fixedDelayString = "${leaderboard.stream.interval-ms:1000}")
+    public int broadcastChanges() {
+        LeaderboardSnapshot current = snapshotService.getSnapshot();
+        LeaderboardSnapshot previous = lastBroadcast;
+        lastBroadcast = current;
+
+        if (previous == null || previous == current || subscribers.isEmpty()) {
+            return 0;
+        }
+
+        LeaderboardDiffResponse diff = diff(previous.getEntries(), current.getEntries(), current.getVersion());
+        if (diff.getChanged().isEmpty() && diff.getRemoved().isEmpty()) {
+            return 0;
+        }
+
+        // One serialization per tick, whatever the number of subscribers
+        String json;
+        try {
+            json = objectMapper.writeValueAsString(diff);
+        } catch (JsonProcessingException e) {
+            log.error("Failed to serialize leaderboard diff: {}", e.getMessage());
+            return 0;
+        }
+
+        Outgoing diffEvent = new Outgoing("diff", String.valueOf(current.getVersion()), json);
+        Outgoing resync = snapshotEvent(current);
+        int recipients = 0;
+        for (Subscriber subscriber : subscribers.values()) {
+            if (deliver(subscriber, diffEvent, resync)) {
+                recipients++;
+            }
+        }
+
+        log.debug("Leaderboard diff v{} ({} changed, {} removed) sent to {} subscribers",
+            current.getVersion(), diff.getChanged().size(), diff.getRemoved().size(), recipients);
+        return recipients;
+    }
+
+    /**
+     * Comment line every N ms: keeps idle streams open through proxies and detects closed clients
+     */
+    @Scheduled(fixedDelayString = "${leaderboard.stream.heartbeat-ms:25000}")
+    public void heartbeat() {
+        for (Subscriber subscriber : subscribers.values()) {
+            // Only to idle streams: any pending event keeps the connection busy anyway
+            if (subscriber.mailbox.compareAndSet(null, PING)) {
+                schedule(subscriber);
+            }
+        }
+    }
+
+    @Override
+    public int getSubscriberCount() {
+        return subscribers.size();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        // Clients reconnect (EventSource retries) to another node
+        subscribers.keySet().forEach(SseEmitter::complete);
+        subscribers.clear();
+    }
+
+    /**
+     * Put an event in the subscriber's mailbox, replacing whatever was still pending
+     * @param resync Sent instead when an unsent diff or snapshot gets replaced (null for the first snapshot)
+     * @return false if the subscriber was closed for falling behind
+     */
+    private boolean deliver(Subscriber subscriber, Outgoing event, Outgoing resync) {
+        // One atomic step: drain() never sees the diff standing in for an unsent event it depends on
+        Outgoing replaced = subscriber.mailbox.getAndUpdate(
+            pending -> pending != null && pending != PING && resync != null ? resync : event);
+        if (replaced != null && replaced != PING && resync != null) {
+            // The client never got the previous state, so it gets the full snapshot instead of the diff
+            if (subscriber.skipped.incrementAndGet() > maxSkippedEvents) {
+                log.info("Leaderboard stream subscriber {} events behind, closing", subscriber.skipped.get());
+                close(subscriber);
+                return false;
+            }
+        }
+        schedule(subscriber);
+        return true;
+    }
+
+    private void schedule(Subscriber subscriber) {
+        if (subscriber.sending.compareAndSet(false, true)) {
+            streamExecutor.execute(() -> drain(subscriber));
+        }
+    }
+
+    /**
+     * Single sender per subscriber: events leave in mailbox order, one blocked socket holds one virtual thread
+     */
+    private void drain(Subscriber subscriber) {
+        try {
+            Outgoing event;
+            while ((event = subscriber.mailbox.getAndSet(null)) != null) {
+                if (!send(subscriber, event)) {
+                    return;
+                }
+                subscriber.skipped.set(0);
+            }
+        } finally {
+            subscriber.sending.set(false);
+        }
+
+        // An event offered while the flag was still set would otherwise wait for the next tick
+        if (subscriber.mailbox.get() != null) {
+            schedule(subscriber);
+        }
+    }
+
+    private boolean send(Subscriber subscriber, Outgoing event) {
+        try {
+            subscriber.emitter.send(event.toEvent());
+            return true;
+        } catch (IOException | IllegalStateException e) {
+            // Client gone or emitter already completed; the container finishes the request
+            subscribers.remove(subscriber.emitter);
+            return false;
+        }
+    }
+
+    private void close(Subscriber subscriber) {
+        subscribers.remove(subscriber.emitter);
+        subscriber.mailbox.set(null);
+        subscriber.emitter.complete();
+    }
+
+    private static Outgoing snapshotEvent(LeaderboardSnapshot snapshot) {
+        return new Outgoing("snapshot", String.valueOf(snapshot.getVersion()),
+            new String(snapshot.getJson(), StandardCharsets.UTF_8));
+    }
+
+    private static LeaderboardDiffResponse diff(List<LeaderboardResponse> before,
+                                                List<LeaderboardResponse> after, long version) {
+        Map<Long, LeaderboardResponse> previous = new HashMap<>();
+        for (LeaderboardResponse entry : before) {
+            previous.put(entry.getUserId(), entry);
+        }
+
+        List<LeaderboardDiffEntry> changed = new ArrayList<>();
+        for (LeaderboardResponse entry : after) {
+            LeaderboardResponse old = previous.remove(entry.getUserId());
+            if (old != null && Objects.equals(old.getRank(), entry.getRank())
+                    && Objects.equals(old.getScore(), entry.getScore())) {
+                continue;
+            }
+            changed.add(LeaderboardDiffEntry.builder()
+                .userId(entry.getUserId())
+                .username(entry.getUsername())
+                .rank(entry.getRank())
+                .previousRank(old != null ? old.getRank() : null)
+                .score(entry.getScore())
+                .previousScore(old != null ? old.getScore() : null)
+                .build());
+        }
+
+        // Whatever is left was in the previous top N only
+        return LeaderboardDiffResponse.builder()
+            .version(version)
+            .changed(changed)
+            .removed(new ArrayList<>(previous.keySet()))
+            .build();
+    }
+
+    private static final class Subscriber {
+        private final SseEmitter emitter;
+        private final AtomicReference<Outgoing> mailbox = new AtomicReference<>();
+        private final AtomicBoolean sending = new AtomicBoolean();
+        // Consecutive events replaced before they were sent
+        private final AtomicInteger skipped = new AtomicInteger();
+
+        private Subscriber(SseEmitter emitter) {
+            this.emitter = emitter;
+        }
+    }
+
+    /**
+     * Serialized once per tick and shared by all mailboxes; name == null is a heartbeat comment
+     */
+    private record Outgoing(String name, String id, String json) {
+
+        private SseEmitter.SseEventBuilder toEvent() {
+            if (name == null) {
+                return SseEmitter.event().comment("ping");
+            }
+            return SseEmitter.event().name(name).id(id).data(json, MediaType.APPLICATION_JSON);
+        }
+    }
+}
@@ -0,0 +1,422 @@
+package com.numbergame.gamenumber.service.impl;
+
+import com.numbergame.gamenumber.dto.UserScoreView;
+import com.numbergame.gamenumber.dto.response.LeaderboardResponse;
+import com.numbergame.gamenumber.repository.UserRepository;
+import com.numbergame.gamenumber.service.ILocalLeaderboardService;
+import com.numbergame.gamenumber.utils.LeaderboardScoreCodec;
+import com.numbergame.gamenumber.utils.RankedSkipList;
+import com.numbergame.gamenumber.utils.ScoreHistogram;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.io.*;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * In-JVM leaderboard used as fallback when Redis is unavailable
+ *
+ * Strategy:
+ * - Indexable skip list ordered like the Redis board (score desc, earlier achiever first)
+ *   + id -> entry map, guarded by a read/write lock
+ * - Kept warm by LeaderboardServiceImpl on every score update / rebuild
+ * - Single writer: updates are coalesced per user in a concurrent map and applied in batches by
+ *   whichever caller wins the drain flag, so game threads never wait on the write lock
+ * - Startup: load the snapshot file if younger than snapshot-max-age-minutes, otherwise warm up
+ *   from the DB (keyset pages) in the background
+ * - Snapshot written periodically when changed and on shutdown (temp file + atomic move)
+ * - Score histogram maintained on every insert/move/remove: rank estimate for any score in
+ *   O(buckets), error bounded by the players sharing the score's bucket
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class LocalLeaderboardServiceImpl implements ILocalLeaderboardService {
+
+    private final UserRepository userRepository;
+
+    @Value("${leaderboard.local.enabled:true}")
+    private boolean enabled;
+
+    @Value("${leaderboard.local.snapshot-file:${java.io.tmpdir}/gamenumber-leaderboard.snapshot}")
+    private String snapshotFile;
+
+    @Value("${leaderboard.local.snapshot-max-age-minutes:10}")
+    private long snapshotMaxAgeMinutes;
+
+    @Value("${leaderboard.histogram.bucket-width:10}")
+    private int histogramBucketWidth;
+
+    @Value("${leaderboard.histogram.buckets:1000}")
+    private int histogramBuckets;
+
+    private static final int SNAPSHOT_MAGIC = 0x4C42534E; // "LBSN"
+    private static final int SNAPSHOT_VERSION = 2; // v2: header carries the write time
+    private static final int WARMUP_BATCH_SIZE = 2000;
+    private static final int APPLY_BATCH_SIZE = 1000; // updates per write-lock hold, readers interleave between batches
+
+    // Same order as ZREVRANGE on the composite score; id makes it total
+    private static final Comparator<LocalEntry> ORDER = Comparator
+        .comparingInt(LocalEntry::score).reversed()
+        .thenComparing(Comparator.comparingLong(LocalEntry::tiebreak).reversed())
+        .thenComparingLong(LocalEntry::userId);
+
+    private final RankedSkipList<LocalEntry> board = new RankedSkipList<>(ORDER);
+    private final Map<Long, LocalEntry> entries = new HashMap<>();
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Map<Long, PendingUpdate> pending = new ConcurrentHashMap<>();
+    private final AtomicBoolean draining = new AtomicBoolean();
+    private ScoreHistogram histogram;
+
+    private volatile boolean ready;
+    private volatile boolean dirty;
+
+    @PostConstruct
+    public void init() {
+        histogram = new ScoreHistogram(histogramBucketWidth, histogramBuckets);
+        if (!enabled) {
+            log.info("Local leaderboard fallback disabled");
+            return;
+        }
+
+        if (loadSnapshot()) {
+            ready = true;
+            return;
+        }
+
+        Thread warmup = new Thread(this::warmUpFromDatabase, "LocalLeaderboard-Warmup");
+        warmup.setDaemon(true);
+        warmup.start();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        if (enabled && ready) {
+            saveSnapshot();
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${leaderboard.local.snapshot-interval-ms:60000}")
+    public void scheduledSnapshot() {
+        if (enabled && ready && dirty) {
+            saveSnapshot();
+        }
+    }
+
+    @Override
+    public void update(Long userId, String username, int score, long tiebreak) {
+        if (!enabled) {
+            return;
+        }
+
+        // Latest value per user wins; applied by the current drainer (maybe this thread)
+        pending.put(userId, new PendingUpdate(new LocalEntry(userId, username, score, tiebreak), false));
+        drain();
+    }
+
+    @Override
+    public void remove(Long userId) {
+        if (!enabled) {
+            return;
+        }
+
+        pending.put(userId, new PendingUpdate(new LocalEntry(userId, null, 0, 0L), true));
+        drain();
+    }
+
+    /**
+     * Apply pending updates while nobody else is: one thread takes the write lock, the others
+     * only enqueue and return. Re-checking after releasing the flag picks up updates enqueued
+     * by callers that lost the race during the last batch.
+     */
+    private void drain() {
+        while (!pending.isEmpty() && draining.compareAndSet(false, true)) {
+            try {
+                applyPendingBatch();
+            } finally {
+                draining.set(false);
+            }
+        }
+    }
+
+    private void applyPendingBatch() {
+        lock.writeLock().lock();
+        try {
+            int applied = 0;
+            Iterator<Long> ids = pending.keySet().iterator();
+            while (ids.hasNext() && applied < APPLY_BATCH_SIZE) {
+                PendingUpdate update = pending.remove(ids.next());
+                if (update != null) {
+                    apply(update);
+                    applied++;
+                }
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private void apply(PendingUpdate update) {
+        LocalEntry entry = update.entry();
+        if (update.removed()) {
+            LocalEntry existing = entries.remove(entry.userId());
+            if (existing != null) {
+                board.remove(existing);
+                histogram.remove(existing.score());
+                dirty = true;
+            }
+            return;
+        }
+
+        LocalEntry existing = entries.get(entry.userId());
+        if (existing != null && existing.score() == entry.score() && Objects.equals(existing.username(), entry.username())) {
+            return;
+        }
+
+        // Unchanged score keeps the earlier achieved-at
+        long keptTiebreak = existing != null && existing.score() == entry.score() ? existing.tiebreak() : entry.tiebreak();
+        replace(existing, new LocalEntry(entry.userId(), entry.username(), entry.score(), keptTiebreak));
+    }
+
+    @Override
+    public boolean isReady() {
+        return ready;
+    }
+
+    @Override
+    public List<LeaderboardResponse> getRange(long start, int count) {
+        if (!enabled || start > Integer.MAX_VALUE) {
+            return new ArrayList<>();
+        }
+
+        List<LocalEntry> slice;
+        lock.readLock().lock();
+        try {
+            slice = board.range((int) start, count);
+        } finally {
+            lock.readLock().unlock();
+        }
+
+        List<LeaderboardResponse> result = new ArrayList<>(slice.size());
+        long rank = start + 1;
+        for (LocalEntry entry : slice) {
+            result.add(toResponse(entry, rank++));
+        }
+        return result;
+    }
+
+    @Override
+    public LeaderboardResponse getUserRank(Long userId) {
+        if (!enabled) {
+            return null;
+        }
+
+        lock.readLock().lock();
+        try {
+            LocalEntry entry = entries.get(userId);
+            return entry != null ? toResponse(entry, board.rankOf(entry) + 1L) : null;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public long size() {
+        lock.readLock().lock();
+        try {
+            return entries.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public Long estimateRank(int score) {
+        if (!enabled || !ready) {
+            return null;
+        }
+
+        lock.readLock().lock();
+        try {
+            return histogram.countAbove(score) + 1;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public int saveSnapshot() {
+        List<LocalEntry> copy;
+        lock.readLock().lock();
+        try {
+            copy = board.toList();
+            dirty = false;
+        } finally {
+            lock.readLock().unlock();
+        }
+
+        Path target = Path.of(snapshotFile);
+        Path temp = target.resolveSibling(target.getFileName() + ".tmp");
+        long startTime = System.currentTimeMillis();
+
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(temp)))) {
+            out.writeInt(SNAPSHOT_MAGIC);
+            out.writeInt(SNAPSHOT_VERSION);
+            out.writeLong(System.currentTimeMillis());
+            out.writeInt(copy.size());
+            for (LocalEntry entry : copy) {
+                out.writeLong(entry.userId());
+                out.writeUTF(entry.username());
+                out.writeInt(entry.score());
+                out.writeLong(entry.tiebreak());
+            }
+        } catch (IOException e) {
+            log.error("Failed to write local leaderboard snapshot {}: {}", temp, e.getMessage());
+            dirty = true;
+            return 0;
+        }
+
+        try {
+            // Readers of the file never see a half-written snapshot
+            Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            log.error("Failed to publish local leaderboard snapshot {}: {}", target, e.getMessage());
+            dirty = true;
+            return 0;
+        }
+
+        log.debug("💾 Local leaderboard snapshot: {} entries in {}ms", copy.size(), System.currentTimeMillis() - startTime);
+        return copy.size();
+    }
+
+    /**
+     * Scores keep moving while the node is down (other nodes, batch sync), and the warm-up only fills
+     * users missing from the board, so a snapshot older than snapshot-max-age-minutes is discarded
+     * and the board is rebuilt from the DB instead
+     * @return true if a recent snapshot file was found and loaded
+     */
+    private boolean loadSnapshot() {
+        Path path = Path.of(snapshotFile);
+        if (!Files.isRegularFile(path)) {
+            return false;
+        }
+
+        long startTime = System.currentTimeMillis();
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(path)))) {
+            if (in.readInt() != SNAPSHOT_MAGIC || in.readInt() != SNAPSHOT_VERSION) {
+                log.warn("Ignoring local leaderboard snapshot {} (unknown format)", path);
+                return false;
+            }
+
+            long ageMs = System.currentTimeMillis() - in.readLong();
+            if (ageMs > TimeUnit.MINUTES.toMillis(snapshotMaxAgeMinutes)) {
+                log.info("Ignoring local leaderboard snapshot {} ({} min old, max {}), warming up from database",
+                    path, TimeUnit.MILLISECONDS.toMinutes(ageMs), snapshotMaxAgeMinutes);
+                return false;
+            }
+
+            int count = in.readInt();
+            lock.writeLock().lock();
+            try {
+                for (int i = 0; i < count; i++) {
+                    insertIfAbsent(new LocalEntry(in.readLong(), in.readUTF(), in.readInt(), in.readLong()));
+                }
+            } finally {
+                lock.writeLock().unlock();
+            }
+
+            log.info("✅ Local leaderboard loaded from snapshot: {} entries in {}ms",
+                count, System.currentTimeMillis() - startTime);
+            return true;
+        } catch (IOException e) {
+            log.warn("Failed to read local leaderboard snapshot {}: {}", path, e.getMessage());
+            return false;
+        }
+    }
+
+    /**
+     * Initial load from the DB, keyset-paged projections (no entity loading)
+     * Live updates received meanwhile are newer and win
+     */
+    private void warmUpFromDatabase() {
+        long startTime = System.currentTimeMillis();
+        try {
+            long afterId = 0L;
+            int count = 0;
+
+            while (true) {
+                List<UserScoreView> page =
+                    userRepository.findScoresAfterId(afterId, PageRequest.of(0, WARMUP_BATCH_SIZE));
+                if (page.isEmpty()) {
+                    break;
+                }
+
+                lock.writeLock().lock();
+                try {
+                    for (UserScoreView user : page) {
+                        insertIfAbsent(new LocalEntry(user.getId(), user.getUsername(), user.getScore(),
+                            LeaderboardScoreCodec.tiebreak(user.getScoreAchievedAt())));
+                    }
+                } finally {
+                    lock.writeLock().unlock();
+                }
+
+                afterId = page.get(page.size() - 1).getId();
+                count += page.size();
+            }
+
+            ready = true;
+            dirty = true;
+            log.info("✅ Local leaderboard warmed up from database: {} users in {}ms",
+                count, System.currentTimeMillis() - startTime);
+        } catch (Exception e) {
+            log.error("❌ Local leaderboard warm-up failed: {}", e.getMessage(), e);
+        }
+    }
+
+    private void insertIfAbsent(LocalEntry entry) {
+        if (!entries.containsKey(entry.userId())) {
+            replace(null, entry);
+        }
+    }
+
+    private void replace(LocalEntry existing, LocalEntry entry) {
+        if (existing != null) {
+            board.remove(existing);
+            histogram.move(existing.score(), entry.score());
+        } else {
+            histogram.add(entry.score());
+        }
+        board.add(entry);
+        entries.put(entry.userId(), entry);
+        dirty = true;
+    }
+
+    private static LeaderboardResponse toResponse(LocalEntry entry, long rank) {
+        return LeaderboardResponse.builder()
+            .rank((int) rank)
+            .userId(entry.userId())
+            .username(entry.username())
+            .score(entry.score())
+            .build();
+    }
+
+    private record LocalEntry(long userId, String username, int score, long tiebreak) {
+    }
+
+    private record PendingUpdate(LocalEntry entry, boolean removed) {
+    }
+}
@@ -1,20 +1,51 @@
 package com.numbergame.gamenumber.service.impl;
 
-import com.fasterxml.jackson.core.JsonProcessingException;
-import com.fasterxml.jackson.databind.ObjectMapper;
+import com.numbergame.gamenumber.dto.GuessOutcome;
+import com.numbergame.gamenumber.dto.PlayerStats;
+import com.numbergame.gamenumber.dto.UserGameState;
 import com.numbergame.gamenumber.dto.response.LeaderboardResponse;
-import com.numbergame.gamenumber.dto.response.UserInfoResponse;
 import com.numbergame.gamenumber.entity.User;
+import com.numbergame.gamenumber.enums.LeaderboardMetric;
+import com.numbergame.gamenumber.exception.custom.ResourceNotFoundException;
 import com.numbergame.gamenumber.repository.UserRepository;
 import com.numbergame.gamenumber.service.ILeaderboardService;
 import com.numbergame.gamenumber.service.IRedisService;
+import com.numbergame.gamenumber.utils.UserKeyLayout;
+import com.numbergame.gamenumber.utils.UserStateCache;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.data.redis.connection.SubscriptionListener;
+import org.springframework.data.redis.core.RedisCallback;
 import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
 import org.springframework.stereotype.Service;
-
+import org.springframework.util.StreamUtils;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
+import java.util.Properties;
 import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.TimeUnit;
 
 /**
@@ -22,9 +53,21 @@ import java.util.concurrent.TimeUnit;
  *
  * Performance optimizations:
  * - User data in Redis Hash (O(1) access)
+ * - Score, turns and loss streak in one state hash per user: one key, one HMGET per read,
+ *   HINCRBY + TTL refresh in one script (one round-trip) per write, refused while the hash is not cached
+ * - Optional bucketed layout (game.state.bucketed): users share small listpack-encoded hashes
+ *   instead of one key each, several times fewer bytes per user; a bucket holding unsynced users
+ *   has no TTL (never expired, never evicted under volatile-*) until the batch sync persisted them
  * - Atomic operations for score/turns
  * - Batch sync to reduce DB I/O by 90%
  * - Auto-expiration to prevent memory bloat
+ * - Whole guess applied by one server-side script (EVALSHA, 1 round-trip)
+ * - Metric boards (games, win rate, best streak) updated by the same script
+ * - Near-cache (L1) of score/turns/streak per node, primitive arrays, invalidated on every write
+ *   through Redis pub/sub (published by the same script/pipeline as the write) + a short TTL
+ * - Single-flight cache-miss loading: one DB read per user per node, concurrent misses wait for it;
+ *   seeded with HSETNX so a write landing between the miss and the seed is never overwritten, and
+ *   every write script refuses to run on an uncached hash, so a bare delta never replaces the DB value
  */
 @Service
 @RequiredArgsConstructor
@@ -35,145 +78,711 @@ public class RedisServiceImpl implements IRedisService {
     private final RedisTemplate<String, Object> objectRedisTemplate;
     private final UserRepository userRepository;
     private final ILeaderboardService leaderboardService;
-    private final ObjectMapper objectMapper;
+    private final RedisMessageListenerContainer listenerContainer;
+    private final MeterRegistry meterRegistry;
+
+    // Published with the userId by every state write (scripts included), consumed by the near-caches
+    public static final String STATE_CHANNEL = "user:state:changed";
 
     // Redis key patterns
-    private static final String USER_INFO_KEY = "user:info:";
-    private static final String USER_SCORE_KEY = "user:score:";
-    private static final String USER_TURNS_KEY = "user:turns:";
+    private static final String USER_ID_KEY = "user:id:";
+    private static final String USER_STATE_KEY = "user:state:";
     private static final String DIRTY_USERS_SET = "dirty:users";
+    private static final String PLAYER_STATS_KEY = "player:stats:";
+
+    // Fields of the user state hash (see scripts/guess.lua)
+    private static final String FIELD_SCORE = "score";
+    private static final String FIELD_TURNS = "turns";
+    private static final String FIELD_STREAK = "streak";
+    private static final String FIELD_VERSION = "version";
+    private static final String FIELD_ACHIEVED = "achieved"; // epoch second the score was reached
+    private static final int STATE_FIELDS_PER_USER = 5;
+
+    // Fields of the player counters hash (see scripts/lib/player-metrics.lua)
+    private static final String FIELD_GAMES = "games";
+    private static final String FIELD_WINS = "wins";
+    private static final String FIELD_WIN_STREAK = "winStreak";
+    private static final String FIELD_BEST_STREAK = "bestStreak";
 
     // TTL settings
-    private static final long USER_INFO_TTL = 3600; // 1 hour
+    private static final long USER_ID_TTL = 604800; // 7 days (username -> id never changes)
     private static final long GAME_DATA_TTL = 86400; // 24 hours
 
-    // ==================== USER CACHE ====================
+    // Script status codes (see scripts/guess.lua)
+    private static final long SCRIPT_OK = 1;
+    private static final long SCRIPT_INSUFFICIENT_TURNS = -1;
+    private static final long SCRIPT_CACHE_MISS = -2;
+
+    // Prepended to the scripts using them (see withLibraries)
+    private static final String STATE_TTL_LIBRARY = "scripts/lib/state-ttl.lua";
+    private static final String METRICS_LIBRARY = "scripts/lib/player-metrics.lua";
+
+    // Loaded once at startup, executed via EVALSHA (falls back to EVAL on NOSCRIPT)
+    @SuppressWarnings("rawtypes")
+    private static final RedisScript<List> GUESS_SCRIPT =
+        withLibraries("scripts/guess.lua", List.class, STATE_TTL_LIBRARY, METRICS_LIBRARY);
+    private static final RedisScript<Long> DECREMENT_TURNS_SCRIPT =
+        withLibraries("scripts/decrement-turns.lua", Long.class, STATE_TTL_LIBRARY);
+    private static final RedisScript<Long> COMPARE_AND_SET_STREAK_SCRIPT =
+        withLibraries("scripts/compare-and-set-streak.lua", Long.class, STATE_TTL_LIBRARY);
+    private static final RedisScript<Long> RECORD_STREAK_SCRIPT =
+        withLibraries("scripts/record-streak.lua", Long.class, STATE_TTL_LIBRARY);
+    private static final RedisScript<Long> PLAYER_METRICS_SCRIPT =
+        withLibraries("scripts/player-metrics.lua", Long.class, STATE_TTL_LIBRARY, METRICS_LIBRARY);
+    @SuppressWarnings("rawtypes")
+    private static final RedisScript<List> INCREMENT_STATE_SCRIPT =
+        withLibraries("scripts/increment-state.lua", List.class, STATE_TTL_LIBRARY);
+    @SuppressWarnings("rawtypes")
+    private static final RedisScript<List> SEED_STATE_SCRIPT =
+        withLibraries("scripts/seed-state.lua", List.class, STATE_TTL_LIBRARY);
+    @SuppressWarnings("rawtypes")
+    private static final RedisScript<List> MIGRATE_STATE_SCRIPT =
+        withLibraries("scripts/migrate-state.lua", List.class, STATE_TTL_LIBRARY);
+    private static final RedisScript<Long> RELEASE_STATE_BUCKET_SCRIPT =
+        RedisScript.of(new ClassPathResource("scripts/release-state-bucket.lua"), Long.class);
+
+    @Value("${leaderboard.metric.win-rate-min-games:20}")
+    private int winRateMinGames;
+
+    @Value("${game.state.bucketed:false}")
+    private boolean bucketedState;
+
+    @Value("${game.state.bucket-size:256}")
+    private int stateBucketSize;
+
+    @Value("${game.state.legacy-fallback:false}")
+    private boolean legacyFallback;
+
+    @Value("${game.state.near-cache.enabled:true}")
+    private boolean nearCacheEnabled;
+
+    @Value("${game.state.near-cache.capacity:100000}")
+    private int nearCacheCapacity;
+
+    @Value("${game.state.near-cache.ttl-seconds:30}")
+    private int nearCacheTtlSeconds;
+
+    private UserKeyLayout layout;
+    private UserKeyLayout previousLayout; // null unless legacy-fallback is on
+    private UserStateCache nearCache; // null when disabled
+
+    // Cache-miss loads in progress on this node, one per user
+    private final Map<Long, CompletableFuture<UserGameState>> inFlightLoads = new ConcurrentHashMap<>();
+    private Counter databaseLoads;
+    private Counter coalescedLoads;
+    private Counter migratedLoads;
+
+    @PostConstruct
+    public void initLayout() {
+        layout = new UserKeyLayout(bucketedState, stateBucketSize);
+        if (legacyFallback) {
+            // Cutover after flipping game.state.bucketed: misses look in the other layout before the DB
+            previousLayout = new UserKeyLayout(!bucketedState, stateBucketSize);
+            log.info("Legacy state fallback: cache misses migrate users from the {} layout",
+                bucketedState ? "per-user" : "bucketed");
+        }
+        if (!bucketedState) {
+            return;
+        }
 
-    @Override
-    public void cacheUserInfo(Long userId, UserInfoResponse userInfo) {
+        // Bigger buckets silently fall back to the hashtable encoding and lose the memory gain
+        int fieldsPerBucket = stateBucketSize * STATE_FIELDS_PER_USER;
         try {
-            String key = USER_INFO_KEY + userId;
-            String json = objectMapper.writeValueAsString(userInfo);
-            redisTemplate.opsForValue().set(key, json, USER_INFO_TTL, TimeUnit.SECONDS);
-            log.debug("Cached user info for userId: {}", userId);
-        } catch (JsonProcessingException e) {
-            log.error("Failed to cache user info for userId {}: {}", userId, e.getMessage());
+            Properties config = redisTemplate.execute((RedisCallback<Properties>) connection ->
+                connection.serverCommands().getConfig("hash-max-listpack-entries"));
+            String limit = config != null ? config.getProperty("hash-max-listpack-entries") : null;
+            if (limit != null && Integer.parseInt(limit) < fieldsPerBucket) {
+                log.warn("⚠️ State buckets hold {} fields but hash-max-listpack-entries is {}: "
+                    + "buckets will use the hashtable encoding", fieldsPerBucket, limit);
+            }
+        } catch (Exception e) {
+            log.debug("Could not read hash-max-listpack-entries: {}", e.getMessage());
         }
-    }
 
-    @Override
-    public UserInfoResponse getCachedUserInfo(Long userId) {
+        // Buckets holding unsynced users have no TTL, which only keeps them out of a volatile-* eviction
         try {
-            String key = USER_INFO_KEY + userId;
-            String json = redisTemplate.opsForValue().get(key);
-            if (json != null) {
-                log.debug("Cache HIT for user info: {}", userId);
-                return objectMapper.readValue(json, UserInfoResponse.class);
+            Properties config = redisTemplate.execute((RedisCallback<Properties>) connection ->
+                connection.serverCommands().getConfig("maxmemory-policy"));
+            String policy = config != null ? config.getProperty("maxmemory-policy") : null;
+            if (policy != null && policy.startsWith("allkeys-")) {
+                log.warn("⚠️ maxmemory-policy is {}: Redis may evict a state bucket and lose the unsynced "
+                    + "state of up to {} users, use a volatile-* policy", policy, stateBucketSize);
             }
-            log.debug("Cache MISS for user info: {}", userId);
-            return null;
-        } catch (JsonProcessingException e) {
-            log.error("Failed to deserialize user info for userId {}: {}", userId, e.getMessage());
-            return null;
+        } catch (Exception e) {
+            log.debug("Could not read maxmemory-policy: {}", e.getMessage());
         }
+        log.info("Bucketed user state layout: {} users per hash", stateBucketSize);
     }
 
-    @Override
-    public void invalidateUserCache(Long userId) {
-        String key = USER_INFO_KEY + userId;
-        redisTemplate.delete(key);
-        log.debug("Invalidated user cache for userId: {}", userId);
+    @PostConstruct
+    public void initNearCache() {
+        if (!nearCacheEnabled) {
+            return;
+        }
+
+        nearCache = new UserStateCache(nearCacheCapacity, nearCacheTtlSeconds);
+        listenerContainer.addMessageListener(new NearCacheInvalidator(nearCache), new ChannelTopic(STATE_CHANNEL));
+        log.info("User state near-cache: {} users, {}s TTL", nearCacheCapacity, nearCacheTtlSeconds);
     }
 
-    // ==================== SCORE & TURNS CACHE ====================
+    /**
+     * Drops an entry per STATE_CHANNEL message, and the whole cache whenever the subscription is
+     * (re)established or lost: invalidations published while the connection was down are gone,
+     * so no entry cached before that point can be trusted
+     */
+    private static final class NearCacheInvalidator implements MessageListener, SubscriptionListener {
 
-    @Override
-    public Integer getUserScore(Long userId) {
-        String key = USER_SCORE_KEY + userId;
-        String value = redisTemplate.opsForValue().get(key);
+        private final UserStateCache cache;
+        private volatile boolean subscribedBefore;
 
-        if (value != null) {
-            log.debug("Cache HIT for score: userId={}", userId);
-            return Integer.parseInt(value);
+        private NearCacheInvalidator(UserStateCache cache) {
+            this.cache = cache;
+        }
+
+        @Override
+        public void onMessage(Message message, byte[] pattern) {
+            cache.invalidate(Long.parseLong(new String(message.getBody(), StandardCharsets.UTF_8)));
         }
 
-        // Cache MISS - load from DB
-        log.debug("Cache MISS for score: userId={}, loading from DB", userId);
-        User user = userRepository.findById(userId).orElse(null);
-        if (user != null) {
-            initializeUserGameData(userId, user.getScore(), user.getTurns());
-            return user.getScore();
+        @Override
+        public void onChannelSubscribed(byte[] channel, long count) {
+            // Called again by the container after it recovers a dropped connection
+            if (subscribedBefore) {
+                log.warn("⚠️ Re-subscribed to {}, clearing the near-cache ({} entries)", STATE_CHANNEL, cache.size());
+            }
+            subscribedBefore = true;
+            cache.clear();
         }
-        return 0;
+
+        @Override
+        public void onChannelUnsubscribed(byte[] channel, long count) {
+            log.warn("⚠️ Lost subscription to {}, clearing the near-cache", STATE_CHANNEL);
+            cache.clear();
+        }
+    }
+
+    @PostConstruct
+    public void initLoadMetrics() {
+        databaseLoads = Counter.builder("game.state.load")
+            .description("Game state cache misses loaded from the DB")
+            .tag("result", "database")
+            .register(meterRegistry);
+        coalescedLoads = Counter.builder("game.state.load")
+            .description("Game state cache misses served by another request's DB load")
+            .tag("result", "coalesced")
+            .register(meterRegistry);
+        migratedLoads = Counter.builder("game.state.load")
+            .description("Game state cache misses served from the previous key layout")
+            .tag("result", "migrated")
+            .register(meterRegistry);
+        Gauge.builder("game.state.load.in-flight", inFlightLoads, Map::size)
+            .description("Game state DB loads in progress")
+            .register(meterRegistry);
     }
 
+    // ==================== USER CACHE ====================
+
     @Override
-    public Integer getUserTurns(Long userId) {
-        String key = USER_TURNS_KEY + userId;
+    public Long getUserIdByUsername(String username) {
+        String key = USER_ID_KEY + username;
         String value = redisTemplate.opsForValue().get(key);
 
         if (value != null) {
-            log.debug("Cache HIT for turns: userId={}", userId);
-            return Integer.parseInt(value);
+            return Long.parseLong(value);
+        }
+
+        // Cache MISS - single indexed lookup, connection returned right after
+        log.debug("Cache MISS for user id: username={}, loading from DB", username);
+        Long userId = userRepository.findByUsername(username)
+            .map(User::getId)
+            .orElseThrow(() -> new ResourceNotFoundException("User", "username", username));
+        redisTemplate.opsForValue().set(key, userId.toString(), USER_ID_TTL, TimeUnit.SECONDS);
+        return userId;
+    }
+
+    // ==================== SCORE & TURNS CACHE ====================
+
+    @Override
+    public UserGameState getGameState(Long userId) {
+        if (nearCache == null) {
+            return loadGameState(userId);
         }
 
-        // Cache MISS - load from DB
-        log.debug("Cache MISS for turns: userId={}, loading from DB", userId);
-        User user = userRepository.findById(userId).orElse(null);
-        if (user != null) {
-            initializeUserGameData(userId, user.getScore(), user.getTurns());
-            return user.getTurns();
+        // ⚡ L1 hit: no Redis round-trip
+        int[] fields = new int[UserStateCache.FIELDS];
+        if (nearCache.get(userId, fields)) {
+            return UserGameState.builder()
+                .score(fields[UserStateCache.SCORE])
+                .turns(fields[UserStateCache.TURNS])
+                .lossStreak(fields[UserStateCache.STREAK])
+                .version(Integer.toUnsignedLong(fields[UserStateCache.VERSION]))
+                .achievedAt(Integer.toUnsignedLong(fields[UserStateCache.ACHIEVED_AT]))
+                .build();
         }
-        return 0;
+
+        // Stamp before the read: an invalidation arriving meanwhile discards the put
+        int stamp = nearCache.stamp(userId);
+        UserGameState state = loadGameState(userId);
+        nearCache.put(userId, stamp, state.getScore(), state.getTurns(), state.getLossStreak(), state.getVersion(),
+            state.getAchievedAt());
+        return state;
     }
 
     @Override
-    public void incrementScore(Long userId, int scoreToAdd) {
-        String key = USER_SCORE_KEY + userId;
-        // Atomic increment operation (thread-safe)
-        redisTemplate.opsForValue().increment(key, scoreToAdd);
-        redisTemplate.expire(key, GAME_DATA_TTL, TimeUnit.SECONDS);
+    public UserGameState loadGameState(Long userId) {
+        List<Object> values = redisTemplate.opsForHash().multiGet(stateKey(userId), List.of(
+            layout.field(userId, FIELD_SCORE),
+            layout.field(userId, FIELD_TURNS),
+            layout.field(userId, FIELD_STREAK),
+            layout.field(userId, FIELD_VERSION),
+            layout.field(userId, FIELD_ACHIEVED)));
+
+        if (values.get(0) != null && values.get(1) != null) {
+            log.debug("Cache HIT for game state: userId={}", userId);
+            return UserGameState.builder()
+                .score(Integer.parseInt(values.get(0).toString()))
+                .turns(Integer.parseInt(values.get(1).toString()))
+                .lossStreak(values.get(2) != null ? Integer.parseInt(values.get(2).toString()) : 0)
+                .version(values.get(3) != null ? Long.parseLong(values.get(3).toString()) : 0L)
+                .achievedAt(values.get(4) != null ? Long.parseLong(values.get(4).toString()) : 0L)
+                .build();
+        }
 
-        // Mark user as dirty for batch sync
-        markUserDirty(userId);
+        // Cache MISS - load from DB (once per user, concurrent misses share the result)
+        UserGameState state = loadFromDatabaseOnce(userId);
+        return state != null ? state : new UserGameState();
+    }
 
-        log.debug("Incremented score for userId {}: +{}", userId, scoreToAdd);
+    @Override
+    public Integer getUserScore(Long userId) {
+        return loadGameState(userId).getScore();
     }
 
     @Override
-    public void decrementTurns(Long userId) {
-        String key = USER_TURNS_KEY + userId;
-        // Atomic decrement operation (thread-safe)
-        Long newValue = redisTemplate.opsForValue().decrement(key);
-        redisTemplate.expire(key, GAME_DATA_TTL, TimeUnit.SECONDS);
+    public Integer getUserTurns(Long userId) {
+        return loadGameState(userId).getTurns();
+    }
+
+    @Override
+    public int getLossStreak(Long userId) {
+        Object value = redisTemplate.opsForHash().get(stateKey(userId), layout.field(userId, FIELD_STREAK));
+        return value != null ? Integer.parseInt(value.toString()) : 0;
+    }
+
+    @Override
+    public void resetLossStreak(Long userId) {
+        // Same script as a win: only while the state is cached, so an evicted user never gets a
+        // partial hash (streak without score/turns/TTL); the next load starts from streak 0 anyway
+        Long streak = executeRecordStreakScript(userId, true);
+        if (streak != null && streak != SCRIPT_CACHE_MISS) {
+            invalidateNearCache(userId);
+        }
+    }
 
-        // Mark user as dirty for batch sync
-        markUserDirty(userId);
+    @Override
+    public void incrementScore(Long userId, int scoreToAdd) {
+        // Atomic increment + TTL refresh + dirty flag, one round-trip
+        incrementState(userId, FIELD_SCORE, scoreToAdd);
+        log.debug("Incremented score for userId {}: +{}", userId, scoreToAdd);
+    }
 
+    @Override
+    public void decrementTurns(Long userId) {
+        long newValue = incrementState(userId, FIELD_TURNS, -1);
         log.debug("Decremented turns for userId {}: remaining={}", userId, newValue);
     }
 
     @Override
-    public void addTurns(Long userId, int turnsToAdd) {
-        String key = USER_TURNS_KEY + userId;
-        redisTemplate.opsForValue().increment(key, turnsToAdd);
-        redisTemplate.expire(key, GAME_DATA_TTL, TimeUnit.SECONDS);
+    public int tryDecrementTurns(Long userId) {
+        Long remaining = executeDecrementTurnsScript(userId);
 
-        // Mark user as dirty for batch sync
-        markUserDirty(userId);
+        if (remaining == SCRIPT_CACHE_MISS) {
+            loadGameDataFromDatabase(userId);
+            remaining = executeDecrementTurnsScript(userId);
+        }
+
+        if (remaining == SCRIPT_INSUFFICIENT_TURNS) {
+            return -1;
+        }
+        if (remaining < 0) {
+            throw new IllegalStateException("Game data for userId " + userId + " is not available in Redis");
+        }
+
+        invalidateNearCache(userId);
+        log.debug("Conditionally decremented turns for userId {}: remaining={}", userId, remaining);
+        return remaining.intValue();
+    }
+
+    private Long executeDecrementTurnsScript(Long userId) {
+        return redisTemplate.execute(DECREMENT_TURNS_SCRIPT,
+            List.of(stateKey(userId), DIRTY_USERS_SET),
+            stateTtl(),
+            userId.toString(),
+            layout.fieldPrefix(userId));
+    }
 
+    @Override
+    public void addTurns(Long userId, int turnsToAdd) {
+        incrementState(userId, FIELD_TURNS, turnsToAdd);
         log.debug("Added turns for userId {}: +{}", userId, turnsToAdd);
     }
 
     @Override
     public void initializeUserGameData(Long userId, Integer initialScore, Integer initialTurns) {
-        String scoreKey = USER_SCORE_KEY + userId;
-        String turnsKey = USER_TURNS_KEY + userId;
+        seedGameState(userId, initialScore, initialTurns, null, new PlayerStats());
+    }
 
-        redisTemplate.opsForValue().set(scoreKey, String.valueOf(initialScore), GAME_DATA_TTL, TimeUnit.SECONDS);
-        redisTemplate.opsForValue().set(turnsKey, String.valueOf(initialTurns), GAME_DATA_TTL, TimeUnit.SECONDS);
+    /**
+     * Single-flight DB load: the first miss for a user reads the DB and seeds Redis,
+     * misses arriving meanwhile on this node wait for its result instead of querying again
+     * @return State as stored in Redis after the seed, null if the user does not exist
+     */
+    private UserGameState loadFromDatabaseOnce(Long userId) {
+        CompletableFuture<UserGameState> flight = new CompletableFuture<>();
+        CompletableFuture<UserGameState> leader = inFlightLoads.putIfAbsent(userId, flight);
+        if (leader != null) {
+            coalescedLoads.increment();
+            try {
+                return leader.join();
+            } catch (CompletionException e) {
+                throw e.getCause() instanceof RuntimeException cause ? cause : e;
+            }
+        }
 
-        log.debug("Initialized game data for userId {}: score={}, turns={}", userId, initialScore, initialTurns);
+        try {
+            UserGameState migrated = migrateFromPreviousLayout(userId);
+            if (migrated != null) {
+                flight.complete(migrated);
+                return migrated;
+            }
+
+            databaseLoads.increment();
+            log.debug("Cache MISS for game state: userId={}, loading from DB", userId);
+            UserGameState state = userRepository.findById(userId)
+                .map(user -> seedGameState(userId, user.getScore(), user.getTurns(),
+                    // Same fallback as the DB ranking: registration time when the score was never reached
+                    user.getScoreAchievedAt() != null ? user.getScoreAchievedAt() : user.getCreatedAt(),
+                    toPlayerStats(user)))
+                .orElse(null);
+            flight.complete(state);
+            return state;
+        } catch (RuntimeException e) {
+            flight.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlightLoads.remove(userId, flight);
+        }
+    }
+
+    /**
+     * During a layout cutover, moves the user's fields from the previous layout: they may hold
+     * writes the batch sync has not persisted yet, which a DB load would silently drop
+     * @return State as stored after the move, null if the previous layout has nothing for this user
+     */
+    @SuppressWarnings("unchecked")
+    private UserGameState migrateFromPreviousLayout(Long userId) {
+        if (previousLayout == null) {
+            return null;
+        }
+
+        List<Long> stored = (List<Long>) redisTemplate.execute(MIGRATE_STATE_SCRIPT,
+            List.of(previousLayout.key(USER_STATE_KEY, userId), stateKey(userId),
+                previousLayout.key(PLAYER_STATS_KEY, userId), layout.key(PLAYER_STATS_KEY, userId),
+                DIRTY_USERS_SET),
+            previousLayout.fieldPrefix(userId),
+            layout.fieldPrefix(userId),
+            stateTtl(),
+            userId.toString());
+        if (stored == null || stored.isEmpty()) {
+            return null;
+        }
+        invalidateNearCache(userId);
+        migratedLoads.increment();
+
+        log.debug("Migrated game data for userId {} from the previous layout: score={}, turns={}",
+            userId, stored.get(0), stored.get(1));
+        return UserGameState.builder()
+            .score(stored.get(0).intValue())
+            .turns(stored.get(1).intValue())
+            .lossStreak(stored.get(2).intValue())
+            .version(stored.get(3))
+            .achievedAt(stored.get(4))
+            .build();
+    }
+
+    /**
+     * HSETNX score/turns/achieved (streak is left alone: it may outlive a cache miss on score/turns),
+     * and the player counters when their hash is missing
+     * @param achievedAt When the DB score was reached, null if unknown
+     * @return State as stored after the call, which wins over the DB values if written meanwhile
+     */
+    @SuppressWarnings("unchecked")
+    private UserGameState seedGameState(Long userId, Integer score, Integer turns, LocalDateTime achievedAt,
+                                        PlayerStats stats) {
+        List<Long> stored = (List<Long>) redisTemplate.execute(SEED_STATE_SCRIPT,
+            List.of(stateKey(userId), layout.key(PLAYER_STATS_KEY, userId)),
+            String.valueOf(score),
+            String.valueOf(turns),
+            stateTtl(),
+            userId.toString(),
+            layout.fieldPrefix(userId),
+            achievedAt != null ? String.valueOf(achievedAt.atZone(ZoneId.systemDefault()).toEpochSecond()) : "",
+            String.valueOf(stats.getGames()),
+            String.valueOf(stats.getWins()),
+            String.valueOf(stats.getWinStreak()),
+            String.valueOf(stats.getBestStreak()));
+        invalidateNearCache(userId);
+
+        log.debug("Seeded game data for userId {}: score={}, turns={}", userId, stored.get(0), stored.get(1));
+        return UserGameState.builder()
+            .score(stored.get(0).intValue())
+            .turns(stored.get(1).intValue())
+            .lossStreak(stored.get(2).intValue())
+            .version(stored.get(3))
+            .achievedAt(stored.get(4))
+            .build();
+    }
+
+    /**
+     * HINCRBY field + version bump + TTL refresh + dirty flag + change notification in one script,
+     * applied only while the state is cached: on a miss the DB value is seeded first and the delta
+     * applied on top of it, so a delta never takes the place of the DB balance
+     * @return New value of the field
+     */
+    private long incrementState(Long userId, String field, long delta) {
+        List<Long> result = executeIncrementStateScript(userId, field, delta);
+
+        if (result.get(0) == SCRIPT_CACHE_MISS) {
+            loadGameDataFromDatabase(userId);
+            result = executeIncrementStateScript(userId, field, delta);
+        }
+
+        if (result.get(0) != SCRIPT_OK) {
+            throw new IllegalStateException("Game data for userId " + userId + " is not available in Redis");
+        }
+        invalidateNearCache(userId);
+        return result.get(1);
+    }
+
+    @SuppressWarnings("unchecked")
+    private List<Long> executeIncrementStateScript(Long userId, String field, long delta) {
+        return (List<Long>) redisTemplate.execute(INCREMENT_STATE_SCRIPT,
+            List.of(stateKey(userId), DIRTY_USERS_SET),
+            field,
+            String.valueOf(delta),
+            stateTtl(),
+            userId.toString(),
+            layout.fieldPrefix(userId),
+            String.valueOf(Instant.now().getEpochSecond()));
+    }
+
+    /**
+     * Read-your-writes on this node; other nodes are invalidated by the STATE_CHANNEL message
+     */
+    private void invalidateNearCache(Long userId) {
+        if (nearCache != null) {
+            nearCache.invalidate(userId);
+        }
+    }
+
+    private String stateKey(Long userId) {
+        return layout.key(USER_STATE_KEY, userId);
+    }
+
+    /**
+     * TTL argument of the state scripts: negative in the bucketed layout, where buckets holding
+     * dirty users are pinned (no TTL) until the batch sync releases them (scripts/lib/state-ttl.lua)
+     */
+    private String stateTtl() {
+        return String.valueOf(layout.isBucketed() ? -GAME_DATA_TTL : GAME_DATA_TTL);
+    }
+
+    // ==================== ATOMIC GUESS ====================
+
+    @Override
+    public GuessOutcome applyGuess(Long userId, double roll, double baseWinRate,
+                                   double streakBonusRate, int maxLossStreak, int scoreOnWin) {
+        List<Long> result = executeGuessScript(userId, roll, baseWinRate, streakBonusRate, maxLossStreak, scoreOnWin);
+
+        if (result.get(0) == SCRIPT_CACHE_MISS) {
+            loadGameDataFromDatabase(userId);
+            result = executeGuessScript(userId, roll, baseWinRate, streakBonusRate, maxLossStreak, scoreOnWin);
+        }
+
+        long status = result.get(0);
+        if (status == SCRIPT_INSUFFICIENT_TURNS) {
+            return GuessOutcome.builder()
+                .insufficientTurns(true)
+                .remainingTurns(result.get(2).intValue())
+                .build();
+        }
+        if (status != SCRIPT_OK) {
+            throw new IllegalStateException("Game data for userId " + userId + " is not available in Redis");
+        }
+        invalidateNearCache(userId);
+
+        return GuessOutcome.builder()
+            .correct(result.get(1) == 1)
+            .remainingTurns(result.get(2).intValue())
+            .totalScore(result.get(3).intValue())
+            .previousLossStreak(result.get(4).intValue())
+            .lossStreak(result.get(5).intValue())
+            .achievedAt(result.get(6))
+            .build();
+    }
+
+    @SuppressWarnings("unchecked")
+    private List<Long> executeGuessScript(Long userId, double roll, double baseWinRate,
+                                          double streakBonusRate, int maxLossStreak, int scoreOnWin) {
+        List<String> keys = List.of(
+            stateKey(userId),
+            DIRTY_USERS_SET,
+            layout.key(PLAYER_STATS_KEY, userId),
+            LeaderboardMetric.GAMES.getBoardKey(),
+            LeaderboardMetric.WIN_RATE.getBoardKey(),
+            LeaderboardMetric.BEST_STREAK.getBoardKey()
+        );
+
+        return (List<Long>) redisTemplate.execute(GUESS_SCRIPT, keys,
+            String.valueOf(roll),
+            String.valueOf(baseWinRate),
+            String.valueOf(streakBonusRate),
+            String.valueOf(maxLossStreak),
+            String.valueOf(scoreOnWin),
+            stateTtl(),
+            userId.toString(),
+            String.valueOf(winRateMinGames),
+            layout.fieldPrefix(userId),
+            String.valueOf(Instant.now().getEpochSecond()));
+    }
+
+    @Override
+    public void recordGameMetrics(Long userId, boolean isCorrect) {
+        Long games = executePlayerMetricsScript(userId, isCorrect);
+
+        if (games != null && games == SCRIPT_CACHE_MISS) {
+            // Counters evicted or expired: seed them from the DB copy, then count this game on top
+            loadGameDataFromDatabase(userId);
+            executePlayerMetricsScript(userId, isCorrect);
+        }
+    }
+
+    private Long executePlayerMetricsScript(Long userId, boolean isCorrect) {
+        List<String> keys = List.of(
+            layout.key(PLAYER_STATS_KEY, userId),
+            LeaderboardMetric.GAMES.getBoardKey(),
+            LeaderboardMetric.WIN_RATE.getBoardKey(),
+            LeaderboardMetric.BEST_STREAK.getBoardKey(),
+            DIRTY_USERS_SET
+        );
+
+        return redisTemplate.execute(PLAYER_METRICS_SCRIPT, keys,
+            userId.toString(),
+            isCorrect ? "1" : "0",
+            String.valueOf(winRateMinGames),
+            layout.fieldPrefix(userId),
+            stateTtl());
+    }
+
+    @Override
+    public PlayerStats loadPlayerStats(Long userId) {
+        List<Object> values = redisTemplate.opsForHash().multiGet(layout.key(PLAYER_STATS_KEY, userId), List.of(
+            layout.field(userId, FIELD_GAMES),
+            layout.field(userId, FIELD_WINS),
+            layout.field(userId, FIELD_WIN_STREAK),
+            layout.field(userId, FIELD_BEST_STREAK)));
+
+        if (values.get(0) == null) {
+            return null;
+        }
+        return PlayerStats.builder()
+            .games(Integer.parseInt(values.get(0).toString()))
+            .wins(values.get(1) != null ? Integer.parseInt(values.get(1).toString()) : 0)
+            .winStreak(values.get(2) != null ? Integer.parseInt(values.get(2).toString()) : 0)
+            .bestStreak(values.get(3) != null ? Integer.parseInt(values.get(3).toString()) : 0)
+            .build();
+    }
+
+    private static PlayerStats toPlayerStats(User user) {
+        return PlayerStats.builder()
+            .games(user.getGamesPlayed() != null ? user.getGamesPlayed() : 0)
+            .wins(user.getGamesWon() != null ? user.getGamesWon() : 0)
+            .winStreak(user.getWinStreak() != null ? user.getWinStreak() : 0)
+            .bestStreak(user.getBestWinStreak() != null ? user.getBestWinStreak() : 0)
+            .build();
+    }
+
+    /**
+     * Script text with the given scripts/lib files in front, in order (Redis scripts cannot include each other)
+     */
+    private static <T> RedisScript<T> withLibraries(String path, Class<T> resultType, String... libraries) {
+        try {
+            StringBuilder text = new StringBuilder();
+            for (String library : libraries) {
+                text.append(StreamUtils.copyToString(
+                    new ClassPathResource(library).getInputStream(), StandardCharsets.UTF_8)).append('\n');
+            }
+            text.append(StreamUtils.copyToString(new ClassPathResource(path).getInputStream(), StandardCharsets.UTF_8));
+            return RedisScript.of(text.toString(), resultType);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to load " + path, e);
+        }
+    }
+
+    @Override
+    public boolean compareAndSetLossStreak(Long userId, int expectedStreak, int newStreak) {
+        Long written = executeCompareAndSetStreakScript(userId, expectedStreak, newStreak);
+
+        if (written != null && written == SCRIPT_CACHE_MISS) {
+            // Never write a streak into a missing hash: seed score/turns first, like incrementState
+            loadGameDataFromDatabase(userId);
+            written = executeCompareAndSetStreakScript(userId, expectedStreak, newStreak);
+        }
+
+        if (written == null || written != 1) {
+            return false;
+        }
+        invalidateNearCache(userId);
+        return true;
+    }
+
+    private Long executeCompareAndSetStreakScript(Long userId, int expectedStreak, int newStreak) {
+        return redisTemplate.execute(COMPARE_AND_SET_STREAK_SCRIPT,
+            List.of(stateKey(userId)),
+            String.valueOf(expectedStreak),
+            String.valueOf(newStreak),
+            stateTtl(),
+            layout.fieldPrefix(userId),
+            userId.toString());
+    }
+
+    @Override
+    public int recordLossStreak(Long userId, boolean win) {
+        Long streak = executeRecordStreakScript(userId, win);
+        if (streak == null || streak == SCRIPT_CACHE_MISS) {
+            // State expired between the CAS attempts and here, the next load starts a fresh streak
+            return 0;
+        }
+        invalidateNearCache(userId);
+        return streak.intValue();
+    }
+
+    private Long executeRecordStreakScript(Long userId, boolean win) {
+        return redisTemplate.execute(RECORD_STREAK_SCRIPT,
+            List.of(stateKey(userId)),
+            win ? "1" : "0",
+            stateTtl(),
+            layout.fieldPrefix(userId),
+            userId.toString());
+    }
+
+    /**
+     * Cache MISS inside a script - load score/turns from DB so the script can be run again
+     */
+    private void loadGameDataFromDatabase(Long userId) {
+        if (loadFromDatabaseOnce(userId) == null) {
+            throw new ResourceNotFoundException("User", "id", userId);
+        }
     }
 
     // ==================== BATCH SYNC ====================
@@ -201,11 +810,40 @@ public class RedisServiceImpl implements IRedisService {
         log.debug("Cleared dirty flag for userId {}", userId);
     }
 
+    @Override
+    public int releaseSyncedState(Collection<Long> userIds) {
+        if (!layout.isBucketed()) {
+            return 0;
+        }
+
+        // One script per bucket: the TTL comes back only if no user of the bucket is dirty again
+        int bucketSize = layout.getBucketSize();
+        int released = 0;
+        for (long bucket : userIds.stream().map(userId -> userId / bucketSize).distinct().toList()) {
+            long firstUserId = bucket * bucketSize;
+            List<String> args = new ArrayList<>(bucketSize + 1);
+            args.add(String.valueOf(GAME_DATA_TTL));
+            for (long userId = firstUserId; userId < firstUserId + bucketSize; userId++) {
+                args.add(String.valueOf(userId));
+            }
+
+            Long result = redisTemplate.execute(RELEASE_STATE_BUCKET_SCRIPT,
+                List.of(layout.key(USER_STATE_KEY, firstUserId), layout.key(PLAYER_STATS_KEY, firstUserId),
+                    DIRTY_USERS_SET),
+                args.toArray());
+            if (result != null && result == 1) {
+                released++;
+            }
+        }
+        log.debug("Released {} synced state buckets", released);
+        return released;
+    }
+
     // ==================== LEADERBOARD CACHE ====================
 
     @Override
-    public void updateLeaderboardCache(Long userId, String username, Integer score) {
-        leaderboardService.updateScore(userId, username, score);
+    public void updateLeaderboardCache(Long userId, String username, Integer score, Instant achievedAt) {
+        leaderboardService.updateScore(userId, username, score, achievedAt);
     }
 
     @Override
@@ -0,0 +1,110 @@
+package com.numbergame.gamenumber.service.impl;
+
+import com.numbergame.gamenumber.dto.response.LeaderboardResponse;
+import com.numbergame.gamenumber.entity.SeasonArchiveEntry;
+import com.numbergame.gamenumber.repository.SeasonArchiveRepository;
+import com.numbergame.gamenumber.service.ISeasonArchiveService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Async;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.function.BiFunction;
+import java.util.stream.Collectors;
+
+/**
+ * Season archive export and reads
+ *
+ * Strategy:
+ * - Export reads the archived Redis board chunk by chunk and writes multi-row JDBC batches
+ *   (GenerationType.IDENTITY prevents Hibernate batching, JDBC does not care)
+ * - Previous rows of the season are deleted first, so a retried export never duplicates ranks
+ * - Reads are rank windows on the (season, season_rank) unique index
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class SeasonArchiveServiceImpl implements ISeasonArchiveService {
+
+    private final SeasonArchiveRepository seasonArchiveRepository;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+
+    private static final int EXPORT_CHUNK_SIZE = 2000;
+
+    private static final String INSERT_SQL =
+        "INSERT INTO season_archive (season, season_rank, user_id, username, score, archived_at) " +
+        "VALUES (?, ?, ?, ?, ?, ?)";
+
+    @Override
+    @Async("batchExecutor")
+    public void archiveSeason(long season, BiFunction<Long, Integer, List<LeaderboardResponse>> chunkReader) {
+        long startTime = System.currentTimeMillis();
+        Timestamp archivedAt = Timestamp.valueOf(LocalDateTime.now());
+
+        try {
+            Integer deleted = transactionTemplate.execute(status -> seasonArchiveRepository.deleteBySeason(season));
+            if (deleted != null && deleted > 0) {
+                log.info("Replacing {} archived rows of season {}", deleted, season);
+            }
+
+            long start = 0;
+            while (true) {
+                List<LeaderboardResponse> chunk = chunkReader.apply(start, EXPORT_CHUNK_SIZE);
+                if (chunk.isEmpty()) {
+                    break;
+                }
+
+                // Rewritten to a multi-row INSERT by the MySQL driver (rewriteBatchedStatements=true)
+                jdbcTemplate.batchUpdate(INSERT_SQL, chunk, chunk.size(), (ps, entry) -> {
+                    ps.setLong(1, season);
+                    ps.setLong(2, entry.getRank());
+                    ps.setLong(3, entry.getUserId());
+                    ps.setString(4, entry.getUsername());
+                    ps.setInt(5, entry.getScore());
+                    ps.setTimestamp(6, archivedAt);
+                });
+
+                start += chunk.size();
+                if (chunk.size() < EXPORT_CHUNK_SIZE) {
+                    break;
+                }
+            }
+
+            log.info("✅ Season {} archived to MySQL: {} entries in {}ms",
+                season, start, System.currentTimeMillis() - startTime);
+        } catch (Exception e) {
+            // The Redis archive key is still there (retention TTL): checkSeasonRollover re-runs the export
+            log.error("❌ Failed to archive season {}: {}", season, e.getMessage(), e);
+        }
+    }
+
+    @Override
+    public List<LeaderboardResponse> getRange(long season, long start, int count) {
+        return seasonArchiveRepository
+            .findBySeasonAndSeasonRankBetweenOrderBySeasonRankAsc(season, start + 1, start + count)
+            .stream()
+            .map(entry -> LeaderboardResponse.builder()
+                .rank(entry.getSeasonRank().intValue())
+                .userId(entry.getUserId())
+                .username(entry.getUsername())
+                .score(entry.getScore())
+                .build())
+            .collect(Collectors.toList());
+    }
+
+    @Override
+    public boolean isArchived(long season) {
+        return seasonArchiveRepository.existsBySeason(season);
+    }
+
+    @Override
+    public long getArchivedCount(long season) {
+        return seasonArchiveRepository.countBySeason(season);
+    }
+}
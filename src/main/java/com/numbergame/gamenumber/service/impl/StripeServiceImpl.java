@@ -132,9 +132,6 @@ public class StripeServiceImpl implements IStripeService {
 
         transactionRepository.save(transaction);
 
-        // Invalidate user cache
-        redisService.invalidateUserCache(userId);
-
         log.info("✅ Payment processed successfully - User: {}, Plan: {}, Turns added: {}, Amount: ${}",
             userId, plan.getPlanName(), plan.getTurns(), plan.getPrice());
     }
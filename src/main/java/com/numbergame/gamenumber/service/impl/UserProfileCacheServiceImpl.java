@@ -0,0 +1,204 @@
+package com.numbergame.gamenumber.service.impl;
+
+import com.numbergame.gamenumber.dto.UserProfile;
+import com.numbergame.gamenumber.entity.User;
+import com.numbergame.gamenumber.exception.custom.ResourceNotFoundException;
+import com.numbergame.gamenumber.repository.UserRepository;
+import com.numbergame.gamenumber.service.IUserProfileCacheService;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.data.redis.connection.SubscriptionListener;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.stereotype.Service;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Two-tier profile cache
+ *
+ * Strategy:
+ * - Tier 1: bounded ConcurrentHashMap per node (username -> profile), short TTL as a safety net
+ * - Tier 2: Redis hash user:profile:{username} (id, email, createdAt, lastLogin), long TTL
+ * - Miss on both: one indexed DB lookup, written back to both tiers
+ * - Changes: HSET of the changed field (only if the hash is cached) + PUBLISH in one script;
+ *   every node drops its tier-1 copy
+ * - Tier 1 is cleared whenever the invalidation channel is (re)subscribed or lost
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class UserProfileCacheServiceImpl implements IUserProfileCacheService {
+
+    private final RedisTemplate<String, String> redisTemplate;
+    private final UserRepository userRepository;
+    private final RedisMessageListenerContainer listenerContainer;
+
+    private static final String PROFILE_KEY = "user:profile:";
+    private static final String PROFILE_CHANNEL = "user:profile:changed";
+
+    private static final RedisScript<Long> PATCH_PROFILE_SCRIPT =
+        RedisScript.of(new ClassPathResource("scripts/patch-profile.lua"), Long.class);
+
+    @Value("${user.profile-cache.local-capacity:50000}")
+    private int localCapacity;
+
+    @Value("${user.profile-cache.local-ttl-seconds:600}")
+    private long localTtlSeconds;
+
+    @Value("${user.profile-cache.redis-ttl-days:7}")
+    private long redisTtlDays;
+
+    private final Map<String, LocalProfile> localProfiles = new ConcurrentHashMap<>();
+
+    @PostConstruct
+    public void subscribe() {
+        listenerContainer.addMessageListener(new LocalProfileInvalidator(localProfiles),
+            new ChannelTopic(PROFILE_CHANNEL));
+    }
+
+    /**
+     * Drops a tier-1 entry per PROFILE_CHANNEL message, and all of them whenever the subscription is
+     * (re)established or lost: changes published while the connection was down never arrive
+     */
+    private static final class LocalProfileInvalidator implements MessageListener, SubscriptionListener {
+
+        private final Map<String, LocalProfile> profiles;
+        private volatile boolean subscribedBefore;
+
+        private LocalProfileInvalidator(Map<String, LocalProfile> profiles) {
+            this.profiles = profiles;
+        }
+
+        @Override
+        public void onMessage(Message message, byte[] pattern) {
+            profiles.remove(new String(message.getBody(), StandardCharsets.UTF_8));
+        }
+
+        @Override
+        public void onChannelSubscribed(byte[] channel, long count) {
+            // Called again by the container after it recovers a dropped connection
+            if (subscribedBefore) {
+                log.warn("⚠️ Re-subscribed to {}, clearing the local profile cache ({} entries)",
+                    PROFILE_CHANNEL, profiles.size());
+            }
+            subscribedBefore = true;
+            profiles.clear();
+        }
+
+        @Override
+        public void onChannelUnsubscribed(byte[] channel, long count) {
+            log.warn("⚠️ Lost subscription to {}, clearing the local profile cache", PROFILE_CHANNEL);
+            profiles.clear();
+        }
+    }
+
+    @Override
+    public UserProfile getProfile(String username) {
+        // ⚡ Tier 1: no network at all
+        LocalProfile local = localProfiles.get(username);
+        if (local != null && local.expiresAt() > System.currentTimeMillis()) {
+            return local.profile();
+        }
+
+        // Tier 2: one HGETALL
+        UserProfile profile = readRedis(username);
+        if (profile == null) {
+            log.debug("Cache MISS for profile: {}, loading from DB", username);
+            User user = userRepository.findByUsername(username)
+                .orElseThrow(() -> new ResourceNotFoundException("User", "username", username));
+            profile = UserProfile.builder()
+                .id(user.getId())
+                .username(user.getUsername())
+                .email(user.getEmail())
+                .createdAt(user.getCreatedAt())
+                .lastLogin(user.getLastLogin())
+                .build();
+            writeRedis(profile);
+        }
+
+        putLocal(profile);
+        return profile;
+    }
+
+    @Override
+    public void patchLastLogin(String username, LocalDateTime lastLogin) {
+        // A missing hash is left missing (never created without id / TTL), the next read loads it from the DB
+        redisTemplate.execute(PATCH_PROFILE_SCRIPT, List.of(PROFILE_KEY + username),
+            "lastLogin", lastLogin.toString(), username);
+
+        // Read-your-writes on this node, other nodes reload tier 1 from the patched hash
+        localProfiles.computeIfPresent(username, (name, local) ->
+            new LocalProfile(local.profile().toBuilder().lastLogin(lastLogin).build(), local.expiresAt()));
+    }
+
+    private UserProfile readRedis(String username) {
+        Map<Object, Object> fields = redisTemplate.opsForHash().entries(PROFILE_KEY + username);
+        if (fields.get("id") == null) {
+            return null;
+        }
+
+        return UserProfile.builder()
+            .id(Long.parseLong(fields.get("id").toString()))
+            .username(username)
+            .email((String) fields.get("email"))
+            .createdAt(parseTime(fields.get("createdAt")))
+            .lastLogin(parseTime(fields.get("lastLogin")))
+            .build();
+    }
+
+    private void writeRedis(UserProfile profile) {
+        Map<String, String> fields = new HashMap<>();
+        fields.put("id", profile.getId().toString());
+        if (profile.getEmail() != null) {
+            fields.put("email", profile.getEmail());
+        }
+        if (profile.getCreatedAt() != null) {
+            fields.put("createdAt", profile.getCreatedAt().toString());
+        }
+        if (profile.getLastLogin() != null) {
+            fields.put("lastLogin", profile.getLastLogin().toString());
+        }
+
+        String key = PROFILE_KEY + profile.getUsername();
+        redisTemplate.executePipelined((RedisCallback<?>) connection -> {
+            redisTemplate.opsForHash().putAll(key, fields);
+            redisTemplate.expire(key, redisTtlDays, TimeUnit.DAYS);
+            return null;
+        });
+    }
+
+    private void putLocal(UserProfile profile) {
+        if (localProfiles.size() >= localCapacity) {
+            // Bounded: drop an arbitrary entry, profiles are cheap to reload from tier 2
+            Iterator<String> it = localProfiles.keySet().iterator();
+            if (it.hasNext()) {
+                localProfiles.remove(it.next());
+            }
+        }
+        localProfiles.put(profile.getUsername(),
+            new LocalProfile(profile, System.currentTimeMillis() + TimeUnit.SECONDS.toMillis(localTtlSeconds)));
+    }
+
+    private static LocalDateTime parseTime(Object value) {
+        return value != null ? LocalDateTime.parse(value.toString()) : null;
+    }
+
+    private record LocalProfile(UserProfile profile, long expiresAt) {
+    }
+}
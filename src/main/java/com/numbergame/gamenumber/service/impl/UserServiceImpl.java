@@ -1,10 +1,15 @@
 package com.numbergame.gamenumber.service.impl;
 
+import com.numbergame.gamenumber.dto.UserGameState;
+import com.numbergame.gamenumber.dto.UserProfile;
+import com.numbergame.gamenumber.dto.response.LeaderboardPageResponse;
 import com.numbergame.gamenumber.dto.response.LeaderboardResponse;
 import com.numbergame.gamenumber.dto.response.TransactionResponse;
 import com.numbergame.gamenumber.dto.response.UserInfoResponse;
 import com.numbergame.gamenumber.entity.Transaction;
 import com.numbergame.gamenumber.entity.User;
+import com.numbergame.gamenumber.enums.LeaderboardMetric;
+import com.numbergame.gamenumber.enums.LeaderboardWindow;
 import com.numbergame.gamenumber.enums.SubscriptionPlan;
 import com.numbergame.gamenumber.exception.custom.ResourceNotFoundException;
 import com.numbergame.gamenumber.mapper.TransactionMapper;
@@ -15,6 +20,7 @@ import com.numbergame.gamenumber.repository.UserRepository;
 import com.numbergame.gamenumber.service.ILeaderboardService;
 import com.numbergame.gamenumber.service.IRedisService;
 import com.numbergame.gamenumber.service.IStripeService;
+import com.numbergame.gamenumber.service.IUserProfileCacheService;
 import com.numbergame.gamenumber.service.IUserService;
 import com.numbergame.gamenumber.utils.GameUtils;
 import lombok.RequiredArgsConstructor;
@@ -26,7 +32,9 @@ import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.math.BigDecimal;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Set;
 
 @Service
 @RequiredArgsConstructor
@@ -41,6 +49,7 @@ public class UserServiceImpl implements IUserService {
     private final ILeaderboardService leaderboardService;
     private final IRedisService redisService;
     private final IStripeService stripeService;
+    private final IUserProfileCacheService profileCache;
 
     @Value("${game.turns-per-purchase}")
     private Integer turnsPerPurchase;
@@ -49,46 +58,32 @@ public class UserServiceImpl implements IUserService {
     public UserInfoResponse getUserInfo(String username) {
         log.info("Fetching user info for: {}", username);
 
-        User user = userRepository.findByUsername(username)
-                .orElseThrow(() -> new ResourceNotFoundException("User", "username", username));
-
-        // ⚡ Try cache first
-        UserInfoResponse cachedInfo = redisService.getCachedUserInfo(user.getId());
-        if (cachedInfo != null) {
-            log.debug("Cache HIT for user info: {}", username);
-            return cachedInfo;
-        }
+        // ⚡ Static profile from the two-tier cache (no MySQL while cached)
+        UserProfile profile = profileCache.getProfile(username);
 
-        // Cache MISS - build from Redis/DB
-        log.debug("Cache MISS for user info: {}, building...", username);
+        // Score and turns from the user state hash (near-cache hit between writes)
+        UserGameState state = redisService.getGameState(profile.getId());
+        Integer score = state.getScore();
 
-        // Get score and turns from Redis (hot data)
-        Integer score = redisService.getUserScore(user.getId());
-        Integer turns = redisService.getUserTurns(user.getId());
-
-        // Use high-performance leaderboard service (O(log N))
-        Long rank = leaderboardService.getUserPosition(user.getId());
+        // Rank read live (O(log N)): it changes whenever anyone scores, a cached copy would always lag
+        Long rank = leaderboardService.getUserPosition(profile.getId());
         if (rank == null) {
-            // Fallback to DB count if not in leaderboard
-            rank = userRepository.countUsersWithScoreGreaterThan(score) + 1;
+            // Not in the ZSET (TTL expiry, cold Redis): estimate from the score histogram, no DB count
+            rank = leaderboardService.estimateRank(score);
         }
+        Double percentile = rank != null ? leaderboardService.getPercentile(rank) : null;
 
-        // Build response
-        UserInfoResponse response = UserInfoResponse.builder()
-                .id(user.getId())
-                .username(user.getUsername())
-                .email(user.getEmail())
+        return UserInfoResponse.builder()
+                .id(profile.getId())
+                .username(profile.getUsername())
+                .email(profile.getEmail())
                 .score(score)
-                .turns(turns)
+                .turns(state.getTurns())
                 .rank(rank)
-                .createdAt(user.getCreatedAt())
-                .lastLogin(user.getLastLogin())
+                .percentile(percentile)
+                .createdAt(profile.getCreatedAt())
+                .lastLogin(profile.getLastLogin())
                 .build();
-
-        // Cache for next time
-        redisService.cacheUserInfo(user.getId(), response);
-
-        return response;
     }
 
     @Override
@@ -116,9 +111,6 @@ public class UserServiceImpl implements IUserService {
                 .build();
         transactionRepository.save(transaction);
 
-        // Invalidate user cache
-        redisService.invalidateUserCache(user.getId());
-
         Integer newTurns = redisService.getUserTurns(user.getId());
         log.info("Purchase successful - User: {}, Turns added: {}, Total turns: {}",
                 username, turnsToAdd, newTurns);
@@ -147,6 +139,100 @@ public class UserServiceImpl implements IUserService {
         return leaderboard != null ? leaderboard : List.of();
     }
 
+    @Override
+    public LeaderboardPageResponse getLeaderboardPage(LeaderboardWindow window, long cursor, int size) {
+        log.debug("Fetching {} leaderboard page - cursor: {}, size: {}", window, cursor, size);
+        return leaderboardService.getRankWindow(window, cursor, size);
+    }
+
+    @Override
+    public LeaderboardPageResponse getSeasonLeaderboardPage(long season, long cursor, int size) {
+        log.debug("Fetching season {} leaderboard page - cursor: {}, size: {}", season, cursor, size);
+        return leaderboardService.getSeasonRankWindow(season, cursor, size);
+    }
+
+    @Override
+    public long getCurrentSeason() {
+        return leaderboardService.getCurrentSeason();
+    }
+
+    @Override
+    public LeaderboardPageResponse getLeaderboardAroundUser(LeaderboardWindow window, String username, int radius) {
+        log.debug("Fetching {} leaderboard around user: {} (radius {})", window, username, radius);
+
+        // ⚡ Id from Redis, no DB round-trip on the hot path
+        Long userId = redisService.getUserIdByUsername(username);
+
+        LeaderboardPageResponse page = leaderboardService.getAroundUser(window, userId, radius);
+        if (page == null) {
+            throw new ResourceNotFoundException("Leaderboard entry", "username", username);
+        }
+        return page;
+    }
+
+    @Override
+    public LeaderboardPageResponse getMetricLeaderboardPage(LeaderboardMetric metric, long cursor, int size) {
+        log.debug("Fetching {} metric leaderboard page - cursor: {}, size: {}", metric, cursor, size);
+        return leaderboardService.getMetricRankWindow(metric, cursor, size);
+    }
+
+    @Override
+    public LeaderboardResponse getMetricRank(LeaderboardMetric metric, String username) {
+        Long userId = redisService.getUserIdByUsername(username);
+
+        LeaderboardResponse entry = leaderboardService.getMetricUserRank(metric, userId);
+        if (entry == null) {
+            throw new ResourceNotFoundException("Leaderboard entry", "username", username);
+        }
+        return entry;
+    }
+
+    @Override
+    public int inviteLeaderboardGroupMembers(String groupId, String username, List<String> usernames) {
+        Long userId = redisService.getUserIdByUsername(username);
+
+        // Non-members get the same answer as for a missing group; an empty group is created by the first caller
+        if (!leaderboardService.isGroupMember(groupId, userId) && leaderboardService.getGroupSize(groupId) > 0) {
+            throw new ResourceNotFoundException("Leaderboard group", "groupId", groupId);
+        }
+        Set<Long> userIds = new LinkedHashSet<>();
+        for (String member : usernames) {
+            userIds.add(redisService.getUserIdByUsername(member));
+        }
+
+        int invited = leaderboardService.inviteGroupMembers(groupId, userId, userIds);
+        log.info("User {} invited {} players to leaderboard group {}", username, invited, groupId);
+        return invited;
+    }
+
+    @Override
+    public void acceptLeaderboardGroupInvite(String groupId, String username) {
+        Long userId = redisService.getUserIdByUsername(username);
+        if (!leaderboardService.acceptGroupInvite(groupId, userId)) {
+            throw new ResourceNotFoundException("Leaderboard group invite", "groupId", groupId);
+        }
+        log.info("User {} joined leaderboard group {}", username, groupId);
+    }
+
+    @Override
+    public void leaveLeaderboardGroup(String groupId, String username) {
+        Long userId = redisService.getUserIdByUsername(username);
+        leaderboardService.removeGroupMember(groupId, userId);
+        log.info("User {} left leaderboard group {}", username, groupId);
+    }
+
+    @Override
+    public LeaderboardPageResponse getGroupLeaderboardPage(String groupId, String username, long cursor, int size) {
+        log.debug("Fetching group {} leaderboard page - cursor: {}, size: {}", groupId, cursor, size);
+
+        Long userId = redisService.getUserIdByUsername(username);
+        // Private board: non-members get the same answer as for a missing group
+        if (!leaderboardService.isGroupMember(groupId, userId)) {
+            throw new ResourceNotFoundException("Leaderboard group", "groupId", groupId);
+        }
+        return leaderboardService.getGroupRankWindow(groupId, cursor, size);
+    }
+
     @Override
     @Transactional(readOnly = true)
     public List<TransactionResponse> getTransactionHistory(String username) {
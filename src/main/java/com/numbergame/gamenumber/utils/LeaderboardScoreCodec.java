@@ -0,0 +1,56 @@
+package com.numbergame.gamenumber.utils;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+
+/**
+ * Composite ZSET score for the global leaderboard
+ *
+ * composite = score * 2^32 + (2^32 - 1 - secondsSince(2025-01-01) of the moment the score was reached)
+ *
+ * - Higher score always wins (score lives in the high bits)
+ * - Equal scores: the earlier achiever has the bigger low part, so ranks higher
+ * - Exact in a double: 21 score bits + 32 time bits = 53-bit mantissa
+ * - Rank stays a plain ZREVRANK (O(log N)), no extra lookup to break ties
+ */
+public class LeaderboardScoreCodec {
+
+    // 2025-01-01T00:00:00Z, 32 bits of seconds from here last until 2161
+    private static final long EPOCH_SECONDS = 1735689600L;
+    private static final double SCORE_SHIFT = 4294967296d; // 2^32
+    private static final long MAX_TIEBREAK = 0xFFFFFFFFL;
+
+    // Largest score that keeps the composite exact
+    public static final int MAX_SCORE = (1 << 21) - 1;
+
+    private LeaderboardScoreCodec() {
+    }
+
+    /**
+     * Tie-break part for a score reached at the given instant (earlier = bigger)
+     * Unknown time gets 0, i.e. ranks after every known achiever with the same score
+     */
+    public static long tiebreak(Instant achievedAt) {
+        if (achievedAt == null) {
+            return 0L;
+        }
+        long seconds = Math.min(Math.max(achievedAt.getEpochSecond() - EPOCH_SECONDS, 0L), MAX_TIEBREAK);
+        return MAX_TIEBREAK - seconds;
+    }
+
+    /**
+     * Tie-break part for a DB timestamp (stored in the JVM zone, like the JPA entities)
+     */
+    public static long tiebreak(LocalDateTime achievedAt) {
+        return achievedAt == null ? 0L : tiebreak(achievedAt.atZone(ZoneId.systemDefault()).toInstant());
+    }
+
+    public static double encode(int score, long tiebreak) {
+        return Math.min(score, MAX_SCORE) * SCORE_SHIFT + tiebreak;
+    }
+
+    public static int decodeScore(double composite) {
+        return (int) Math.floor(composite / SCORE_SHIFT);
+    }
+}
@@ -0,0 +1,122 @@
+package com.numbergame.gamenumber.utils;
+
+import org.springframework.data.redis.core.ZSetOperations;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.PriorityQueue;
+
+/**
+ * Where the global leaderboard lives in Redis
+ *
+ * Single (default): one sorted set and its page-cache keys
+ *   leaderboard:global, leaderboard:cache:version, leaderboard:cache:limits
+ * Sharded (N > 1): users split by hash(userId) mod N, each shard with its own page-cache keys,
+ * all under the shard's hash tag so one script call never spans two cluster slots
+ *   leaderboard:{3}:global, leaderboard:{3}:cache:version, leaderboard:{3}:cache:limits
+ *
+ * Top-N is a k-way merge of each shard's top-N, a rank is the sum of per-shard counts above.
+ */
+public class LeaderboardShards {
+
+    private static final String SINGLE_BOARD_KEY = "leaderboard:global";
+    private static final String SINGLE_VERSION_KEY = "leaderboard:cache:version";
+    private static final String SINGLE_LIMITS_KEY = "leaderboard:cache:limits";
+
+    /**
+     * Global order of the merged lists, same as ZREVRANGE: composite score desc, then member desc
+     */
+    public static final Comparator<ZSetOperations.TypedTuple<String>> ORDER =
+        Comparator.<ZSetOperations.TypedTuple<String>>comparingDouble(ZSetOperations.TypedTuple::getScore)
+            .thenComparing(ZSetOperations.TypedTuple::getValue)
+            .reversed();
+
+    private final int count;
+
+    public LeaderboardShards(int count) {
+        if (count < 1) {
+            throw new IllegalArgumentException("Shard count must be positive");
+        }
+        this.count = count;
+    }
+
+    public boolean isSharded() {
+        return count > 1;
+    }
+
+    public int getCount() {
+        return count;
+    }
+
+    public int shardOf(long userId) {
+        return Math.floorMod(Long.hashCode(userId), count);
+    }
+
+    /**
+     * Sorted set of one shard, e.g. boardKey(shardOf(42))
+     */
+    public String boardKey(int shard) {
+        return isSharded() ? "leaderboard:{" + shard + "}:global" : SINGLE_BOARD_KEY;
+    }
+
+    /**
+     * Hash of cached page limit -> version, bumped by writes to this shard
+     */
+    public String versionKey(int shard) {
+        return isSharded() ? "leaderboard:{" + shard + "}:cache:version" : SINGLE_VERSION_KEY;
+    }
+
+    /**
+     * Set of page limits currently cached, checked by writes to this shard
+     */
+    public String limitsKey(int shard) {
+        return isSharded() ? "leaderboard:{" + shard + "}:cache:limits" : SINGLE_LIMITS_KEY;
+    }
+
+    /**
+     * Temporary board of a rebuild, same slot as the live board so it can be RENAMEd over it
+     */
+    public String rebuildKey(int shard, String rebuildId) {
+        return boardKey(shard) + ":rebuild:" + rebuildId;
+    }
+
+    /**
+     * Ranks [start, stop] of the union of per-shard lists, each sorted in ORDER and holding at least
+     * its own top (stop + 1): every entry of the global top (stop + 1) is in one of them
+     */
+    public static List<ZSetOperations.TypedTuple<String>> merge(List<List<ZSetOperations.TypedTuple<String>>> shards,
+                                                                 long start, long stop) {
+        // Heap of shard heads, always pop the globally highest
+        PriorityQueue<Cursor> heads = new PriorityQueue<>();
+        for (List<ZSetOperations.TypedTuple<String>> shard : shards) {
+            Iterator<ZSetOperations.TypedTuple<String>> it = shard.iterator();
+            if (it.hasNext()) {
+                heads.add(new Cursor(it.next(), it));
+            }
+        }
+
+        List<ZSetOperations.TypedTuple<String>> merged = new ArrayList<>();
+        long rank = 0;
+        while (!heads.isEmpty() && rank <= stop) {
+            Cursor head = heads.poll();
+            if (rank++ >= start) {
+                merged.add(head.current());
+            }
+            if (head.rest().hasNext()) {
+                heads.add(new Cursor(head.rest().next(), head.rest()));
+            }
+        }
+        return merged;
+    }
+
+    private record Cursor(ZSetOperations.TypedTuple<String> current,
+                          Iterator<ZSetOperations.TypedTuple<String>> rest) implements Comparable<Cursor> {
+
+        @Override
+        public int compareTo(Cursor other) {
+            return ORDER.compare(current, other.current);
+        }
+    }
+}
@@ -0,0 +1,193 @@
+package com.numbergame.gamenumber.utils;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Indexable skip list (same layout as the Redis ZSET skip list)
+ *
+ * Each forward link stores its span (number of elements it jumps over), so besides
+ * add/remove the list answers "rank of element" and "element at rank" in O(log N).
+ *
+ * Not thread-safe: callers guard it with their own lock.
+ */
+public class RankedSkipList<E> {
+
+    private static final int MAX_LEVEL = 32;
+    private static final double LEVEL_PROBABILITY = 0.25;
+
+    private final Comparator<? super E> comparator;
+    private final Node<E> head = new Node<>(null, MAX_LEVEL);
+    private int level = 1;
+    private int size;
+
+    public RankedSkipList(Comparator<? super E> comparator) {
+        this.comparator = comparator;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Insert an element, O(log N)
+     * @return false if an equal element is already present
+     */
+    @SuppressWarnings("unchecked")
+    public boolean add(E value) {
+        Node<E>[] update = new Node[MAX_LEVEL];
+        int[] rank = new int[MAX_LEVEL];
+
+        Node<E> x = head;
+        for (int i = level - 1; i >= 0; i--) {
+            rank[i] = i == level - 1 ? 0 : rank[i + 1];
+            while (x.next[i] != null && comparator.compare(x.next[i].value, value) < 0) {
+                rank[i] += x.span[i];
+                x = x.next[i];
+            }
+            update[i] = x;
+        }
+
+        if (x.next[0] != null && comparator.compare(x.next[0].value, value) == 0) {
+            return false;
+        }
+
+        int nodeLevel = randomLevel();
+        if (nodeLevel > level) {
+            for (int i = level; i < nodeLevel; i++) {
+                rank[i] = 0;
+                update[i] = head;
+                update[i].span[i] = size;
+            }
+            level = nodeLevel;
+        }
+
+        Node<E> node = new Node<>(value, nodeLevel);
+        for (int i = 0; i < nodeLevel; i++) {
+            node.next[i] = update[i].next[i];
+            update[i].next[i] = node;
+            node.span[i] = update[i].span[i] - (rank[0] - rank[i]);
+            update[i].span[i] = rank[0] - rank[i] + 1;
+        }
+        for (int i = nodeLevel; i < level; i++) {
+            update[i].span[i]++;
+        }
+
+        size++;
+        return true;
+    }
+
+    /**
+     * Remove an element, O(log N)
+     * @return false if the element was not present
+     */
+    @SuppressWarnings("unchecked")
+    public boolean remove(E value) {
+        Node<E>[] update = new Node[MAX_LEVEL];
+
+        Node<E> x = head;
+        for (int i = level - 1; i >= 0; i--) {
+            while (x.next[i] != null && comparator.compare(x.next[i].value, value) < 0) {
+                x = x.next[i];
+            }
+            update[i] = x;
+        }
+
+        x = x.next[0];
+        if (x == null || comparator.compare(x.value, value) != 0) {
+            return false;
+        }
+
+        for (int i = 0; i < level; i++) {
+            if (update[i].next[i] == x) {
+                update[i].span[i] += x.span[i] - 1;
+                update[i].next[i] = x.next[i];
+            } else {
+                update[i].span[i]--;
+            }
+        }
+        while (level > 1 && head.next[level - 1] == null) {
+            level--;
+        }
+
+        size--;
+        return true;
+    }
+
+    /**
+     * 0-based position of an element in comparator order, O(log N)
+     * @return Rank, or -1 if the element is not present
+     */
+    public int rankOf(E value) {
+        int rank = 0;
+        Node<E> x = head;
+        for (int i = level - 1; i >= 0; i--) {
+            while (x.next[i] != null && comparator.compare(x.next[i].value, value) <= 0) {
+                rank += x.span[i];
+                x = x.next[i];
+            }
+        }
+        return x != head && comparator.compare(x.value, value) == 0 ? rank - 1 : -1;
+    }
+
+    /**
+     * Up to count elements starting at a 0-based position, O(log N + count)
+     */
+    public List<E> range(int start, int count) {
+        List<E> result = new ArrayList<>(Math.max(Math.min(count, size - start), 0));
+        if (start < 0 || start >= size || count <= 0) {
+            return result;
+        }
+
+        // Walk down to the node at 1-based position start + 1
+        int traversed = 0;
+        Node<E> x = head;
+        for (int i = level - 1; i >= 0; i--) {
+            while (x.next[i] != null && traversed + x.span[i] <= start + 1) {
+                traversed += x.span[i];
+                x = x.next[i];
+            }
+        }
+
+        while (x != null && result.size() < count) {
+            result.add(x.value);
+            x = x.next[0];
+        }
+        return result;
+    }
+
+    /**
+     * All elements in comparator order
+     */
+    public List<E> toList() {
+        List<E> result = new ArrayList<>(size);
+        for (Node<E> x = head.next[0]; x != null; x = x.next[0]) {
+            result.add(x.value);
+        }
+        return result;
+    }
+
+    private static int randomLevel() {
+        int nodeLevel = 1;
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        while (nodeLevel < MAX_LEVEL && random.nextDouble() < LEVEL_PROBABILITY) {
+            nodeLevel++;
+        }
+        return nodeLevel;
+    }
+
+    private static final class Node<E> {
+        private final E value;
+        private final Node<E>[] next;
+        private final int[] span;
+
+        @SuppressWarnings("unchecked")
+        private Node(E value, int level) {
+            this.value = value;
+            this.next = new Node[level];
+            this.span = new int[level];
+        }
+    }
+}
@@ -0,0 +1,82 @@
+package com.numbergame.gamenumber.utils;
+
+/**
+ * Score histogram used to estimate a rank without the sorted set or the database
+ *
+ * Fixed-width buckets [i * width, (i + 1) * width); the last bucket is open-ended.
+ * countAbove(score) = players in higher buckets + a linear share of the score's own bucket,
+ * so the error is bounded by the number of players in that bucket (bucketCount(score)).
+ *
+ * Not thread-safe: callers guard it with their own lock.
+ */
+public class ScoreHistogram {
+
+    private final int bucketWidth;
+    private final long[] counts;
+    private long total;
+
+    public ScoreHistogram(int bucketWidth, int buckets) {
+        if (bucketWidth < 1 || buckets < 1) {
+            throw new IllegalArgumentException("Bucket width and bucket count must be positive");
+        }
+        this.bucketWidth = bucketWidth;
+        this.counts = new long[buckets];
+    }
+
+    public void add(int score) {
+        counts[bucketOf(score)]++;
+        total++;
+    }
+
+    public void remove(int score) {
+        int bucket = bucketOf(score);
+        if (counts[bucket] > 0) {
+            counts[bucket]--;
+            total--;
+        }
+    }
+
+    /**
+     * Move one player from oldScore to newScore, O(1)
+     */
+    public void move(int oldScore, int newScore) {
+        remove(oldScore);
+        add(newScore);
+    }
+
+    public long total() {
+        return total;
+    }
+
+    /**
+     * Estimated number of players with a higher score, O(buckets)
+     */
+    public long countAbove(int score) {
+        int bucket = bucketOf(score);
+        long above = 0;
+        for (int i = bucket + 1; i < counts.length; i++) {
+            above += counts[i];
+        }
+
+        // Open-ended last bucket: no upper bound to interpolate against, rank at its top
+        if (bucket == counts.length - 1) {
+            return above;
+        }
+
+        // Assume scores are spread evenly inside the bucket
+        long upperBound = (long) (bucket + 1) * bucketWidth;
+        double shareAbove = (double) (upperBound - 1 - Math.max(score, 0)) / bucketWidth;
+        return above + Math.round(counts[bucket] * shareAbove);
+    }
+
+    /**
+     * Players sharing the score's bucket, i.e. the maximum error of countAbove(score)
+     */
+    public long bucketCount(int score) {
+        return counts[bucketOf(score)];
+    }
+
+    private int bucketOf(int score) {
+        return (int) Math.min(Math.max(score, 0) / bucketWidth, counts.length - 1);
+    }
+}
@@ -0,0 +1,52 @@
+package com.numbergame.gamenumber.utils;
+
+/**
+ * Where a user's hash fields live in Redis
+ *
+ * Per-user (default): one hash per user, plain field names
+ *   user:state:42 -> score, turns, streak, version, achieved
+ * Bucketed: users grouped by userId / bucketSize into shared hashes, field names prefixed with the id
+ *   user:state:b0 -> 42:score, 42:turns, 42:streak, 42:version, 43:score, ...
+ *
+ * Small bucket hashes stay in Redis' listpack encoding (no per-key dictEntry/robj/expire overhead),
+ * as long as bucketSize * fields per user <= hash-max-listpack-entries. TTL is per bucket.
+ */
+public class UserKeyLayout {
+
+    private final boolean bucketed;
+    private final int bucketSize;
+
+    public UserKeyLayout(boolean bucketed, int bucketSize) {
+        if (bucketSize < 1) {
+            throw new IllegalArgumentException("Bucket size must be positive");
+        }
+        this.bucketed = bucketed;
+        this.bucketSize = bucketSize;
+    }
+
+    public boolean isBucketed() {
+        return bucketed;
+    }
+
+    public int getBucketSize() {
+        return bucketSize;
+    }
+
+    /**
+     * Hash holding the user's fields, e.g. key("user:state:", 42)
+     */
+    public String key(String prefix, long userId) {
+        return bucketed ? prefix + "b" + (userId / bucketSize) : prefix + userId;
+    }
+
+    /**
+     * Prefix of the user's field names inside the hash ("" in the per-user layout)
+     */
+    public String fieldPrefix(long userId) {
+        return bucketed ? userId + ":" : "";
+    }
+
+    public String field(long userId, String name) {
+        return fieldPrefix(userId) + name;
+    }
+}
@@ -0,0 +1,256 @@
+package com.numbergame.gamenumber.utils;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.locks.StampedLock;
+
+/**
+ * Bounded near-cache of per-user game state keyed by primitive userId
+ *
+ * Open addressing (linear probing, backward-shift deletion) over parallel primitive arrays:
+ * no boxing, no per-entry objects; about 70 bytes per cached user at 1M capacity.
+ * Each slot packs score, turns, streak, version (low 32 bits), achieved-at (epoch second) and an expiry second.
+ *
+ * - Reads: optimistic StampedLock read, no lock taken unless a writer interleaves
+ * - Eviction: CLOCK (second chance) once capacity is reached
+ * - Invalidation: striped counters; a value read from Redis is only stored if no invalidation hit
+ *   its stripe since the read started (see stamp/put), so a late put cannot resurrect stale state
+ */
+public class UserStateCache {
+
+    public static final int SCORE = 0;
+    public static final int TURNS = 1;
+    public static final int STREAK = 2;
+    public static final int VERSION = 3;
+    public static final int ACHIEVED_AT = 4;
+    public static final int FIELDS = 5;
+
+    private static final int STRIDE = 6; // score, turns, streak, version, achievedAt, expiresAt (s)
+    private static final int EXPIRES_AT = 5;
+    private static final long EMPTY = Long.MIN_VALUE;
+    private static final int STRIPES = 1024;
+
+    private final int capacity;
+    private final int mask;
+    private final int ttlSeconds;
+    private final long originNanos = System.nanoTime();
+
+    private final long[] keys;
+    private final int[] values;
+    private final byte[] referenced;
+    private final AtomicIntegerArray invalidations = new AtomicIntegerArray(STRIPES);
+    private final StampedLock lock = new StampedLock();
+
+    private int size;
+    private int hand;
+
+    public UserStateCache(int capacity, int ttlSeconds) {
+        if (capacity < 1 || ttlSeconds < 1) {
+            throw new IllegalArgumentException("Capacity and TTL must be positive");
+        }
+        // Load factor <= 0.75 keeps linear probe sequences short
+        int slots = Integer.highestOneBit(Math.max(capacity * 4 / 3, 2) - 1) << 1;
+        this.capacity = capacity;
+        this.mask = slots - 1;
+        this.ttlSeconds = ttlSeconds;
+        this.keys = new long[slots];
+        this.values = new int[slots * STRIDE];
+        this.referenced = new byte[slots];
+        Arrays.fill(keys, EMPTY);
+    }
+
+    /**
+     * Copy a user's fields into {@code into} (FIELDS long, indexed by SCORE, TURNS, STREAK, VERSION, ACHIEVED_AT)
+     * VERSION and ACHIEVED_AT hold the low 32 bits, read them with Integer.toUnsignedLong
+     * @return false on a miss or an expired entry
+     */
+    public boolean get(long userId, int[] into) {
+        long stamp = lock.tryOptimisticRead();
+        boolean found = read(userId, into);
+        if (!lock.validate(stamp)) {
+            stamp = lock.readLock();
+            try {
+                found = read(userId, into);
+            } finally {
+                lock.unlockRead(stamp);
+            }
+        }
+        return found;
+    }
+
+    /**
+     * Invalidation counter of the user's stripe, taken before reading the state from Redis
+     */
+    public int stamp(long userId) {
+        return invalidations.get(stripe(userId));
+    }
+
+    /**
+     * Store state read from Redis, unless the user's stripe was invalidated since {@code stamp}
+     */
+    public void put(long userId, int stamp, int score, int turns, int streak, long version, long achievedAt) {
+        long writeStamp = lock.writeLock();
+        try {
+            if (invalidations.get(stripe(userId)) != stamp) {
+                return;
+            }
+
+            int slot = find(userId);
+            if (slot < 0) {
+                if (size >= capacity) {
+                    evictOne();
+                }
+                slot = insertionSlot(userId);
+                keys[slot] = userId;
+                size++;
+            }
+
+            int base = slot * STRIDE;
+            values[base + SCORE] = score;
+            values[base + TURNS] = turns;
+            values[base + STREAK] = streak;
+            values[base + VERSION] = (int) version;
+            values[base + ACHIEVED_AT] = (int) achievedAt;
+            values[base + EXPIRES_AT] = nowSeconds() + ttlSeconds;
+            referenced[slot] = 1;
+        } finally {
+            lock.unlockWrite(writeStamp);
+        }
+    }
+
+    /**
+     * Drop a user's entry; a put started before this call is discarded
+     */
+    public void invalidate(long userId) {
+        invalidations.incrementAndGet(stripe(userId));
+        long writeStamp = lock.writeLock();
+        try {
+            int slot = find(userId);
+            if (slot >= 0) {
+                removeAt(slot);
+            }
+        } finally {
+            lock.unlockWrite(writeStamp);
+        }
+    }
+
+    /**
+     * Drop everything (lost invalidation channel)
+     */
+    public void clear() {
+        for (int i = 0; i < STRIPES; i++) {
+            invalidations.incrementAndGet(i);
+        }
+        long writeStamp = lock.writeLock();
+        try {
+            Arrays.fill(keys, EMPTY);
+            Arrays.fill(referenced, (byte) 0);
+            size = 0;
+        } finally {
+            lock.unlockWrite(writeStamp);
+        }
+    }
+
+    public int size() {
+        long stamp = lock.readLock();
+        try {
+            return size;
+        } finally {
+            lock.unlockRead(stamp);
+        }
+    }
+
+    public int capacity() {
+        return capacity;
+    }
+
+    private boolean read(long userId, int[] into) {
+        int slot = find(userId);
+        if (slot < 0) {
+            return false;
+        }
+        int base = slot * STRIDE;
+        if (values[base + EXPIRES_AT] - nowSeconds() <= 0) {
+            return false;
+        }
+        into[SCORE] = values[base + SCORE];
+        into[TURNS] = values[base + TURNS];
+        into[STREAK] = values[base + STREAK];
+        into[VERSION] = values[base + VERSION];
+        into[ACHIEVED_AT] = values[base + ACHIEVED_AT];
+        referenced[slot] = 1; // benign race: only a CLOCK hint
+        return true;
+    }
+
+    private int find(long userId) {
+        for (int slot = home(userId); ; slot = (slot + 1) & mask) {
+            long key = keys[slot];
+            if (key == userId) {
+                return slot;
+            }
+            if (key == EMPTY) {
+                return -1;
+            }
+        }
+    }
+
+    private int insertionSlot(long userId) {
+        int slot = home(userId);
+        while (keys[slot] != EMPTY) {
+            slot = (slot + 1) & mask;
+        }
+        return slot;
+    }
+
+    /**
+     * CLOCK: clear reference bits until an unreferenced entry is found, evict it
+     */
+    private void evictOne() {
+        while (true) {
+            int slot = hand;
+            hand = (hand + 1) & mask;
+            if (keys[slot] == EMPTY) {
+                continue;
+            }
+            if (referenced[slot] != 0) {
+                referenced[slot] = 0;
+                continue;
+            }
+            removeAt(slot);
+            return;
+        }
+    }
+
+    /**
+     * Backward-shift deletion: pull later entries of the probe run into the gap (no tombstones)
+     */
+    private void removeAt(int slot) {
+        int gap = slot;
+        for (int i = (slot + 1) & mask; keys[i] != EMPTY; i = (i + 1) & mask) {
+            int home = home(keys[i]);
+            // Entry may move back to the gap if the gap lies on its probe path [home, i)
+            if (((i - home) & mask) >= ((i - gap) & mask)) {
+                keys[gap] = keys[i];
+                System.arraycopy(values, i * STRIDE, values, gap * STRIDE, STRIDE);
+                referenced[gap] = referenced[i];
+                gap = i;
+            }
+        }
+        keys[gap] = EMPTY;
+        referenced[gap] = 0;
+        size--;
+    }
+
+    private int home(long userId) {
+        long h = userId * 0x9E3779B97F4A7C15L;
+        return (int) (h ^ (h >>> 32)) & mask;
+    }
+
+    private static int stripe(long userId) {
+        return (int) (userId ^ (userId >>> 32)) & (STRIPES - 1);
+    }
+
+    private int nowSeconds() {
+        return (int) ((System.nanoTime() - originNanos) / 1_000_000_000L);
+    }
+}
@@ -0,0 +1,27 @@
+-- Compare-and-set for the loss streak (version check instead of a lock)
+--
+-- KEYS[1] user:state:{id} (hash: score, turns, streak, version, achieved)
+-- ARGV[1] expected streak   ARGV[2] new streak
+-- ARGV[3] TTL (s), negative in the bucketed layout (see lib/state-ttl.lua, prepended at load time)
+-- ARGV[4] field name prefix ("" per-user layout, "{id}:" bucketed layout)
+-- ARGV[5] user id
+--
+-- Returns 1 when written, 0 when another guess changed the streak first,
+-- -2 when the game data is not cached (nothing written: the caller seeds from the DB and retries)
+
+local f = ARGV[4]
+if redis.call('HEXISTS', KEYS[1], f .. 'score') == 0 then
+    return -2
+end
+
+local current = tonumber(redis.call('HGET', KEYS[1], f .. 'streak') or '0')
+if current ~= tonumber(ARGV[1]) then
+    return 0
+end
+
+local pinned = pinnedBucket(KEYS[1], ARGV[3])
+redis.call('HSET', KEYS[1], f .. 'streak', ARGV[2])
+redis.call('HINCRBY', KEYS[1], f .. 'version', 1)
+touchClean(KEYS[1], ARGV[3], pinned)
+redis.call('PUBLISH', 'user:state:changed', ARGV[5]) -- near-cache invalidation (RedisServiceImpl.STATE_CHANNEL)
+return 1
@@ -0,0 +1,24 @@
+-- Decrement-if-positive for turns (lock-free, atomic)
+--
+-- KEYS[1] user:state:{id} (hash: score, turns, streak, version, achieved)   KEYS[2] dirty:users
+-- ARGV[1] game data TTL (s), negative in the bucketed layout (see lib/state-ttl.lua, prepended at load time)
+-- ARGV[2] user id
+-- ARGV[3] field name prefix ("" per-user layout, "{id}:" bucketed layout)
+--
+-- Returns remaining turns after deduction, -1 = insufficient turns, -2 = not cached
+
+local f = ARGV[3]
+local turns = redis.call('HGET', KEYS[1], f .. 'turns')
+if not turns then
+    return -2
+end
+if tonumber(turns) <= 0 then
+    return -1
+end
+
+local remaining = redis.call('HINCRBY', KEYS[1], f .. 'turns', -1)
+redis.call('HINCRBY', KEYS[1], f .. 'version', 1)
+touchDirty(KEYS[1], ARGV[1])
+redis.call('SADD', KEYS[2], ARGV[2])
+redis.call('PUBLISH', 'user:state:changed', ARGV[2]) -- near-cache invalidation (RedisServiceImpl.STATE_CHANNEL)
+return remaining
@@ -0,0 +1,68 @@
+-- Atomic guess script: turn deduction + pity/streak update + score + metric boards in ONE round-trip
+-- (statsCached / recordMetrics come from lib/player-metrics.lua, touchDirty from lib/state-ttl.lua,
+--  prepended at load time)
+--
+-- KEYS[1] user:state:{id}        (hash: score, turns, streak, version, achieved)
+-- KEYS[2] dirty:users            KEYS[3] player:stats:{id}
+--   (bucketed layout: user:state:b{id / size} / player:stats:b{id / size}, fields "{id}:score", ...)
+-- KEYS[4] leaderboard:metric:games
+-- KEYS[5] leaderboard:metric:win_rate
+-- KEYS[6] leaderboard:metric:best_streak
+--
+-- ARGV[1] roll (uniform random in [0, 1) drawn by the app)
+-- ARGV[2] base win rate          ARGV[3] streak bonus rate
+-- ARGV[4] max loss streak        ARGV[5] score earned on win
+-- ARGV[6] game data TTL (s), negative in the bucketed layout (see lib/state-ttl.lua)
+-- ARGV[7] user id
+-- ARGV[8] minimum games to be ranked by win rate
+-- ARGV[9] field name prefix ("" per-user layout, "{id}:" bucketed layout)
+-- ARGV[10] now (epoch seconds), stored as 'achieved' when the score changes (leaderboard tie-break)
+--
+-- Returns {status, win, remainingTurns, totalScore, previousStreak, newStreak, achievedAt}
+--   status  1 = processed, -1 = insufficient turns, -2 = game data or player counters not cached
+
+local f = ARGV[9]
+local state = redis.call('HMGET', KEYS[1], f .. 'score', f .. 'turns', f .. 'streak', f .. 'achieved')
+local score = state[1]
+local turns = state[2]
+if not score or not turns or not statsCached(KEYS[3], f) then
+    return {-2}
+end
+
+turns = tonumber(turns)
+if turns <= 0 then
+    return {-1, 0, turns}
+end
+
+local streak = tonumber(state[3] or '0')
+
+-- Same formula as GameEngineImpl#calculateAdjustedRate: base + streak * bonus, capped at 100%
+local adjustedRate = math.min(tonumber(ARGV[2]) + streak * tonumber(ARGV[3]), 1.0)
+local win = 0
+if streak >= tonumber(ARGV[4]) or tonumber(ARGV[1]) < adjustedRate then
+    win = 1
+end
+
+turns = redis.call('HINCRBY', KEYS[1], f .. 'turns', -1)
+
+local newStreak = 0
+local achievedAt = tonumber(state[4] or '0')
+if win == 1 then
+    score = redis.call('HINCRBY', KEYS[1], f .. 'score', ARGV[5])
+    achievedAt = tonumber(ARGV[10])
+    redis.call('HSET', KEYS[1], f .. 'achieved', achievedAt)
+else
+    score = tonumber(score)
+    newStreak = streak + 1
+end
+redis.call('HSET', KEYS[1], f .. 'streak', newStreak)
+redis.call('HINCRBY', KEYS[1], f .. 'version', 1)
+touchDirty(KEYS[1], ARGV[6])
+
+redis.call('SADD', KEYS[2], ARGV[7])
+redis.call('PUBLISH', 'user:state:changed', ARGV[7]) -- near-cache invalidation (RedisServiceImpl.STATE_CHANNEL)
+
+-- Metric boards (games, win rate, best win streak)
+recordMetrics(KEYS[3], KEYS[4], KEYS[5], KEYS[6], ARGV[7], win, ARGV[8], f, ARGV[6])
+
+return {1, win, turns, score, streak, newStreak, achievedAt}
@@ -0,0 +1,26 @@
+-- Atomic HINCRBY of one state field, only while the user's state is cached
+-- (on an expired hash HINCRBY would create the field from 0 and the delta would replace the DB balance)
+--
+-- KEYS[1] user:state:{id} (hash: score, turns, streak, version, achieved)   KEYS[2] dirty:users
+-- ARGV[1] field name (score | turns)   ARGV[2] delta   ARGV[4] user id
+-- ARGV[3] game data TTL (s), negative in the bucketed layout (see lib/state-ttl.lua, prepended at load time)
+-- ARGV[5] field name prefix ("" per-user layout, "{id}:" bucketed layout)
+-- ARGV[6] now (epoch seconds), stored as 'achieved' when the score changes (leaderboard tie-break)
+--
+-- Returns {status, newValue}   status 1 = applied, -2 = game data not cached (nothing written)
+
+local f = ARGV[5]
+local state = redis.call('HMGET', KEYS[1], f .. 'score', f .. 'turns')
+if not state[1] or not state[2] then
+    return {-2, 0}
+end
+
+local value = redis.call('HINCRBY', KEYS[1], f .. ARGV[1], ARGV[2])
+if ARGV[1] == 'score' and tonumber(ARGV[2]) ~= 0 then
+    redis.call('HSET', KEYS[1], f .. 'achieved', ARGV[6])
+end
+redis.call('HINCRBY', KEYS[1], f .. 'version', 1)
+touchDirty(KEYS[1], ARGV[3])
+redis.call('SADD', KEYS[2], ARGV[4])
+redis.call('PUBLISH', 'user:state:changed', ARGV[4]) -- near-cache invalidation (RedisServiceImpl.STATE_CHANNEL)
+return {1, value}
@@ -0,0 +1,17 @@
+-- Accept an invite to a group leaderboard: moves the user from the invites to the members
+--
+-- KEYS[1] leaderboard:group:{<id>}:members
+-- KEYS[2] leaderboard:group:{<id>}:invites
+-- KEYS[3] leaderboard:group:{<id>}:board    (cached board, dropped so the next read sees the new member)
+--
+-- ARGV[1] user id
+--
+-- Returns 1 when the user joined, 0 if there was no pending invite
+
+if redis.call('SREM', KEYS[2], ARGV[1]) == 0 then
+    return 0
+end
+
+redis.call('SADD', KEYS[1], ARGV[1])
+redis.call('DEL', KEYS[3])
+return 1
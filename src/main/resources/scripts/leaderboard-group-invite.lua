@@ -0,0 +1,41 @@
+-- Invite players to a group leaderboard (only the owner invites; an invite is accepted by the invitee)
+--
+-- KEYS[1] leaderboard:group:{<id>}:members  (set of user ids)
+-- KEYS[2] leaderboard:group:{<id>}:invites  (set of invited user ids, not members yet)
+-- KEYS[3] leaderboard:group:{<id>}:owner    (user id of the owner)
+--
+-- ARGV[1] max members (members + pending invites)
+-- ARGV[2] caller id
+-- ARGV[3..] invited user ids
+--
+-- A group without owner and members does not exist yet: the caller creates it, as owner and first member.
+-- Pending invites count against the cap, so accepting never overflows the group.
+-- Returns the number of new invites, -1 if the caller is not the owner, -2 if the group would be too big
+
+local owner = redis.call('GET', KEYS[3])
+if not owner then
+    if redis.call('SCARD', KEYS[1]) > 0 then
+        return -1
+    end
+    redis.call('SET', KEYS[3], ARGV[2])
+    redis.call('SADD', KEYS[1], ARGV[2])
+elseif owner ~= ARGV[2] then
+    return -1
+end
+
+local invited = {}
+for i = 3, #ARGV do
+    local id = ARGV[i]
+    if redis.call('SISMEMBER', KEYS[1], id) == 0 and redis.call('SISMEMBER', KEYS[2], id) == 0 then
+        invited[#invited + 1] = id
+    end
+end
+
+if redis.call('SCARD', KEYS[1]) + redis.call('SCARD', KEYS[2]) + #invited > tonumber(ARGV[1]) then
+    return -2
+end
+
+if #invited > 0 then
+    redis.call('SADD', KEYS[2], unpack(invited))
+end
+return #invited
@@ -0,0 +1,26 @@
+-- Leave a group leaderboard, or decline a pending invite
+--
+-- KEYS[1] leaderboard:group:{<id>}:members
+-- KEYS[2] leaderboard:group:{<id>}:invites
+-- KEYS[3] leaderboard:group:{<id>}:owner
+-- KEYS[4] leaderboard:group:{<id>}:board
+--
+-- ARGV[1] user id
+--
+-- An owner who leaves gives up ownership: the remaining members keep the board, nobody can invite anymore.
+-- When the last member leaves, the group is gone (pending invites included) and its id can be reused.
+-- Returns 1 if the user was a member, 0 otherwise
+
+local removed = redis.call('SREM', KEYS[1], ARGV[1])
+redis.call('SREM', KEYS[2], ARGV[1])
+
+if redis.call('GET', KEYS[3]) == ARGV[1] then
+    redis.call('DEL', KEYS[3])
+end
+
+if redis.call('SCARD', KEYS[1]) == 0 then
+    redis.call('DEL', KEYS[2], KEYS[3], KEYS[4])
+elseif removed == 1 then
+    redis.call('DEL', KEYS[4])
+end
+return removed
@@ -0,0 +1,41 @@
+-- Group (friends / clan) leaderboard slice with usernames in one round-trip
+--
+-- KEYS[1] leaderboard:group:{<id>}:members  (set of user ids)
+-- KEYS[2] leaderboard:group:{<id>}:board    (cached intersection, short TTL)
+-- KEYS[3] leaderboard:names               (shared hash: user id -> username)
+-- KEYS[4] leaderboard:global
+--
+-- ARGV[1] start rank (0-based, inclusive)
+-- ARGV[2] stop rank (0-based, inclusive)
+-- ARGV[3] TTL of the cached group board (ms)
+--
+-- The cached board is (re)built with ZINTERSTORE when missing: set members weigh 0, so every entry
+-- keeps its global composite score (same order and tie-break as the global board).
+-- Cost of a rebuild: O(G) for G members, then reads are O(log G + M) like any board.
+-- Returns a flat list of triples: member, score, username (nil if the name is unknown).
+
+if redis.call('EXISTS', KEYS[2]) == 0 then
+    redis.call('ZINTERSTORE', KEYS[2], 2, KEYS[1], KEYS[4], 'WEIGHTS', 0, 1)
+    redis.call('PEXPIRE', KEYS[2], ARGV[3])
+end
+
+local range = redis.call('ZREVRANGE', KEYS[2], ARGV[1], ARGV[2], 'WITHSCORES')
+if #range == 0 then
+    return {}
+end
+
+local members = {}
+for i = 1, #range, 2 do
+    members[#members + 1] = range[i]
+end
+
+local names = redis.call('HMGET', KEYS[3], unpack(members))
+
+local result = {}
+for j = 1, #members do
+    result[#result + 1] = range[2 * j - 1]
+    result[#result + 1] = range[2 * j]
+    result[#result + 1] = names[j]
+end
+
+return result
@@ -0,0 +1,31 @@
+-- Leaderboard slice with usernames in one round-trip
+--
+-- KEYS[1] board sorted set (global or time window)
+-- KEYS[2] leaderboard:names (shared hash: user id -> username)
+--
+-- ARGV[1] start rank (0-based, inclusive)
+-- ARGV[2] stop rank (0-based, inclusive)
+--
+-- Returns a flat list of triples: member, score, username (nil if the name is unknown).
+-- O(log N + M) for the ZREVRANGE + O(M) for the HMGET.
+
+local range = redis.call('ZREVRANGE', KEYS[1], ARGV[1], ARGV[2], 'WITHSCORES')
+if #range == 0 then
+    return {}
+end
+
+local members = {}
+for i = 1, #range, 2 do
+    members[#members + 1] = range[i]
+end
+
+local names = redis.call('HMGET', KEYS[2], unpack(members))
+
+local result = {}
+for j = 1, #members do
+    result[#result + 1] = range[2 * j - 1]
+    result[#result + 1] = range[2 * j]
+    result[#result + 1] = names[j]
+end
+
+return result
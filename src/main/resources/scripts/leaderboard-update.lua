@@ -0,0 +1,63 @@
+-- Leaderboard score update with targeted (versioned) cache invalidation
+--
+-- KEYS[1] leaderboard:global           (or one shard: leaderboard:{s}:global)
+-- KEYS[2] leaderboard:cache:version   (hash: cached limit -> version; per shard: leaderboard:{s}:cache:version)
+-- KEYS[3] leaderboard:cache:limits    (set of limits that currently have a cached page; per shard likewise)
+-- KEYS[4] leaderboard:names           (shared hash: user id -> username; omitted in sharded mode, where the
+--                                      names are written by the caller so every key of a call shares one slot)
+--
+-- ARGV[1] pub/sub channel notified with the smallest affected rank when a cached page changed
+-- ARGV[2..] groups of 4: member (user id), score, username, tie-break (see LeaderboardScoreCodec)
+--
+-- ZSET scores are composite: score * 2^32 + tie-break, so equal scores rank earlier achievers first.
+-- The tie-break is only (re)written when the score itself changes.
+-- Scores only grow between rebuilds, so an entry is only ever raised: a lower score is a stale value
+-- coalesced by another node and flushed after a newer one. Lowering a score is left to the rebuild
+-- (RENAME of a fresh board) and to removeUser (ZREM).
+-- A cached top-L page only changes when some entry's old or new rank is < L,
+-- so only those limits get a new version. Unchanged scores touch nothing.
+-- In a shard the rank is a lower bound of the global rank: more pages may be bumped, never fewer.
+-- Returns the number of page versions bumped.
+
+local SCORE_SHIFT = 4294967296
+
+local affectedRank = nil
+
+for i = 2, #ARGV, 4 do
+    local member = ARGV[i]
+    local score = tonumber(ARGV[i + 1])
+
+    -- Always written: picks up renames, costs one field in a shared hash
+    if KEYS[4] then
+        redis.call('HSET', KEYS[4], member, ARGV[i + 2])
+    end
+
+    local oldComposite = redis.call('ZSCORE', KEYS[1], member)
+    if not oldComposite or math.floor(tonumber(oldComposite) / SCORE_SHIFT) < score then
+        local oldRank = redis.call('ZREVRANK', KEYS[1], member)
+        redis.call('ZADD', KEYS[1], score * SCORE_SHIFT + tonumber(ARGV[i + 3]), member)
+        local rank = redis.call('ZREVRANK', KEYS[1], member)
+        if oldRank and oldRank < rank then
+            rank = oldRank
+        end
+        if not affectedRank or rank < affectedRank then
+            affectedRank = rank
+        end
+    end
+end
+
+local bumped = 0
+if affectedRank then
+    for _, limit in ipairs(redis.call('SMEMBERS', KEYS[3])) do
+        if affectedRank < tonumber(limit) then
+            redis.call('HINCRBY', KEYS[2], limit, 1)
+            bumped = bumped + 1
+        end
+    end
+end
+
+if bumped > 0 then
+    redis.call('PUBLISH', ARGV[1], affectedRank)
+end
+
+return bumped
@@ -0,0 +1,21 @@
+-- Incremental update of the time-windowed boards (daily + season)
+--
+-- KEYS[1] leaderboard:daily:{yyyyMMdd}
+-- KEYS[2] leaderboard:season:{index}
+--
+-- ARGV[1] daily board TTL (seconds)
+-- ARGV[2] season board TTL (seconds)
+-- ARGV[3..] pairs: member (user id), points won since last flush
+--
+-- O(log N) per entry. Each board gets its TTL refreshed so old windows expire on their own.
+-- Returns the number of entries applied.
+
+for i = 3, #ARGV, 2 do
+    redis.call('ZINCRBY', KEYS[1], ARGV[i + 1], ARGV[i])
+    redis.call('ZINCRBY', KEYS[2], ARGV[i + 1], ARGV[i])
+end
+
+redis.call('EXPIRE', KEYS[1], ARGV[1])
+redis.call('EXPIRE', KEYS[2], ARGV[2])
+
+return (#ARGV - 2) / 2
@@ -0,0 +1,41 @@
+-- Per-player counters + metric boards for one finished guess
+-- Shared by guess.lua and player-metrics.lua: RedisServiceImpl prepends this file to both when loading them
+--
+-- stats            player:stats:{id} (hash: games, wins, winStreak, bestStreak; bucketed: "{id}:games", ...)
+-- gamesBoard       leaderboard:metric:games
+-- winRateBoard     leaderboard:metric:win_rate
+-- bestStreakBoard  leaderboard:metric:best_streak
+--
+-- The counters are copied to the users table by the batch sync (dirty:users), so the hash gets the game
+-- data TTL (touchDirty, lib/state-ttl.lua) and a missing hash is a cache miss to be seeded from the DB,
+-- never a fresh start from 0.
+
+local function statsCached(stats, f)
+    return redis.call('HEXISTS', stats, f .. 'games') == 1
+end
+
+-- O(log N) per board. Returns the number of games played.
+local function recordMetrics(stats, gamesBoard, winRateBoard, bestStreakBoard, member, win, minGames, f, ttl)
+    local games = redis.call('HINCRBY', stats, f .. 'games', 1)
+    local wins = redis.call('HINCRBY', stats, f .. 'wins', win)
+
+    local winStreak = 0
+    if win == 1 then
+        winStreak = redis.call('HINCRBY', stats, f .. 'winStreak', 1)
+    else
+        redis.call('HSET', stats, f .. 'winStreak', 0)
+    end
+
+    local best = tonumber(redis.call('HGET', stats, f .. 'bestStreak') or '0')
+    if winStreak > best then
+        redis.call('HSET', stats, f .. 'bestStreak', winStreak)
+        redis.call('ZADD', bestStreakBoard, winStreak, member)
+    end
+    touchDirty(stats, ttl)
+
+    redis.call('ZADD', gamesBoard, games, member)
+    if games >= tonumber(minGames) then
+        redis.call('ZADD', winRateBoard, math.floor(wins * 10000 / games), member)
+    end
+    return games
+end
@@ -0,0 +1,29 @@
+-- TTL of the user state and player counter hashes
+-- Shared by every script writing them: RedisServiceImpl prepends this file when loading them
+--
+-- ttl > 0 (per-user layout): every write refreshes the game data TTL, as before.
+-- ttl < 0 (bucketed layout, -TTL): a bucket holds up to 256 users, so losing it to expiry or eviction
+-- would drop the unsynced state of all of them. A write that marks its user dirty removes the bucket's
+-- TTL (PERSIST), and with a volatile-* maxmemory-policy a key without TTL is never evicted.
+-- release-state-bucket.lua gives the TTL back once the batch sync has persisted every user of the bucket.
+
+-- Write that adds the user to dirty:users
+local function touchDirty(key, ttl)
+    if tonumber(ttl) < 0 then
+        redis.call('PERSIST', key)
+    else
+        redis.call('EXPIRE', key, ttl)
+    end
+end
+
+-- Read BEFORE a write that leaves the user clean (seed, streak): a new key has no TTL either
+local function pinnedBucket(key, ttl)
+    return tonumber(ttl) < 0 and redis.call('TTL', key) == -1
+end
+
+-- Write that leaves the user clean: refreshes the TTL, never unpins a bucket holding dirty users
+local function touchClean(key, ttl, pinned)
+    if not pinned then
+        redis.call('EXPIRE', key, math.abs(tonumber(ttl)))
+    end
+end
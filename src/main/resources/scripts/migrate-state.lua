@@ -0,0 +1,53 @@
+-- Moves one user's state and counters from the previous key layout to the current one
+-- (cache miss while game.state.legacy-fallback is on, after game.state.bucketed was flipped)
+--
+-- KEYS[1] previous user:state hash   KEYS[2] current user:state hash
+-- KEYS[3] previous player:stats hash   KEYS[4] current player:stats hash   KEYS[5] dirty:users
+-- ARGV[1] previous field name prefix   ARGV[2] current field name prefix
+-- ARGV[3] game data TTL (s), negative in the bucketed layout (see lib/state-ttl.lua, prepended at load time)
+-- ARGV[4] user id
+--
+-- HSETNX into the current layout (never overwrites a write that already landed there), HDEL from the previous one.
+-- Moved values may not be persisted yet, so the user is marked dirty and the next batch sync writes them.
+-- Returns {score, turns, streak, version, achieved} as stored after the call, {} if score/turns are still missing
+
+local from, to = ARGV[1], ARGV[2]
+local moved = 0
+
+for _, name in ipairs({'score', 'turns', 'streak', 'achieved'}) do
+    local value = redis.call('HGET', KEYS[1], from .. name)
+    if value then
+        moved = moved + redis.call('HSETNX', KEYS[2], to .. name, value)
+        redis.call('HDEL', KEYS[1], from .. name)
+    end
+end
+
+-- Version only moves forward: readers holding a version from either layout must fail their CAS
+local version = redis.call('HGET', KEYS[1], from .. 'version')
+if version then
+    redis.call('HDEL', KEYS[1], from .. 'version')
+end
+if moved > 0 then
+    redis.call('HINCRBY', KEYS[2], to .. 'version', tonumber(version or 0) + 1)
+    redis.call('SADD', KEYS[5], ARGV[4])
+    touchDirty(KEYS[2], ARGV[3])
+    redis.call('PUBLISH', 'user:state:changed', ARGV[4]) -- near-cache invalidation (RedisServiceImpl.STATE_CHANNEL)
+end
+
+-- Counters move as a whole, like seed-state.lua seeds them
+local stats = redis.call('HMGET', KEYS[3], from .. 'games', from .. 'wins', from .. 'winStreak', from .. 'bestStreak')
+if stats[1] then
+    if redis.call('HSETNX', KEYS[4], to .. 'games', stats[1]) == 1 then
+        redis.call('HSET', KEYS[4], to .. 'wins', stats[2] or 0, to .. 'winStreak', stats[3] or 0,
+            to .. 'bestStreak', stats[4] or 0)
+        redis.call('SADD', KEYS[5], ARGV[4])
+        touchDirty(KEYS[4], ARGV[3])
+    end
+    redis.call('HDEL', KEYS[3], from .. 'games', from .. 'wins', from .. 'winStreak', from .. 'bestStreak')
+end
+
+local state = redis.call('HMGET', KEYS[2], to .. 'score', to .. 'turns', to .. 'streak', to .. 'version', to .. 'achieved')
+if not state[1] or not state[2] then
+    return {}
+end
+return {tonumber(state[1]), tonumber(state[2]), tonumber(state[3] or 0), tonumber(state[4] or 0), tonumber(state[5] or 0)}
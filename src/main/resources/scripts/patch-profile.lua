@@ -0,0 +1,17 @@
+-- Patch one field of a cached profile, only while the profile hash is complete
+-- (HSET on a missing hash would create a hash with no id and no TTL that is never read nor expired)
+--
+-- KEYS[1] user:profile:{username} (hash: id, email, createdAt, lastLogin)
+-- ARGV[1] field   ARGV[2] value   ARGV[3] username (published on user:profile:changed)
+--
+-- Returns 1 when patched, 0 when the profile was not cached (the next read loads it from the DB)
+
+local patched = 0
+if redis.call('HEXISTS', KEYS[1], 'id') == 1 then
+    redis.call('HSET', KEYS[1], ARGV[1], ARGV[2])
+    patched = 1
+end
+
+-- Published either way: other nodes may still hold the old value in tier 1
+redis.call('PUBLISH', 'user:profile:changed', ARGV[3]) -- UserProfileCacheServiceImpl.PROFILE_CHANNEL
+return patched
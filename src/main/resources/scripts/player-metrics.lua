@@ -0,0 +1,28 @@
+-- Per-player metrics + metric boards for one finished guess
+-- Used by the CONDITIONAL and LOCK guess modes; the SCRIPT mode does the same inside guess.lua
+-- (statsCached / recordMetrics come from lib/player-metrics.lua, touchDirty from lib/state-ttl.lua,
+--  prepended at load time)
+--
+-- KEYS[1] player:stats:{id}              (hash: games, wins, winStreak, bestStreak)
+--         bucketed layout: player:stats:b{id / size}, fields "{id}:games", ...
+-- KEYS[2] leaderboard:metric:games
+-- KEYS[3] leaderboard:metric:win_rate
+-- KEYS[4] leaderboard:metric:best_streak
+-- KEYS[5] dirty:users
+--
+-- ARGV[1] user id
+-- ARGV[2] 1 = win, 0 = loss
+-- ARGV[3] minimum games before the player is ranked by win rate
+-- ARGV[4] field name prefix ("" per-user layout, "{id}:" bucketed layout)
+-- ARGV[5] game data TTL (s), negative in the bucketed layout
+--
+-- Returns the number of games played, or -2 when the counters are not cached (nothing written)
+
+local f = ARGV[4]
+if not statsCached(KEYS[1], f) then
+    return -2
+end
+
+local games = recordMetrics(KEYS[1], KEYS[2], KEYS[3], KEYS[4], ARGV[1], tonumber(ARGV[2]), ARGV[3], f, ARGV[5])
+redis.call('SADD', KEYS[5], ARGV[1])
+return games
@@ -0,0 +1,28 @@
+-- Unconditional loss-streak update, used once the compare-and-set retries are exhausted
+-- (a win resets to 0, a loss adds 1 on top of whatever concurrent guesses left)
+-- Also the explicit streak reset (ARGV[1] = 1)
+--
+-- KEYS[1] user:state:{id} (hash: score, turns, streak, version, achieved)
+-- ARGV[1] 1 = win, 0 = loss
+-- ARGV[2] TTL (s), negative in the bucketed layout (see lib/state-ttl.lua, prepended at load time)
+-- ARGV[3] field name prefix ("" per-user layout, "{id}:" bucketed layout)
+-- ARGV[4] user id
+--
+-- Returns the new streak, or -2 when the game data is not cached (nothing written)
+
+local f = ARGV[3]
+if redis.call('HEXISTS', KEYS[1], f .. 'score') == 0 then
+    return -2
+end
+
+local pinned = pinnedBucket(KEYS[1], ARGV[2])
+local streak = 0
+if ARGV[1] == '1' then
+    redis.call('HSET', KEYS[1], f .. 'streak', 0)
+else
+    streak = redis.call('HINCRBY', KEYS[1], f .. 'streak', 1)
+end
+redis.call('HINCRBY', KEYS[1], f .. 'version', 1)
+touchClean(KEYS[1], ARGV[2], pinned)
+redis.call('PUBLISH', 'user:state:changed', ARGV[4]) -- near-cache invalidation (RedisServiceImpl.STATE_CHANNEL)
+return streak
@@ -0,0 +1,22 @@
+-- Gives a state bucket its TTL back once the batch sync has persisted its users (bucketed layout only)
+-- (dirty writes PERSIST the bucket, see lib/state-ttl.lua)
+--
+-- KEYS[1] user:state:b{n}   KEYS[2] player:stats:b{n}   KEYS[3] dirty:users
+-- ARGV[1] game data TTL (s)   ARGV[2..] ids of every user the bucket can hold
+--
+-- Returns 1 when the TTL was set, 0 while some user of the bucket is still dirty (nothing written)
+
+local ids = {}
+for i = 2, #ARGV do
+    ids[#ids + 1] = ARGV[i]
+end
+
+for _, dirty in ipairs(redis.call('SMISMEMBER', KEYS[3], unpack(ids))) do
+    if dirty == 1 then
+        return 0
+    end
+end
+
+redis.call('EXPIRE', KEYS[1], ARGV[1])
+redis.call('EXPIRE', KEYS[2], ARGV[1])
+return 1
@@ -0,0 +1,27 @@
+-- Season rollover: archive the live season board and start a fresh one, atomically
+--
+-- KEYS[1] leaderboard:season:live
+-- KEYS[2] leaderboard:season:meta          (hash: number, startedAt)
+-- KEYS[3] leaderboard:season:archive:<n>   (n = the season being closed)
+--
+-- ARGV[1] expected current season number (n)
+-- ARGV[2] start of the new season (epoch day)
+-- ARGV[3] TTL of the archive key (seconds)
+--
+-- RENAME is O(1): writes before the call land in season n, writes after it create a fresh live board.
+-- Compare-and-set on the season number: when several nodes race, only one closes season n.
+-- Returns the number of archived entries, or -1 if season n was already closed.
+
+if redis.call('HGET', KEYS[2], 'number') ~= ARGV[1] then
+    return -1
+end
+
+local archived = 0
+if redis.call('EXISTS', KEYS[1]) == 1 then
+    redis.call('RENAME', KEYS[1], KEYS[3])
+    redis.call('EXPIRE', KEYS[3], ARGV[3])
+    archived = redis.call('ZCARD', KEYS[3])
+end
+
+redis.call('HSET', KEYS[2], 'number', tonumber(ARGV[1]) + 1, 'startedAt', ARGV[2])
+return archived
@@ -0,0 +1,37 @@
+-- Initialize-if-absent of score/turns and the player counters after a cache miss
+-- (HSETNX: never overwrites a concurrent update)
+--
+-- KEYS[1] user:state:{id} (hash: score, turns, streak, version, achieved)
+-- KEYS[2] player:stats:{id} (hash: games, wins, winStreak, bestStreak)
+-- ARGV[1] score from DB   ARGV[2] turns from DB   ARGV[4] user id
+-- ARGV[3] game data TTL (s), negative in the bucketed layout (see lib/state-ttl.lua, prepended at load time)
+-- ARGV[5] field name prefix ("" per-user layout, "{id}:" bucketed layout)
+-- ARGV[6] epoch second the DB score was reached ("" = unknown)
+-- ARGV[7] games   ARGV[8] wins   ARGV[9] win streak   ARGV[10] best win streak (all from DB)
+--
+-- Returns {score, turns, streak, version, achieved} as stored after the call
+
+local f = ARGV[5]
+local statePinned = pinnedBucket(KEYS[1], ARGV[3])
+local statsPinned = pinnedBucket(KEYS[2], ARGV[3])
+
+local seeded = redis.call('HSETNX', KEYS[1], f .. 'score', ARGV[1])
+    + redis.call('HSETNX', KEYS[1], f .. 'turns', ARGV[2])
+if ARGV[6] ~= '' then
+    redis.call('HSETNX', KEYS[1], f .. 'achieved', ARGV[6])
+end
+
+if seeded > 0 then
+    redis.call('HINCRBY', KEYS[1], f .. 'version', 1)
+    touchClean(KEYS[1], ARGV[3], statePinned)
+    redis.call('PUBLISH', 'user:state:changed', ARGV[4]) -- near-cache invalidation (RedisServiceImpl.STATE_CHANNEL)
+end
+
+-- Counters are seeded as a whole: 'games' present means the hash was never evicted for this user
+if redis.call('HSETNX', KEYS[2], f .. 'games', ARGV[7]) == 1 then
+    redis.call('HSET', KEYS[2], f .. 'wins', ARGV[8], f .. 'winStreak', ARGV[9], f .. 'bestStreak', ARGV[10])
+end
+touchClean(KEYS[2], ARGV[3], statsPinned)
+
+local state = redis.call('HMGET', KEYS[1], f .. 'score', f .. 'turns', f .. 'streak', f .. 'version', f .. 'achieved')
+return {tonumber(state[1]), tonumber(state[2]), tonumber(state[3] or 0), tonumber(state[4] or 0), tonumber(state[5] or 0)}
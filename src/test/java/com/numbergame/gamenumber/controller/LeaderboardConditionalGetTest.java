@@ -0,0 +1,81 @@
+package com.numbergame.gamenumber.controller;
+
+import com.numbergame.gamenumber.service.ILeaderboardSnapshotService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.http.HttpHeaders;
+import org.springframework.test.context.bean.override.mockito.MockitoSpyBean;
+import org.springframework.test.web.servlet.MockMvc;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.hamcrest.Matchers.containsString;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.clearInvocations;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * GET /leaderboard revalidation: an unchanged board answers If-None-Match with 304,
+ * served from the in-memory snapshot without reading the leaderboard from Redis
+ */
+@SpringBootTest(properties = {
+        // Keep the scheduled refreshes out of the measured request
+        "leaderboard.snapshot.max-staleness-ms=600000",
+        "leaderboard.window.weekly-refresh-ms=600000",
+        "leaderboard.http.max-age-seconds=5"
+})
+@AutoConfigureMockMvc
+class LeaderboardConditionalGetTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ILeaderboardSnapshotService leaderboardSnapshotService;
+
+    @MockitoSpyBean(name = "redisTemplate")
+    private RedisTemplate<String, String> redisTemplate;
+
+    @Test
+    void unchangedBoardReturnsNotModifiedWithoutRedis() throws Exception {
+        leaderboardSnapshotService.refresh();
+
+        String etag = mockMvc.perform(get("/api/v1/leaderboard"))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.CACHE_CONTROL, containsString("max-age=5")))
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+        assertThat(etag).isNotBlank();
+
+        clearInvocations(redisTemplate);
+
+        mockMvc.perform(get("/api/v1/leaderboard").header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isNotModified())
+                .andExpect(header().string(HttpHeaders.ETAG, etag))
+                .andExpect(content().bytes(new byte[0]));
+
+        // No ZSET read, no page cache, no version lookup, no range script
+        verify(redisTemplate, never()).opsForZSet();
+        verify(redisTemplate, never()).opsForList();
+        verify(redisTemplate, never()).opsForHash();
+        verify(redisTemplate, never()).execute(any(RedisScript.class), anyList(), any(Object[].class));
+    }
+
+    @Test
+    void staleEtagGetsTheFullBoard() throws Exception {
+        leaderboardSnapshotService.refresh();
+
+        mockMvc.perform(get("/api/v1/leaderboard").header(HttpHeaders.IF_NONE_MATCH, "W/\"-1-0\""))
+                .andExpect(status().isOk())
+                .andExpect(header().exists(HttpHeaders.ETAG))
+                .andExpect(content().string(containsString("\"success\":true")));
+    }
+}
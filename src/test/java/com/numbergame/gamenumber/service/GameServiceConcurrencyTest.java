@@ -0,0 +1,117 @@
+package com.numbergame.gamenumber.service;
+
+import com.numbergame.gamenumber.dto.request.GuessRequest;
+import com.numbergame.gamenumber.dto.response.GuessResponse;
+import com.numbergame.gamenumber.entity.User;
+import com.numbergame.gamenumber.exception.custom.InsufficientTurnsException;
+import com.numbergame.gamenumber.repository.UserRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.redis.core.RedisTemplate;
+
+import java.util.Queue;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Lock-free guess mode: 1,000 parallel guesses for the same user must never
+ * spend more turns than the user owns, and never fail with GameLockException.
+ * The streak compare-and-set never writes into an evicted state hash
+ */
+@SpringBootTest(properties = "game.guess.mode=CONDITIONAL")
+class GameServiceConcurrencyTest {
+
+    private static final int PARALLEL_GUESSES = 1_000;
+    private static final int INITIAL_TURNS = 100;
+    private static final int THREADS = 64;
+
+    @Autowired
+    private IGameService gameService;
+
+    @Autowired
+    private IRedisService redisService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private RedisTemplate<String, String> redisTemplate;
+
+    private User user;
+
+    @BeforeEach
+    void setUp() {
+        user = userRepository.save(User.builder()
+                .username("race_" + UUID.randomUUID().toString().substring(0, 8))
+                .password("not-used")
+                .turns(INITIAL_TURNS)
+                .build());
+        redisService.initializeUserGameData(user.getId(), 0, INITIAL_TURNS);
+    }
+
+    @AfterEach
+    void tearDown() {
+        userRepository.deleteById(user.getId());
+    }
+
+    @Test
+    void turnsNeverGoNegativeUnderParallelGuesses() throws InterruptedException {
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        CountDownLatch start = new CountDownLatch(1);
+        AtomicInteger accepted = new AtomicInteger();
+        AtomicInteger rejected = new AtomicInteger();
+        Queue<Integer> remainingTurns = new ConcurrentLinkedQueue<>();
+        Queue<Throwable> unexpected = new ConcurrentLinkedQueue<>();
+
+        for (int i = 0; i < PARALLEL_GUESSES; i++) {
+            executor.submit(() -> {
+                try {
+                    start.await();
+                    GuessResponse response = gameService.guessNumber(user.getUsername(),
+                            GuessRequest.builder().number(1).build());
+                    accepted.incrementAndGet();
+                    remainingTurns.add(response.getRemainingTurns());
+                } catch (InsufficientTurnsException e) {
+                    rejected.incrementAndGet();
+                } catch (Throwable e) {
+                    unexpected.add(e);
+                }
+            });
+        }
+
+        start.countDown();
+        executor.shutdown();
+        assertThat(executor.awaitTermination(2, TimeUnit.MINUTES)).isTrue();
+
+        assertThat(unexpected).isEmpty();
+        assertThat(accepted.get()).isEqualTo(INITIAL_TURNS);
+        assertThat(rejected.get()).isEqualTo(PARALLEL_GUESSES - INITIAL_TURNS);
+        assertThat(remainingTurns).allMatch(turns -> turns >= 0);
+        assertThat(remainingTurns).doesNotHaveDuplicates();
+        assertThat(redisService.getUserTurns(user.getId())).isZero();
+    }
+
+    @Test
+    void streakCompareAndSetSeedsEvictedStateFirst() {
+        String stateKey = "user:state:" + user.getId();
+        redisTemplate.delete(stateKey);
+
+        assertThat(redisService.compareAndSetLossStreak(user.getId(), 0, 1)).isTrue();
+
+        // Full state seeded from the DB, not a hash holding only streak/version
+        assertThat(redisTemplate.<String, String>opsForHash().get(stateKey, "turns"))
+                .isEqualTo(String.valueOf(INITIAL_TURNS));
+        assertThat(redisTemplate.<String, String>opsForHash().get(stateKey, "streak")).isEqualTo("1");
+        assertThat(redisTemplate.getExpire(stateKey)).isPositive();
+    }
+}
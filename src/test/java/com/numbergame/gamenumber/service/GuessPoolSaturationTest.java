@@ -0,0 +1,93 @@
+package com.numbergame.gamenumber.service;
+
+import com.numbergame.gamenumber.dto.request.GuessRequest;
+import com.numbergame.gamenumber.entity.User;
+import com.numbergame.gamenumber.repository.UserRepository;
+import com.zaxxer.hikari.HikariDataSource;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Guesses must keep flowing while every pooled JDBC connection is held by other endpoints:
+ * the guess path never takes a connection once the user id and game data are cached
+ */
+@SpringBootTest(properties = {
+        "spring.datasource.hikari.maximum-pool-size=4",
+        "spring.datasource.hikari.minimum-idle=4",
+        "spring.datasource.hikari.connection-timeout=250",
+        "game.guess.mode=SCRIPT",
+        "game.history.write-behind.enabled=true",
+        "game.history.write-behind.flush-interval-ms=600000"
+})
+class GuessPoolSaturationTest {
+
+    private static final int GUESSES_WHILE_SATURATED = 20;
+
+    @Autowired
+    private IGameService gameService;
+
+    @Autowired
+    private IRedisService redisService;
+
+    @Autowired
+    private IGameHistoryWriter gameHistoryWriter;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private HikariDataSource dataSource;
+
+    private final List<Connection> heldConnections = new ArrayList<>();
+
+    private User user;
+
+    @BeforeEach
+    void setUp() {
+        user = userRepository.save(User.builder()
+                .username("pool_" + UUID.randomUUID().toString().substring(0, 8))
+                .password("not-used")
+                .turns(GUESSES_WHILE_SATURATED + 1)
+                .build());
+
+        // Warm the caches (user id + game data) with one guess while the pool is free
+        gameService.guessNumber(user.getUsername(), GuessRequest.builder().number(1).build());
+    }
+
+    @AfterEach
+    void tearDown() throws SQLException {
+        for (Connection connection : heldConnections) {
+            connection.close();
+        }
+        gameHistoryWriter.flush();
+        userRepository.deleteById(user.getId());
+    }
+
+    @Test
+    void guessesKeepFlowingWhenPoolIsSaturated() throws SQLException {
+        // Other endpoints hold every connection
+        for (int i = 0; i < dataSource.getMaximumPoolSize(); i++) {
+            heldConnections.add(dataSource.getConnection());
+        }
+        assertThatThrownBy(dataSource::getConnection).isInstanceOf(SQLException.class);
+
+        for (int i = 0; i < GUESSES_WHILE_SATURATED; i++) {
+            gameService.guessNumber(user.getUsername(), GuessRequest.builder().number(1).build());
+        }
+
+        assertThat(redisService.getUserTurns(user.getId())).isZero();
+        assertThat(gameHistoryWriter.getPendingCount()).isGreaterThanOrEqualTo(GUESSES_WHILE_SATURATED);
+    }
+}
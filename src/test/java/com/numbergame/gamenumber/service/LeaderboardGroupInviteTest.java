@@ -0,0 +1,79 @@
+package com.numbergame.gamenumber.service;
+
+import com.numbergame.gamenumber.exception.custom.ForbiddenOperationException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Group membership needs consent: only the owner invites, invitees join by accepting,
+ * and pending invites count toward the group size limit
+ */
+@SpringBootTest(properties = "leaderboard.group.max-members=3")
+class LeaderboardGroupInviteTest {
+
+    private static final long OWNER = 9_000_001L;
+    private static final long MEMBER = 9_000_002L;
+    private static final long OTHER = 9_000_003L;
+
+    @Autowired
+    private ILeaderboardService leaderboardService;
+
+    private String groupId;
+
+    @BeforeEach
+    void setUp() {
+        groupId = "invite-" + UUID.randomUUID().toString().substring(0, 8);
+    }
+
+    @Test
+    void inviteeJoinsOnlyByAccepting() {
+        assertThat(leaderboardService.inviteGroupMembers(groupId, OWNER, List.of(MEMBER))).isEqualTo(1);
+        assertThat(leaderboardService.isGroupMember(groupId, OWNER)).isTrue();
+        assertThat(leaderboardService.isGroupMember(groupId, MEMBER)).isFalse();
+
+        assertThat(leaderboardService.acceptGroupInvite(groupId, MEMBER)).isTrue();
+        assertThat(leaderboardService.isGroupMember(groupId, MEMBER)).isTrue();
+
+        // Uninvited users cannot join
+        assertThat(leaderboardService.acceptGroupInvite(groupId, OTHER)).isFalse();
+        leaderboardService.removeGroupMember(groupId, MEMBER);
+        leaderboardService.removeGroupMember(groupId, OWNER);
+    }
+
+    @Test
+    void onlyTheOwnerInvites() {
+        leaderboardService.inviteGroupMembers(groupId, OWNER, List.of(MEMBER));
+        leaderboardService.acceptGroupInvite(groupId, MEMBER);
+
+        assertThatThrownBy(() -> leaderboardService.inviteGroupMembers(groupId, MEMBER, List.of(OTHER)))
+                .isInstanceOf(ForbiddenOperationException.class);
+
+        // The owner leaving closes the group to new invites
+        leaderboardService.removeGroupMember(groupId, OWNER);
+        assertThatThrownBy(() -> leaderboardService.inviteGroupMembers(groupId, OWNER, List.of(OTHER)))
+                .isInstanceOf(ForbiddenOperationException.class);
+        leaderboardService.removeGroupMember(groupId, MEMBER);
+    }
+
+    @Test
+    void pendingInvitesCountTowardTheLimit() {
+        leaderboardService.inviteGroupMembers(groupId, OWNER, List.of(MEMBER, OTHER));
+
+        assertThatThrownBy(() -> leaderboardService.inviteGroupMembers(groupId, OWNER, List.of(9_000_004L)))
+                .isInstanceOf(IllegalArgumentException.class);
+
+        // Declining frees the slot; the last member leaving deletes the group
+        leaderboardService.removeGroupMember(groupId, OTHER);
+        assertThat(leaderboardService.inviteGroupMembers(groupId, OWNER, List.of(9_000_004L))).isEqualTo(1);
+        leaderboardService.removeGroupMember(groupId, OWNER);
+        assertThat(leaderboardService.acceptGroupInvite(groupId, MEMBER)).isFalse();
+    }
+}
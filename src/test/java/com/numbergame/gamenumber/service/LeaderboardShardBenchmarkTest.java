@@ -0,0 +1,163 @@
+package com.numbergame.gamenumber.service;
+
+import com.numbergame.gamenumber.utils.LeaderboardShards;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.data.redis.connection.RedisStandaloneConfiguration;
+import org.springframework.data.redis.connection.lettuce.LettuceConnectionFactory;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.testcontainers.containers.GenericContainer;
+import org.testcontainers.utility.DockerImageName;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Write throughput of the global leaderboard, one board vs 4 shards
+ * Each shard on its own Redis (one container each, as the shards would be on their own cluster masters),
+ * the same 4 flushers writing with the real leaderboard-update.lua
+ * Run with ./gradlew benchmark (needs Docker; never touches the docker-compose Redis)
+ */
+@Tag("benchmark")
+class LeaderboardShardBenchmarkTest {
+
+    private static final int MAX_SHARDS = 4;
+    private static final int WRITERS = 4;
+    private static final int BATCH = 500;
+    private static final int USERS = 200_000;
+    private static final long WARMUP_MS = 2_000;
+    private static final long MEASURE_MS = 5_000;
+
+    private static final RedisScript<Long> UPDATE_SCORE_SCRIPT =
+        RedisScript.of(new ClassPathResource("scripts/leaderboard-update.lua"), Long.class);
+
+    private static final List<GenericContainer<?>> containers = new ArrayList<>();
+    private static final List<LettuceConnectionFactory> factories = new ArrayList<>();
+    private static final List<StringRedisTemplate> templates = new ArrayList<>();
+
+    @BeforeAll
+    static void startRedis() {
+        for (int i = 0; i < MAX_SHARDS; i++) {
+            GenericContainer<?> redis = new GenericContainer<>(DockerImageName.parse("redis:7-alpine"))
+                .withExposedPorts(6379);
+            redis.start();
+            containers.add(redis);
+
+            LettuceConnectionFactory factory = new LettuceConnectionFactory(
+                new RedisStandaloneConfiguration(redis.getHost(), redis.getMappedPort(6379)));
+            factory.afterPropertiesSet();
+            factory.start();
+            factories.add(factory);
+            templates.add(new StringRedisTemplate(factory));
+        }
+    }
+
+    @AfterAll
+    static void stopRedis() {
+        factories.forEach(LettuceConnectionFactory::destroy);
+        containers.forEach(GenericContainer::stop);
+    }
+
+    @Test
+    void shardedWritesScaleWithShardCount() throws Exception {
+        double single = measure(new LeaderboardShards(1));
+        double sharded = measure(new LeaderboardShards(MAX_SHARDS));
+
+        System.out.printf("1 board  : %,.0f entries/s%n", single);
+        System.out.printf("%d shards : %,.0f entries/s%n", MAX_SHARDS, sharded);
+        System.out.printf("Scaling  : %.1fx%n", sharded / single);
+
+        assertThat(sharded).isGreaterThanOrEqualTo(single * 2);
+    }
+
+    /**
+     * Entries/s written by WRITERS flushers, each sending full batches of one shard at a time
+     */
+    private double measure(LeaderboardShards shards) throws Exception {
+        templates.forEach(template -> template.execute(connection -> {
+            connection.serverCommands().flushAll();
+            return null;
+        }, true));
+        // One cached page per shard, so every write also walks the invalidation path
+        for (int shard = 0; shard < shards.getCount(); shard++) {
+            templates.get(shard).opsForSet().add(shards.limitsKey(shard), "100");
+        }
+
+        run(shards, WARMUP_MS);
+        return run(shards, MEASURE_MS) * 1000.0 / MEASURE_MS;
+    }
+
+    private long run(LeaderboardShards shards, long durationMs) throws Exception {
+        ExecutorService writers = Executors.newFixedThreadPool(WRITERS);
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(durationMs);
+        try {
+            List<Future<Long>> results = new ArrayList<>();
+            for (int w = 0; w < WRITERS; w++) {
+                int writer = w;
+                results.add(writers.submit(() -> {
+                    long written = 0;
+                    // Writers start on different shards so a sharded board is loaded evenly
+                    for (int round = writer; System.nanoTime() < deadline; round++) {
+                        int shard = round % shards.getCount();
+                        written += writeBatch(shards, shard);
+                    }
+                    return written;
+                }));
+            }
+
+            long total = 0;
+            for (Future<Long> result : results) {
+                total += result.get();
+            }
+            return total;
+        } finally {
+            writers.shutdownNow();
+        }
+    }
+
+    private int writeBatch(LeaderboardShards shards, int shard) {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        List<String> args = new ArrayList<>(1 + BATCH * 4);
+        args.add("leaderboard:updates:benchmark");
+        Map<String, String> names = new HashMap<>(BATCH * 2);
+        int added = 0;
+        while (added < BATCH) {
+            long userId = random.nextLong(1, USERS);
+            if (shards.shardOf(userId) != shard) {
+                continue;
+            }
+            args.add(Long.toString(userId));
+            args.add(Integer.toString(random.nextInt(1, 1_000_000)));
+            args.add("user" + userId);
+            names.put(Long.toString(userId), "user" + userId);
+            args.add(Long.toString(random.nextLong(0, 1L << 32)));
+            added++;
+        }
+
+        List<String> keys = new ArrayList<>(4);
+        keys.add(shards.boardKey(shard));
+        keys.add(shards.versionKey(shard));
+        keys.add(shards.limitsKey(shard));
+        if (shards.isSharded()) {
+            // Names hash is not hash-tagged: one master holds it for every shard, as in the service
+            templates.get(0).opsForHash().putAll("leaderboard:names", names);
+        } else {
+            keys.add("leaderboard:names");
+        }
+        templates.get(shard).execute(UPDATE_SCORE_SCRIPT, keys, args.toArray());
+        return BATCH;
+    }
+}
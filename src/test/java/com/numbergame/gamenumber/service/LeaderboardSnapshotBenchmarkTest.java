@@ -0,0 +1,79 @@
+package com.numbergame.gamenumber.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.numbergame.gamenumber.dto.response.ApiResponse;
+import com.numbergame.gamenumber.dto.response.LeaderboardResponse;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.util.Arrays;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Load comparison for GET /leaderboard: in-memory snapshot vs the Redis-list cache
+ * Run with ./gradlew benchmark (needs the docker-compose Redis/MySQL/Kafka)
+ */
+@Tag("benchmark")
+@SpringBootTest
+class LeaderboardSnapshotBenchmarkTest {
+
+    private static final int WARMUP = 2_000;
+    private static final int ITERATIONS = 20_000;
+
+    @Autowired
+    private ILeaderboardService leaderboardService;
+
+    @Autowired
+    private ILeaderboardSnapshotService leaderboardSnapshotService;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Test
+    void snapshotReadIsFasterThanRedisListCache() throws Exception {
+        leaderboardSnapshotService.refresh();
+
+        long redisNanos = measure(() -> {
+            // Previous path: LRANGE cached list, split/parse, serialize the response
+            List<LeaderboardResponse> leaderboard = leaderboardService.getTopUsers(10);
+            return objectMapper.writeValueAsBytes(ApiResponse.success(leaderboard)).length;
+        });
+
+        long snapshotNanos = measure(() -> {
+            // Snapshot path: volatile read + byte copy
+            byte[] json = leaderboardSnapshotService.getSnapshot().getJson();
+            return Arrays.copyOf(json, json.length).length;
+        });
+
+        System.out.printf("Redis list cache : %,d ns/op%n", redisNanos / ITERATIONS);
+        System.out.printf("In-memory snapshot: %,d ns/op%n", snapshotNanos / ITERATIONS);
+        System.out.printf("Speed-up         : %.1fx%n", (double) redisNanos / snapshotNanos);
+
+        assertThat(snapshotNanos).isLessThan(redisNanos);
+    }
+
+    private long measure(Read read) throws Exception {
+        long sink = 0;
+        for (int i = 0; i < WARMUP; i++) {
+            sink += read.run();
+        }
+
+        long start = System.nanoTime();
+        for (int i = 0; i < ITERATIONS; i++) {
+            sink += read.run();
+        }
+        long elapsed = System.nanoTime() - start;
+
+        assertThat(sink).isPositive();
+        return elapsed;
+    }
+
+    @FunctionalInterface
+    private interface Read {
+        int run() throws Exception;
+    }
+}
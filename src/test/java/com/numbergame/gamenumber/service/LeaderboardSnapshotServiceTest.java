@@ -0,0 +1,99 @@
+package com.numbergame.gamenumber.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.numbergame.gamenumber.dto.LeaderboardSnapshot;
+import com.numbergame.gamenumber.dto.response.LeaderboardResponse;
+import com.numbergame.gamenumber.service.impl.LeaderboardSnapshotServiceImpl;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Cold start of the in-memory snapshot: concurrent first requests share one board read
+ */
+class LeaderboardSnapshotServiceTest {
+
+    private static final int REQUESTS = 32;
+
+    private final AtomicInteger boardReads = new AtomicInteger();
+    private final CountDownLatch release = new CountDownLatch(1);
+    private volatile boolean failReads;
+
+    private LeaderboardSnapshotServiceImpl snapshotService;
+
+    @BeforeEach
+    void setUp() {
+        IUserService userService = mock(IUserService.class);
+        when(userService.getLeaderboard()).thenAnswer(invocation -> {
+            boardReads.incrementAndGet();
+            // Slow board read: every request arrives while the first build is still running
+            release.await(5, TimeUnit.SECONDS);
+            if (failReads) {
+                throw new IllegalStateException("Redis down");
+            }
+            return List.of(LeaderboardResponse.builder().rank(1).userId(1L).username("player1").score(100).build());
+        });
+
+        snapshotService = new LeaderboardSnapshotServiceImpl(userService, mock(ILeaderboardService.class),
+            new ObjectMapper().findAndRegisterModules(), mock(RedisMessageListenerContainer.class));
+    }
+
+    @Test
+    void concurrentFirstRequestsBuildOnce() throws Exception {
+        List<Future<LeaderboardSnapshot>> results = requestConcurrently();
+        release.countDown();
+
+        LeaderboardSnapshot first = results.get(0).get(5, TimeUnit.SECONDS);
+        for (Future<LeaderboardSnapshot> result : results) {
+            assertThat(result.get(5, TimeUnit.SECONDS)).isSameAs(first);
+        }
+        assertThat(boardReads).hasValue(1);
+    }
+
+    @Test
+    void failedFirstBuildIsRetriedByTheNextRequest() throws Exception {
+        failReads = true;
+        List<Future<LeaderboardSnapshot>> results = requestConcurrently();
+        release.countDown();
+
+        for (Future<LeaderboardSnapshot> result : results) {
+            assertThatThrownBy(() -> result.get(5, TimeUnit.SECONDS)).hasRootCauseMessage("Redis down");
+        }
+        assertThat(boardReads).hasValue(1);
+
+        failReads = false;
+        assertThat(snapshotService.getSnapshot().getEntries()).hasSize(1);
+        assertThat(boardReads).hasValue(2);
+    }
+
+    private List<Future<LeaderboardSnapshot>> requestConcurrently() throws InterruptedException {
+        ExecutorService executor = Executors.newFixedThreadPool(REQUESTS);
+        CountDownLatch started = new CountDownLatch(REQUESTS);
+        List<Future<LeaderboardSnapshot>> results = new ArrayList<>();
+        for (int i = 0; i < REQUESTS; i++) {
+            results.add(executor.submit(() -> {
+                started.countDown();
+                return snapshotService.getSnapshot();
+            }));
+        }
+        executor.shutdown();
+        assertThat(started.await(5, TimeUnit.SECONDS)).isTrue();
+        // Let the stragglers reach getSnapshot before the build is released
+        Thread.sleep(100);
+        return results;
+    }
+}
@@ -0,0 +1,70 @@
+package com.numbergame.gamenumber.service;
+
+import com.numbergame.gamenumber.utils.LeaderboardScoreCodec;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.redis.core.RedisTemplate;
+
+import java.time.Instant;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Coalesced writes from several nodes: a node flushing an older score after another node already
+ * wrote a newer one must not lower the entry on the global board
+ */
+@SpringBootTest
+class LeaderboardStaleFlushTest {
+
+    private static final String LEADERBOARD_KEY = "leaderboard:global";
+    private static final String NAMES_KEY = "leaderboard:names";
+    // Far above real ids so the test never touches real players
+    private static final long USER_ID = 9_100_000_001L;
+    private static final long NEIGHBOUR_ID = 9_100_000_002L;
+
+    @Autowired
+    private ILeaderboardService leaderboardService;
+
+    @Autowired
+    private RedisTemplate<String, String> redisTemplate;
+
+    @AfterEach
+    void tearDown() {
+        leaderboardService.removeUser(USER_ID);
+        leaderboardService.removeUser(NEIGHBOUR_ID);
+    }
+
+    @Test
+    void staleFlushDoesNotLowerScore() {
+        Instant now = Instant.now();
+        leaderboardService.updateScore(NEIGHBOUR_ID, "stale_neighbour", 1_900_000, now);
+        leaderboardService.flushPendingUpdates();
+
+        // Another node flushed the fresh score first
+        redisTemplate.opsForHash().put(NAMES_KEY, String.valueOf(USER_ID), "stale_player");
+        redisTemplate.opsForZSet().add(LEADERBOARD_KEY, String.valueOf(USER_ID),
+            LeaderboardScoreCodec.encode(2_000_000, LeaderboardScoreCodec.tiebreak(now)));
+        Long rank = leaderboardService.getUserPosition(USER_ID);
+
+        // This node coalesced an older score and flushes it on its own tick
+        leaderboardService.updateScore(USER_ID, "stale_player", 1_800_000, now.minusSeconds(30));
+        leaderboardService.flushPendingUpdates();
+
+        assertThat(leaderboardService.getUserRank(USER_ID).getScore()).isEqualTo(2_000_000);
+        assertThat(leaderboardService.getUserPosition(USER_ID)).isEqualTo(rank);
+        assertThat(leaderboardService.getUserPosition(NEIGHBOUR_ID)).isGreaterThan(rank);
+    }
+
+    @Test
+    void higherScoreIsStillWritten() {
+        Instant now = Instant.now();
+        leaderboardService.updateScore(USER_ID, "stale_player", 1_800_000, now.minusSeconds(30));
+        leaderboardService.flushPendingUpdates();
+        leaderboardService.updateScore(USER_ID, "stale_player", 2_000_000, now);
+        leaderboardService.flushPendingUpdates();
+
+        assertThat(leaderboardService.getUserRank(USER_ID).getScore()).isEqualTo(2_000_000);
+    }
+}
@@ -0,0 +1,238 @@
+package com.numbergame.gamenumber.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.numbergame.gamenumber.dto.LeaderboardSnapshot;
+import com.numbergame.gamenumber.dto.response.LeaderboardResponse;
+import com.numbergame.gamenumber.service.impl.LeaderboardStreamServiceImpl;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.MockedConstruction;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.atLeastOnce;
+import static org.mockito.Mockito.mockConstruction;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+
+/**
+ * Diff computation and fan-out of the leaderboard stream, without a servlet container:
+ * emitters are mocks recording what each subscriber was sent
+ */
+class LeaderboardStreamServiceTest {
+
+    private final List<Runnable> queued = new ArrayList<>();
+    private boolean runInline = true;
+    private LeaderboardSnapshot current;
+
+    private MockedConstruction<SseEmitter> emitters;
+    private ILeaderboardSnapshotService snapshotService;
+    private LeaderboardStreamServiceImpl streamService;
+
+    @BeforeEach
+    void setUp() {
+        emitters = mockConstruction(SseEmitter.class);
+        current = snapshot(1, entry(1, 1L, 100), entry(2, 2L, 90), entry(3, 3L, 80));
+
+        snapshotService = new ILeaderboardSnapshotService() {
+            @Override
+            public LeaderboardSnapshot getSnapshot() {
+                return current;
+            }
+
+            @Override
+            public void refresh() {
+            }
+        };
+        streamService = new LeaderboardStreamServiceImpl(snapshotService, new ObjectMapper(), task -> {
+            if (runInline) {
+                task.run();
+            } else {
+                queued.add(task);
+            }
+        });
+        ReflectionTestUtils.setField(streamService, "emitterTimeoutMs", 60_000L);
+        ReflectionTestUtils.setField(streamService, "maxConnections", 100);
+        ReflectionTestUtils.setField(streamService, "maxSkippedEvents", 3);
+
+        // First tick only records the baseline
+        streamService.broadcastChanges();
+    }
+
+    @AfterEach
+    void tearDown() {
+        emitters.close();
+    }
+
+    @Test
+    void diffIsComputedOnceAndSentToEverySubscriber() throws Exception {
+        SseEmitter first = streamService.subscribe();
+        SseEmitter second = streamService.subscribe();
+
+        // User 2 overtakes user 1, user 3 drops out, user 4 enters
+        current = snapshot(2, entry(1, 2L, 110), entry(2, 1L, 100), entry(3, 4L, 85));
+
+        assertThat(streamService.broadcastChanges()).isEqualTo(2);
+
+        for (SseEmitter emitter : List.of(first, second)) {
+            List<String> events = sentEvents(emitter);
+            assertThat(events).hasSize(2);
+            assertThat(events.get(0)).contains("event:snapshot");
+            assertThat(events.get(1))
+                .contains("event:diff", "id:2")
+                .contains("\"userId\":2", "\"rank\":1", "\"previousRank\":2", "\"previousScore\":90")
+                .contains("\"userId\":1", "\"previousRank\":1")
+                .contains("\"userId\":4", "\"removed\":[3]");
+        }
+    }
+
+    @Test
+    void unchangedBoardSendsNothing() throws Exception {
+        SseEmitter emitter = streamService.subscribe();
+        current = snapshot(2, entry(1, 1L, 100), entry(2, 2L, 90), entry(3, 3L, 80));
+
+        assertThat(streamService.broadcastChanges()).isZero();
+        assertThat(sentEvents(emitter)).hasSize(1);
+    }
+
+    @Test
+    void slowSubscriberGetsLatestSnapshotInsteadOfStaleDiffs() throws Exception {
+        runInline = false;
+        SseEmitter emitter = streamService.subscribe();
+
+        // Two ticks while the sender is blocked: the pending snapshot is replaced, not queued up
+        current = snapshot(2, entry(1, 2L, 110), entry(2, 1L, 100), entry(3, 3L, 80));
+        streamService.broadcastChanges();
+        current = snapshot(3, entry(1, 2L, 120), entry(2, 1L, 100), entry(3, 3L, 80));
+        streamService.broadcastChanges();
+
+        runQueued();
+
+        List<String> events = sentEvents(emitter);
+        assertThat(events).hasSize(1);
+        assertThat(events.get(0)).contains("event:snapshot", "id:3", "\"score\":120");
+    }
+
+    @Test
+    void subscriberThatStaysBehindIsClosed() {
+        runInline = false;
+        SseEmitter emitter = streamService.subscribe();
+
+        for (int version = 2; version <= 6; version++) {
+            current = snapshot(version, entry(1, 1L, 100 + version), entry(2, 2L, 90), entry(3, 3L, 80));
+            streamService.broadcastChanges();
+        }
+
+        verify(emitter).complete();
+        assertThat(streamService.getSubscriberCount()).isZero();
+    }
+
+    @Test
+    void heartbeatDoesNotReplacePendingEvent() throws Exception {
+        runInline = false;
+        SseEmitter emitter = streamService.subscribe();
+
+        streamService.heartbeat();
+        runQueued();
+
+        List<String> events = sentEvents(emitter);
+        assertThat(events).hasSize(1);
+        assertThat(events.get(0)).contains("event:snapshot");
+        verify(emitter, never()).complete();
+    }
+
+    @Test
+    void diffRacingTheSenderIsNeverSentWithoutItsBase() throws Exception {
+        ExecutorService pool = Executors.newFixedThreadPool(4);
+        AtomicInteger inFlight = new AtomicInteger();
+        LeaderboardStreamServiceImpl racing = new LeaderboardStreamServiceImpl(snapshotService, new ObjectMapper(), task -> {
+            inFlight.incrementAndGet();
+            pool.execute(() -> {
+                try {
+                    task.run();
+                } finally {
+                    inFlight.decrementAndGet();
+                }
+            });
+        });
+        ReflectionTestUtils.setField(racing, "emitterTimeoutMs", 60_000L);
+        ReflectionTestUtils.setField(racing, "maxConnections", 100);
+        ReflectionTestUtils.setField(racing, "maxSkippedEvents", Integer.MAX_VALUE);
+        racing.broadcastChanges();
+
+        try {
+            SseEmitter emitter = racing.subscribe();
+            int lastVersion = 5_000;
+            // Ticks back to back while the sender drains on other threads
+            for (int version = 2; version <= lastVersion; version++) {
+                current = snapshot(version, entry(1, 1L, 100 + version), entry(2, 2L, 90), entry(3, 3L, 80));
+                racing.broadcastChanges();
+            }
+            while (inFlight.get() > 0) {
+                Thread.sleep(1);
+            }
+
+            // Every diff applies on top of the event sent just before it
+            List<String> events = sentEvents(emitter);
+            long sentVersion = 0;
+            for (String event : events) {
+                long version = Long.parseLong(event.replaceAll("(?s).*id:(\\d+).*", "$1"));
+                if (event.contains("event:diff")) {
+                    assertThat(version).as("diff base").isEqualTo(sentVersion + 1);
+                }
+                sentVersion = version;
+            }
+            assertThat(sentVersion).isEqualTo(lastVersion);
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    private void runQueued() {
+        while (!queued.isEmpty()) {
+            queued.remove(0).run();
+        }
+    }
+
+    private static List<String> sentEvents(SseEmitter emitter) throws Exception {
+        ArgumentCaptor<SseEmitter.SseEventBuilder> captor = ArgumentCaptor.forClass(SseEmitter.SseEventBuilder.class);
+        verify(emitter, atLeastOnce()).send(captor.capture());
+        return captor.getAllValues().stream()
+            .map(event -> event.build().stream()
+                .map(part -> part.getData().toString())
+                .collect(Collectors.joining()))
+            .toList();
+    }
+
+    private static LeaderboardSnapshot snapshot(long version, LeaderboardResponse... entries) {
+        List<LeaderboardResponse> list = List.of(entries);
+        StringBuilder json = new StringBuilder("{\"success\":true,\"data\":[");
+        for (LeaderboardResponse entry : list) {
+            json.append("{\"userId\":").append(entry.getUserId())
+                .append(",\"score\":").append(entry.getScore()).append("},");
+        }
+        json.setLength(json.length() - 1);
+        json.append("]}");
+        return new LeaderboardSnapshot(version, "W/\"" + version + "\"", list,
+            json.toString().getBytes(), System.currentTimeMillis());
+    }
+
+    private static LeaderboardResponse entry(int rank, Long userId, int score) {
+        return LeaderboardResponse.builder()
+            .rank(rank)
+            .userId(userId)
+            .username("player" + userId)
+            .score(score)
+            .build();
+    }
+}
@@ -0,0 +1,95 @@
+package com.numbergame.gamenumber.service;
+
+import com.numbergame.gamenumber.repository.UserRepository;
+import com.numbergame.gamenumber.service.impl.UserProfileCacheServiceImpl;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.data.redis.connection.DefaultMessage;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.data.redis.connection.SubscriptionListener;
+import org.springframework.data.redis.core.HashOperations;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Tier-1 invalidation of the profile cache, without Redis: the tier-2 hash and the listener
+ * container are mocks, reads that reach tier 2 are counted
+ */
+class UserProfileCacheServiceTest {
+
+    private static final byte[] CHANNEL = "user:profile:changed".getBytes(StandardCharsets.UTF_8);
+
+    private HashOperations<String, Object, Object> hashOperations;
+    private UserProfileCacheServiceImpl profileCache;
+    private MessageListener listener;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setUp() {
+        RedisTemplate<String, String> redisTemplate = mock(RedisTemplate.class);
+        hashOperations = mock(HashOperations.class);
+        when(redisTemplate.<Object, Object>opsForHash()).thenReturn(hashOperations);
+        when(hashOperations.entries(anyString())).thenReturn(Map.of("id", "7", "email", "p7@example.com"));
+
+        RedisMessageListenerContainer container = mock(RedisMessageListenerContainer.class);
+        profileCache = new UserProfileCacheServiceImpl(redisTemplate, mock(UserRepository.class), container);
+        ReflectionTestUtils.setField(profileCache, "localCapacity", 100);
+        ReflectionTestUtils.setField(profileCache, "localTtlSeconds", 600L);
+        profileCache.subscribe();
+
+        ArgumentCaptor<MessageListener> captor = ArgumentCaptor.forClass(MessageListener.class);
+        verify(container).addMessageListener(captor.capture(), any(ChannelTopic.class));
+        listener = captor.getValue();
+    }
+
+    @Test
+    void changeMessageDropsOnlyThatProfile() {
+        profileCache.getProfile("p7");
+        profileCache.getProfile("p8");
+
+        listener.onMessage(new DefaultMessage(CHANNEL, "p7".getBytes(StandardCharsets.UTF_8)), null);
+        profileCache.getProfile("p7");
+        profileCache.getProfile("p8");
+
+        // p7 read twice from tier 2, p8 once
+        verify(hashOperations, times(2)).entries("user:profile:p7");
+        verify(hashOperations, times(1)).entries("user:profile:p8");
+    }
+
+    @Test
+    void resubscribeClearsTierOne() {
+        assertThat(listener).isInstanceOf(SubscriptionListener.class);
+        SubscriptionListener subscription = (SubscriptionListener) listener;
+        subscription.onChannelSubscribed(CHANNEL, 1);
+
+        profileCache.getProfile("p7");
+        // Connection dropped and recovered: changes published meanwhile were never received
+        subscription.onChannelSubscribed(CHANNEL, 1);
+        profileCache.getProfile("p7");
+
+        verify(hashOperations, times(2)).entries("user:profile:p7");
+    }
+
+    @Test
+    void lostSubscriptionClearsTierOne() {
+        profileCache.getProfile("p7");
+        ((SubscriptionListener) listener).onChannelUnsubscribed(CHANNEL, 0);
+        profileCache.getProfile("p7");
+
+        verify(hashOperations, times(2)).entries("user:profile:p7");
+    }
+}
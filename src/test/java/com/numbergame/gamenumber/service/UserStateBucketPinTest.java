@@ -0,0 +1,89 @@
+package com.numbergame.gamenumber.service;
+
+import com.numbergame.gamenumber.entity.User;
+import com.numbergame.gamenumber.repository.UserRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.redis.core.RedisTemplate;
+
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Bucketed layout: a bucket holding an unsynced user has no TTL (cannot expire, nor be evicted under
+ * volatile-*) until the batch sync has persisted every user in it
+ */
+@SpringBootTest(properties = "game.state.bucketed=true")
+class UserStateBucketPinTest {
+
+    private static final int BUCKET_SIZE = 256;
+
+    @Autowired
+    private IRedisService redisService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private RedisTemplate<String, String> redisTemplate;
+
+    private User user;
+    private String bucketKey;
+
+    @BeforeEach
+    void setUp() {
+        user = userRepository.save(User.builder()
+                .username("pin_" + UUID.randomUUID().toString().substring(0, 8))
+                .password("not-used")
+                .turns(10)
+                .build());
+        bucketKey = "user:state:b" + (user.getId() / BUCKET_SIZE);
+        redisService.initializeUserGameData(user.getId(), 0, 10);
+
+        // Users deleted by other tests leave dirty flags behind, which would keep the bucket pinned
+        long firstUserId = user.getId() / BUCKET_SIZE * BUCKET_SIZE;
+        for (long id = firstUserId; id < firstUserId + BUCKET_SIZE; id++) {
+            if (!userRepository.existsById(id)) {
+                redisService.clearDirtyFlag(id);
+            }
+        }
+    }
+
+    @AfterEach
+    void tearDown() {
+        redisService.clearDirtyFlag(user.getId());
+        redisTemplate.opsForHash().delete(bucketKey, user.getId() + ":score", user.getId() + ":turns",
+                user.getId() + ":streak", user.getId() + ":version", user.getId() + ":achieved");
+        userRepository.deleteById(user.getId());
+    }
+
+    @Test
+    void dirtyBucketIsPinnedUntilReleased() {
+        redisService.incrementScore(user.getId(), 5);
+        assertThat(redisTemplate.getExpire(bucketKey)).isEqualTo(-1L);
+
+        // Still dirty: the release leaves the bucket pinned
+        assertThat(redisService.releaseSyncedState(List.of(user.getId()))).isZero();
+        assertThat(redisTemplate.getExpire(bucketKey)).isEqualTo(-1L);
+
+        redisService.clearDirtyFlag(user.getId());
+        redisService.releaseSyncedState(List.of(user.getId()));
+        assertThat(redisTemplate.getExpire(bucketKey)).isPositive();
+    }
+
+    @Test
+    void cleanWriteNeverUnpinsTheBucket() {
+        redisService.incrementScore(user.getId(), 5);
+
+        // Streak writes leave the user clean, the bucket must stay pinned
+        redisService.compareAndSetLossStreak(user.getId(), 0, 1);
+        redisService.resetLossStreak(user.getId());
+
+        assertThat(redisTemplate.getExpire(bucketKey)).isEqualTo(-1L);
+    }
+}
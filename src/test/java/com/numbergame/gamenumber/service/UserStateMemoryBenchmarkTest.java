@@ -0,0 +1,140 @@
+package com.numbergame.gamenumber.service;
+
+import com.numbergame.gamenumber.utils.UserKeyLayout;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.redis.connection.RedisStandaloneConfiguration;
+import org.springframework.data.redis.connection.lettuce.LettuceConnectionFactory;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.testcontainers.containers.GenericContainer;
+import org.testcontainers.utility.DockerImageName;
+
+import java.nio.charset.StandardCharsets;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Properties;
+import java.util.Set;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Redis memory per user of the user state: one hash per user vs bucketed listpack hashes
+ * Writes 1M and 10M synthetic users (score, turns, streak, version, achieved + TTL) in each layout and compares
+ * used_memory before/after, on a dedicated Redis container started without maxmemory (10M per-user keys do
+ * not fit in the docker-compose 256mb) and with listpack buckets enabled. Never touches a shared Redis.
+ * Run with ./gradlew benchmark (needs Docker). Override the sizes with -Dbenchmark.users=100000,1000000
+ */
+@Tag("benchmark")
+class UserStateMemoryBenchmarkTest {
+
+    private static final String STATE_KEY = "user:state:";
+    private static final String[] FIELDS = {"score", "turns", "streak", "version", "achieved"};
+    private static final int BUCKET_SIZE = 256;
+    private static final int BATCH = 10_000;
+    private static final long FIRST_USER_ID = 9_000_000_000L;
+
+    private static GenericContainer<?> redis;
+    private static LettuceConnectionFactory connectionFactory;
+    private static StringRedisTemplate redisTemplate;
+
+    @BeforeAll
+    static void startRedis() {
+        redis = new GenericContainer<>(DockerImageName.parse("redis:7-alpine"))
+            .withExposedPorts(6379)
+            .withCommand("redis-server", "--maxmemory", "0", "--save", "", "--appendonly", "no",
+                "--hash-max-listpack-entries", String.valueOf(BUCKET_SIZE * FIELDS.length));
+        redis.start();
+
+        connectionFactory = new LettuceConnectionFactory(
+            new RedisStandaloneConfiguration(redis.getHost(), redis.getMappedPort(6379)));
+        connectionFactory.afterPropertiesSet();
+        connectionFactory.start();
+        redisTemplate = new StringRedisTemplate(connectionFactory);
+    }
+
+    @AfterAll
+    static void stopRedis() {
+        connectionFactory.destroy();
+        redis.stop();
+    }
+
+    @Test
+    void bucketedLayoutUsesLessMemoryPerUser() {
+        for (String size : System.getProperty("benchmark.users", "1000000,10000000").split(",")) {
+            int users = Integer.parseInt(size.trim());
+            double perUser = bytesPerUser(new UserKeyLayout(false, BUCKET_SIZE), users);
+            double bucketed = bytesPerUser(new UserKeyLayout(true, BUCKET_SIZE), users);
+
+            System.out.printf("%,d users: per-user hash %.1f B/user, bucketed %.1f B/user (%.1fx smaller)%n",
+                users, perUser, bucketed, perUser / bucketed);
+            assertThat(bucketed).isLessThan(perUser);
+        }
+    }
+
+    private double bytesPerUser(UserKeyLayout layout, int users) {
+        long before = usedMemory();
+        try {
+            write(layout, users);
+            if (layout.isBucketed()) {
+                assertThat(encoding(layout.key(STATE_KEY, FIRST_USER_ID))).isEqualTo("listpack");
+            }
+            return (double) (usedMemory() - before) / users;
+        } finally {
+            delete(layout, users);
+        }
+    }
+
+    private void write(UserKeyLayout layout, int users) {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        for (long from = FIRST_USER_ID; from < FIRST_USER_ID + users; from += BATCH) {
+            long to = Math.min(from + BATCH, FIRST_USER_ID + users);
+            long first = from;
+            redisTemplate.executePipelined((RedisCallback<?>) connection -> {
+                Set<String> touched = new LinkedHashSet<>();
+                for (long id = first; id < to; id++) {
+                    String key = layout.key(STATE_KEY, id);
+                    redisTemplate.opsForHash().putAll(key, Map.of(
+                        layout.field(id, FIELDS[0]), String.valueOf(random.nextInt(1_000_000)),
+                        layout.field(id, FIELDS[1]), String.valueOf(random.nextInt(100)),
+                        layout.field(id, FIELDS[2]), String.valueOf(random.nextInt(20)),
+                        layout.field(id, FIELDS[3]), "1",
+                        layout.field(id, FIELDS[4]), String.valueOf(1_760_000_000L + random.nextInt(1_000_000))));
+                    touched.add(key);
+                }
+                for (String key : touched) {
+                    redisTemplate.expire(key, 1, TimeUnit.DAYS);
+                }
+                return null;
+            });
+        }
+    }
+
+    private void delete(UserKeyLayout layout, int users) {
+        for (long from = FIRST_USER_ID; from < FIRST_USER_ID + users; from += BATCH) {
+            Set<String> keys = new LinkedHashSet<>();
+            for (long id = from; id < Math.min(from + BATCH, FIRST_USER_ID + users); id++) {
+                keys.add(layout.key(STATE_KEY, id));
+            }
+            // Synchronous DEL: a lazy UNLINK would still hold memory when the next layout is measured
+            redisTemplate.delete(keys);
+        }
+    }
+
+    private long usedMemory() {
+        Properties info = redisTemplate.execute((RedisCallback<Properties>) connection ->
+            connection.serverCommands().info("memory"));
+        return Long.parseLong(info.getProperty("used_memory"));
+    }
+
+    private String encoding(String key) {
+        Object result = redisTemplate.execute((RedisCallback<Object>) connection ->
+            connection.execute("OBJECT", "ENCODING".getBytes(StandardCharsets.UTF_8),
+                key.getBytes(StandardCharsets.UTF_8)));
+        return result instanceof byte[] bytes ? new String(bytes, StandardCharsets.UTF_8) : String.valueOf(result);
+    }
+}
@@ -0,0 +1,107 @@
+package com.numbergame.gamenumber.utils;
+
+import io.lettuce.core.cluster.SlotHash;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.redis.core.ZSetOperations;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Shard key layout (every key of one script call in one cluster slot) and the k-way merge,
+ * checked against a fully sorted reference
+ */
+class LeaderboardShardsTest {
+
+    @Test
+    void singleBoardKeepsTheUnshardedKeys() {
+        LeaderboardShards shards = new LeaderboardShards(1);
+
+        assertThat(shards.isSharded()).isFalse();
+        assertThat(shards.shardOf(42L)).isZero();
+        assertThat(shards.boardKey(0)).isEqualTo("leaderboard:global");
+        assertThat(shards.versionKey(0)).isEqualTo("leaderboard:cache:version");
+        assertThat(shards.limitsKey(0)).isEqualTo("leaderboard:cache:limits");
+    }
+
+    @Test
+    void keysOfOneShardShareAClusterSlot() {
+        LeaderboardShards shards = new LeaderboardShards(16);
+        Set<Integer> boardSlots = new HashSet<>();
+
+        for (int shard = 0; shard < shards.getCount(); shard++) {
+            int slot = SlotHash.getSlot(shards.boardKey(shard));
+            assertThat(SlotHash.getSlot(shards.versionKey(shard))).isEqualTo(slot);
+            assertThat(SlotHash.getSlot(shards.limitsKey(shard))).isEqualTo(slot);
+            assertThat(SlotHash.getSlot(shards.rebuildKey(shard, "abc"))).isEqualTo(slot);
+            boardSlots.add(slot);
+        }
+
+        // Distinct tags spread the shards over distinct slots (and so over the cluster's masters)
+        assertThat(boardSlots).hasSize(shards.getCount());
+    }
+
+    @Test
+    void usersSpreadOverEveryShard() {
+        LeaderboardShards shards = new LeaderboardShards(8);
+        int[] perShard = new int[shards.getCount()];
+        for (long userId = 1; userId <= 80_000; userId++) {
+            perShard[shards.shardOf(userId)]++;
+        }
+
+        for (int count : perShard) {
+            assertThat(count).isBetween(9_000, 11_000);
+        }
+    }
+
+    @Test
+    void mergeMatchesSortedReference() {
+        Random random = new Random(7);
+        int shardCount = 5;
+        List<List<ZSetOperations.TypedTuple<String>>> perShard = new ArrayList<>();
+        List<ZSetOperations.TypedTuple<String>> all = new ArrayList<>();
+        for (int shard = 0; shard < shardCount; shard++) {
+            perShard.add(new ArrayList<>());
+        }
+        for (int member = 0; member < 2_000; member++) {
+            // Few distinct scores: ties are ordered by member, as ZREVRANGE does
+            ZSetOperations.TypedTuple<String> tuple =
+                ZSetOperations.TypedTuple.of(String.format("%05d", member), (double) random.nextInt(50));
+            perShard.get(member % shardCount).add(tuple);
+            all.add(tuple);
+        }
+        perShard.forEach(list -> list.sort(LeaderboardShards.ORDER));
+        all.sort(LeaderboardShards.ORDER);
+
+        assertThat(LeaderboardShards.merge(perShard, 0, 9)).isEqualTo(all.subList(0, 10));
+        assertThat(LeaderboardShards.merge(perShard, 100, 149)).isEqualTo(all.subList(100, 150));
+        assertThat(LeaderboardShards.merge(perShard, 1_990, 2_100)).isEqualTo(all.subList(1_990, 2_000));
+    }
+
+    @Test
+    void mergeNeedsOnlyEachShardsTop() {
+        List<List<ZSetOperations.TypedTuple<String>>> perShard = List.of(
+            List.of(tuple("a", 90), tuple("b", 80), tuple("c", 70)),
+            List.of(tuple("d", 85)),
+            List.of());
+
+        assertThat(LeaderboardShards.merge(perShard, 0, 2))
+            .extracting(ZSetOperations.TypedTuple::getValue)
+            .containsExactly("a", "d", "b");
+    }
+
+    @Test
+    void rejectsInvalidShardCount() {
+        assertThatThrownBy(() -> new LeaderboardShards(0)).isInstanceOf(IllegalArgumentException.class);
+    }
+
+    private static ZSetOperations.TypedTuple<String> tuple(String member, double score) {
+        return ZSetOperations.TypedTuple.of(member, score);
+    }
+}
@@ -0,0 +1,100 @@
+package com.numbergame.gamenumber.utils;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+import java.util.TreeSet;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Rank, range and remove of the indexable skip list, checked against a sorted reference
+ */
+class RankedSkipListTest {
+
+    private static final Comparator<Integer> DESCENDING = Comparator.reverseOrder();
+
+    @Test
+    void rankOfFollowsComparatorOrder() {
+        RankedSkipList<Integer> list = new RankedSkipList<>(DESCENDING);
+        for (int value : new int[] {30, 10, 50, 20, 40}) {
+            assertThat(list.add(value)).isTrue();
+        }
+
+        assertThat(list.size()).isEqualTo(5);
+        assertThat(list.rankOf(50)).isZero();
+        assertThat(list.rankOf(40)).isEqualTo(1);
+        assertThat(list.rankOf(10)).isEqualTo(4);
+        assertThat(list.rankOf(25)).isEqualTo(-1);
+        assertThat(list.toList()).containsExactly(50, 40, 30, 20, 10);
+    }
+
+    @Test
+    void addRejectsDuplicates() {
+        RankedSkipList<Integer> list = new RankedSkipList<>(DESCENDING);
+        list.add(7);
+
+        assertThat(list.add(7)).isFalse();
+        assertThat(list.size()).isEqualTo(1);
+    }
+
+    @Test
+    void rangeReturnsSliceAndClampsAtTheEnd() {
+        RankedSkipList<Integer> list = new RankedSkipList<>(DESCENDING);
+        for (int value = 1; value <= 100; value++) {
+            list.add(value);
+        }
+
+        assertThat(list.range(0, 3)).containsExactly(100, 99, 98);
+        assertThat(list.range(50, 2)).containsExactly(50, 49);
+        assertThat(list.range(98, 10)).containsExactly(2, 1);
+        assertThat(list.range(100, 5)).isEmpty();
+        assertThat(list.range(-1, 5)).isEmpty();
+        assertThat(list.range(0, 0)).isEmpty();
+    }
+
+    @Test
+    void removeUpdatesRanksOfFollowingElements() {
+        RankedSkipList<Integer> list = new RankedSkipList<>(DESCENDING);
+        for (int value = 1; value <= 10; value++) {
+            list.add(value);
+        }
+
+        assertThat(list.remove(8)).isTrue();
+        assertThat(list.remove(8)).isFalse();
+        assertThat(list.remove(42)).isFalse();
+
+        assertThat(list.size()).isEqualTo(9);
+        assertThat(list.rankOf(9)).isEqualTo(1);
+        assertThat(list.rankOf(7)).isEqualTo(2);
+        assertThat(list.range(1, 3)).containsExactly(9, 7, 6);
+    }
+
+    @Test
+    void randomOperationsMatchSortedReference() {
+        Random random = new Random(42);
+        RankedSkipList<Integer> list = new RankedSkipList<>(DESCENDING);
+        TreeSet<Integer> reference = new TreeSet<>(DESCENDING);
+
+        for (int i = 0; i < 20_000; i++) {
+            int value = random.nextInt(5_000);
+            if (random.nextInt(3) == 0) {
+                assertThat(list.remove(value)).isEqualTo(reference.remove(value));
+            } else {
+                assertThat(list.add(value)).isEqualTo(reference.add(value));
+            }
+        }
+
+        List<Integer> expected = new ArrayList<>(reference);
+        assertThat(list.size()).isEqualTo(expected.size());
+        assertThat(list.toList()).isEqualTo(expected);
+        for (int rank = 0; rank < expected.size(); rank += 37) {
+            assertThat(list.rankOf(expected.get(rank))).isEqualTo(rank);
+            assertThat(list.range(rank, 5))
+                .isEqualTo(expected.subList(rank, Math.min(rank + 5, expected.size())));
+        }
+    }
+}
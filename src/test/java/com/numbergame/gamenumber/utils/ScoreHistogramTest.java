@@ -0,0 +1,84 @@
+package com.numbergame.gamenumber.utils;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Rank estimates of the score histogram: exact across buckets, bounded inside a bucket
+ */
+class ScoreHistogramTest {
+
+    @Test
+    void countAboveIsExactAtBucketBoundaries() {
+        ScoreHistogram histogram = new ScoreHistogram(10, 100);
+        for (int score = 0; score < 100; score++) {
+            histogram.add(score);
+        }
+
+        assertThat(histogram.total()).isEqualTo(100);
+        // One player per score: the estimate at the top of each bucket is the exact count
+        assertThat(histogram.countAbove(99)).isZero();
+        assertThat(histogram.countAbove(49)).isEqualTo(50);
+        assertThat(histogram.countAbove(9)).isEqualTo(90);
+    }
+
+    @Test
+    void countAboveInterpolatesInsideBucketWithinItsCount() {
+        ScoreHistogram histogram = new ScoreHistogram(10, 100);
+        for (int i = 0; i < 10; i++) {
+            histogram.add(20);
+        }
+        histogram.add(35);
+
+        long estimate = histogram.countAbove(25);
+        long exact = 1; // only the 35 ranks above 25, the ten 20s are below
+        assertThat(Math.abs(estimate - exact)).isLessThanOrEqualTo(histogram.bucketCount(25));
+        assertThat(histogram.countAbove(20)).isBetween(1L, 1L + histogram.bucketCount(20));
+    }
+
+    @Test
+    void lastBucketIsOpenEnded() {
+        ScoreHistogram histogram = new ScoreHistogram(10, 5);
+        histogram.add(45);
+        histogram.add(1_000_000);
+        histogram.add(19);
+
+        // Both high scores share the last bucket, ranked at its top
+        assertThat(histogram.countAbove(2_000_000)).isZero();
+        assertThat(histogram.bucketCount(45)).isEqualTo(2);
+        assertThat(histogram.countAbove(19)).isEqualTo(2);
+    }
+
+    @Test
+    void moveAndRemoveKeepTotals() {
+        ScoreHistogram histogram = new ScoreHistogram(10, 10);
+        histogram.add(5);
+        histogram.add(15);
+
+        histogram.move(5, 75);
+        assertThat(histogram.total()).isEqualTo(2);
+        assertThat(histogram.bucketCount(5)).isZero();
+        assertThat(histogram.countAbove(15)).isEqualTo(1);
+
+        histogram.remove(75);
+        histogram.remove(75); // absent: ignored, total never goes negative
+        assertThat(histogram.total()).isEqualTo(1);
+        assertThat(histogram.countAbove(15)).isZero();
+    }
+
+    @Test
+    void negativeScoresFallInFirstBucket() {
+        ScoreHistogram histogram = new ScoreHistogram(10, 10);
+        histogram.add(-5);
+
+        assertThat(histogram.bucketCount(0)).isEqualTo(1);
+    }
+
+    @Test
+    void rejectsInvalidShape() {
+        assertThatThrownBy(() -> new ScoreHistogram(0, 10)).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> new ScoreHistogram(10, 0)).isInstanceOf(IllegalArgumentException.class);
+    }
+}
@@ -0,0 +1,97 @@
+package com.numbergame.gamenumber.utils;
+
+import com.numbergame.gamenumber.dto.UserGameState;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.lang.management.ManagementFactory;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Heap footprint and allocation per read of the near-cache at 1M cached users,
+ * against the obvious alternative (ConcurrentHashMap<Long, UserGameState>)
+ * Plain JVM measurement, no Spring context; run with ./gradlew benchmark
+ */
+@Tag("benchmark")
+class UserStateCacheBenchmarkTest {
+
+    private static final int USERS = 1_000_000;
+    private static final int READS = 10_000_000;
+    private static final long FIRST_USER_ID = 1_000L; // above the Long.valueOf cache
+
+    @Test
+    void primitiveCacheIsSmallerAndDoesNotAllocateOnReads() {
+        long before = usedHeap();
+        UserStateCache cache = new UserStateCache(USERS, 60);
+        for (long id = FIRST_USER_ID; id < FIRST_USER_ID + USERS; id++) {
+            cache.put(id, cache.stamp(id), (int) id, 5, 3, 1, 1_750_000_000L);
+        }
+        long cacheBytes = usedHeap() - before;
+
+        before = usedHeap();
+        Map<Long, UserGameState> map = new ConcurrentHashMap<>(USERS * 4 / 3);
+        for (long id = FIRST_USER_ID; id < FIRST_USER_ID + USERS; id++) {
+            map.put(id, UserGameState.builder().score((int) id).turns(5).lossStreak(3).version(1)
+                .achievedAt(1_750_000_000L).build());
+        }
+        long mapBytes = usedHeap() - before;
+
+        assertThat(cache.size()).isEqualTo(USERS);
+        System.out.printf("Heap at %,d users: primitive cache %.1f B/user, ConcurrentHashMap %.1f B/user%n",
+            USERS, (double) cacheBytes / USERS, (double) mapBytes / USERS);
+
+        // Warm up both read paths before measuring allocation
+        int[] fields = new int[UserStateCache.FIELDS];
+        long sink = readCache(cache, fields, READS) + readMap(map, READS);
+
+        long allocated = allocatedBytes();
+        sink += readCache(cache, fields, READS);
+        double cacheBytesPerRead = (double) (allocatedBytes() - allocated) / READS;
+
+        allocated = allocatedBytes();
+        sink += readMap(map, READS);
+        double mapBytesPerRead = (double) (allocatedBytes() - allocated) / READS;
+
+        System.out.printf("Allocation per read: primitive cache %.2f B, ConcurrentHashMap %.2f B (sink %d)%n",
+            cacheBytesPerRead, mapBytesPerRead, sink);
+
+        assertThat(cacheBytes).isLessThan(mapBytes);
+        assertThat(cacheBytesPerRead).isLessThan(1.0);
+    }
+
+    private static long readCache(UserStateCache cache, int[] fields, int reads) {
+        long sum = 0;
+        for (int i = 0; i < reads; i++) {
+            if (cache.get(FIRST_USER_ID + i % USERS, fields)) {
+                sum += fields[UserStateCache.TURNS];
+            }
+        }
+        return sum;
+    }
+
+    private static long readMap(Map<Long, UserGameState> map, int reads) {
+        long sum = 0;
+        for (int i = 0; i < reads; i++) {
+            UserGameState state = map.get(FIRST_USER_ID + i % USERS);
+            if (state != null) {
+                sum += state.getTurns();
+            }
+        }
+        return sum;
+    }
+
+    private static long usedHeap() {
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+        }
+        return ManagementFactory.getMemoryMXBean().getHeapMemoryUsage().getUsed();
+    }
+
+    private static long allocatedBytes() {
+        return ((com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean())
+            .getThreadAllocatedBytes(Thread.currentThread().threadId());
+    }
+}
@@ -0,0 +1,150 @@
+package com.numbergame.gamenumber.utils;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Near-cache behaviour: reads, CLOCK eviction, removal with backward shift,
+ * and the stamp check that keeps a load racing an invalidation out of the cache
+ */
+class UserStateCacheTest {
+
+    private static final int TTL_SECONDS = 60;
+
+    @Test
+    void putThenGetCopiesAllFields() {
+        UserStateCache cache = new UserStateCache(16, TTL_SECONDS);
+        put(cache, 42L, 130);
+
+        int[] fields = new int[UserStateCache.FIELDS];
+        assertThat(cache.get(42L, fields)).isTrue();
+        assertThat(fields[UserStateCache.SCORE]).isEqualTo(130);
+        assertThat(fields[UserStateCache.TURNS]).isEqualTo(5);
+        assertThat(fields[UserStateCache.STREAK]).isEqualTo(3);
+        assertThat(Integer.toUnsignedLong(fields[UserStateCache.VERSION])).isEqualTo(7L);
+        assertThat(Integer.toUnsignedLong(fields[UserStateCache.ACHIEVED_AT])).isEqualTo(1_750_000_000L);
+        assertThat(cache.get(43L, fields)).isFalse();
+    }
+
+    @Test
+    void putOverwritesExistingEntry() {
+        UserStateCache cache = new UserStateCache(16, TTL_SECONDS);
+        put(cache, 1L, 10);
+        put(cache, 1L, 20);
+
+        int[] fields = new int[UserStateCache.FIELDS];
+        assertThat(cache.get(1L, fields)).isTrue();
+        assertThat(fields[UserStateCache.SCORE]).isEqualTo(20);
+        assertThat(cache.size()).isEqualTo(1);
+    }
+
+    @Test
+    void evictsUnreferencedEntryAtCapacity() {
+        UserStateCache cache = new UserStateCache(4, TTL_SECONDS);
+        for (long id = 1; id <= 4; id++) {
+            put(cache, id, (int) id);
+        }
+
+        // One full CLOCK sweep clears every reference bit, then the first entry the hand meets goes
+        put(cache, 5L, 5);
+
+        assertThat(cache.size()).isEqualTo(4);
+        int[] fields = new int[UserStateCache.FIELDS];
+        assertThat(cache.get(5L, fields)).isTrue();
+        int present = 0;
+        for (long id = 1; id <= 4; id++) {
+            if (cache.get(id, fields)) {
+                present++;
+            }
+        }
+        assertThat(present).isEqualTo(3);
+    }
+
+    @Test
+    void recentlyReadEntrySurvivesEviction() {
+        UserStateCache cache = new UserStateCache(4, TTL_SECONDS);
+        for (long id = 1; id <= 4; id++) {
+            put(cache, id, (int) id);
+        }
+        put(cache, 5L, 5); // sweep clears all reference bits, evicts one of 1..4
+
+        int[] fields = new int[UserStateCache.FIELDS];
+        long hot = -1;
+        for (long id = 1; id <= 4 && hot < 0; id++) {
+            if (cache.get(id, fields)) {
+                hot = id; // second chance for this one
+            }
+        }
+
+        // Cold entries go before the one just read
+        put(cache, 6L, 6);
+        put(cache, 7L, 7);
+        assertThat(cache.get(hot, fields)).isTrue();
+        assertThat(cache.size()).isEqualTo(4);
+    }
+
+    @Test
+    void invalidateRemovesOnlyThatUser() {
+        UserStateCache cache = new UserStateCache(1024, TTL_SECONDS);
+        for (long id = 1; id <= 500; id++) {
+            put(cache, id, (int) id);
+        }
+
+        for (long id = 1; id <= 500; id += 2) {
+            cache.invalidate(id);
+        }
+
+        // Backward-shift deletion keeps every remaining probe run reachable
+        int[] fields = new int[UserStateCache.FIELDS];
+        for (long id = 1; id <= 500; id++) {
+            assertThat(cache.get(id, fields)).as("user %d", id).isEqualTo(id % 2 == 0);
+            if (id % 2 == 0) {
+                assertThat(fields[UserStateCache.SCORE]).isEqualTo((int) id);
+            }
+        }
+        assertThat(cache.size()).isEqualTo(250);
+    }
+
+    @Test
+    void loadRacingAnInvalidationIsNotStored() {
+        UserStateCache cache = new UserStateCache(16, TTL_SECONDS);
+
+        // Reader takes the stamp, reads Redis; meanwhile a write invalidates the user
+        int stamp = cache.stamp(9L);
+        cache.invalidate(9L);
+        cache.put(9L, stamp, 100, 5, 0, 1, 0);
+
+        assertThat(cache.get(9L, new int[UserStateCache.FIELDS])).isFalse();
+
+        // A read started after the invalidation is cached normally
+        cache.put(9L, cache.stamp(9L), 110, 4, 0, 2, 0);
+        assertThat(cache.get(9L, new int[UserStateCache.FIELDS])).isTrue();
+    }
+
+    @Test
+    void clearDropsEntriesAndLoadsInFlight() {
+        UserStateCache cache = new UserStateCache(16, TTL_SECONDS);
+        put(cache, 1L, 10);
+        int stamp = cache.stamp(2L);
+
+        cache.clear();
+        cache.put(2L, stamp, 20, 5, 0, 1, 0);
+
+        int[] fields = new int[UserStateCache.FIELDS];
+        assertThat(cache.size()).isZero();
+        assertThat(cache.get(1L, fields)).isFalse();
+        assertThat(cache.get(2L, fields)).isFalse();
+    }
+
+    @Test
+    void rejectsInvalidConfiguration() {
+        assertThatThrownBy(() -> new UserStateCache(0, TTL_SECONDS)).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> new UserStateCache(16, 0)).isInstanceOf(IllegalArgumentException.class);
+    }
+
+    private static void put(UserStateCache cache, long userId, int score) {
+        cache.put(userId, cache.stamp(userId), score, 5, 3, 7, 1_750_000_000L);
+    }
+}